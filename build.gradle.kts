@@ -52,6 +52,8 @@ plugins {
     id("org.springframework.boot") version "3.5.10" apply false
     // https://plugins.gradle.org/plugin/io.spring.dependency-management
     id("io.spring.dependency-management") version "1.1.7" apply false
+    // https://plugins.gradle.org/plugin/me.champeau.jmh
+    id("me.champeau.jmh") version "0.7.3" apply false
     // https://plugins.gradle.org/plugin/org.sonarqube
     id("org.sonarqube") version "7.2.2.6593"
 }
@@ -0,0 +1,46 @@
+plugins {
+    id("me.champeau.jmh")
+}
+
+group = "ru.tecius.telemed"
+version = "1.0.0"
+description = "Search Benchmarks"
+
+val h2databaseVersion: String by project
+
+dependencies {
+    jmhImplementation(project(":search-models"))
+    jmhImplementation(project(":search-service"))
+    jmhImplementation("com.h2database:h2:$h2databaseVersion")
+    jmhCompileOnly("org.projectlombok:lombok")
+    jmhAnnotationProcessor("org.projectlombok:lombok")
+    jmhAnnotationProcessor(project(":search-processor"))
+}
+
+jmh {
+    jmhVersion.set(project.property("jmhVersion").toString())
+    // Профилировщик аллокаций: gc.alloc.rate.norm - байт на операцию
+    profilers.add("gc")
+    fork.set(1)
+    warmupIterations.set(3)
+    warmup.set("2s")
+    iterations.set(5)
+    timeOnIteration.set("2s")
+    resultFormat.set("JSON")
+    // Запуск части бенчмарков: ./gradlew :search-benchmarks:jmh -Pjmh.includes=Operator
+    project.findProperty("jmh.includes")?.let { includes.set(listOf(it.toString())) }
+}
+
+tasks.named<JavaCompile>("compileJmhJava") {
+    dependsOn(tasks.named("processJmhResources"))
+    options.encoding = "UTF-8"
+    options.compilerArgs.add("-Asearch.info.resources.dir=${project.projectDir}/src/jmh/resources")
+}
+
+tasks.jar {
+    enabled = false
+}
+
+tasks.bootJar {
+    enabled = false
+}
@@ -0,0 +1,80 @@
+package ru.tecius.telemed.benchmark;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.tecius.telemed.benchmark.entity.BenchOrderEntityCriteriaSearchInfo;
+import ru.tecius.telemed.benchmark.entity.BenchOrderEntityNativeSearchInfo;
+import ru.tecius.telemed.configuration.criteria.CriteriaSearchAttribute;
+import ru.tecius.telemed.configuration.nativ.NativeSearchAttribute;
+
+/**
+ * Поиск атрибута по ключу JSON в сгенерированных классах {@code *NativeSearchInfo} и
+ * {@code *CriteriaSearchInfo}: атрибут заказа, атрибут в конце цепочки джойнов и отсутствующий
+ * атрибут.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AttributeLookupBenchmark {
+
+  private static final String ERROR_MESSAGE = "Атрибут не найден";
+
+  private BenchOrderEntityNativeSearchInfo nativeSearchInfo;
+  private BenchOrderEntityCriteriaSearchInfo criteriaSearchInfo;
+  private String simpleKey;
+  private String multipleKey;
+  private String missingKey;
+
+  @Setup
+  public void setUp() {
+    nativeSearchInfo = new BenchOrderEntityNativeSearchInfo();
+    criteriaSearchInfo = new BenchOrderEntityCriteriaSearchInfo();
+    simpleKey = "deliveryDate";
+    multipleKey = "countryCode";
+    missingKey = "unknown";
+  }
+
+  @Benchmark
+  public NativeSearchAttribute nativeSimple() {
+    return nativeSearchInfo.getAttributeByJsonKey(simpleKey, ERROR_MESSAGE);
+  }
+
+  @Benchmark
+  public NativeSearchAttribute nativeMultiple() {
+    return nativeSearchInfo.getAttributeByJsonKey(multipleKey, ERROR_MESSAGE);
+  }
+
+  @Benchmark
+  public Optional<NativeSearchAttribute> nativeMissing() {
+    return nativeSearchInfo.getSimpleAttributeByJsonKey(missingKey);
+  }
+
+  @Benchmark
+  public String nativeFullColumnName() {
+    return nativeSearchInfo.getFullColumnNameByAttribute(
+        nativeSearchInfo.getAttributeByJsonKey(multipleKey, ERROR_MESSAGE));
+  }
+
+  @Benchmark
+  public CriteriaSearchAttribute criteriaSimple() {
+    return criteriaSearchInfo.getAttributeByJsonKey(simpleKey, ERROR_MESSAGE);
+  }
+
+  @Benchmark
+  public CriteriaSearchAttribute criteriaMultiple() {
+    return criteriaSearchInfo.getAttributeByJsonKey(multipleKey, ERROR_MESSAGE);
+  }
+
+  @Benchmark
+  public Optional<CriteriaSearchAttribute> criteriaMissing() {
+    return criteriaSearchInfo.getSimpleAttributeByJsonKey(missingKey);
+  }
+
+}
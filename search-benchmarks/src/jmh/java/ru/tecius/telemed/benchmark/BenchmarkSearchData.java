@@ -0,0 +1,91 @@
+package ru.tecius.telemed.benchmark;
+
+import static ru.tecius.telemed.dto.request.Operator.BEGIN;
+import static ru.tecius.telemed.dto.request.Operator.BETWEEN;
+import static ru.tecius.telemed.dto.request.Operator.CONTAIN;
+import static ru.tecius.telemed.dto.request.Operator.EQUAL;
+import static ru.tecius.telemed.dto.request.Operator.IN;
+import static ru.tecius.telemed.dto.request.Operator.LESS_OR_EQUAL;
+import static ru.tecius.telemed.dto.request.Operator.MORE_OR_EQUAL;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import ru.tecius.telemed.dto.request.Direction;
+import ru.tecius.telemed.dto.request.Operator;
+import ru.tecius.telemed.dto.request.SearchDataDto;
+import ru.tecius.telemed.dto.request.SortDto;
+
+/**
+ * Условия поиска бенчмарков по атрибутам {@code BenchOrderEntity}. Значения подходят и для
+ * нативных сервисов, и для Criteria API.
+ */
+public final class BenchmarkSearchData {
+
+  private static final List<SearchDataDto> SIMPLE_FILTERS = List.of(
+      filter("status", EQUAL, "NEW"),
+      filter("quantity", MORE_OR_EQUAL, "3"),
+      filter("amount", BETWEEN, "10.5", "99.9"),
+      filter("paid", EQUAL, "true"),
+      filter("createDate", MORE_OR_EQUAL, "2024-01-01T00:00:00+03:00"),
+      filter("number", BEGIN, "A-"),
+      filter("comment", CONTAIN, "срочно"),
+      filter("id", IN, "1", "2", "3", "4", "5"),
+      filter("deliveryDate", LESS_OR_EQUAL, "2024-12-31")
+  );
+
+  // Атрибуты в конце цепочки заказ -> клиент -> регион -> страна и коллекция позиций
+  private static final List<SearchDataDto> JOIN_FILTERS = List.of(
+      filter("customerName", BEGIN, "Иван"),
+      filter("regionName", EQUAL, "Москва"),
+      filter("countryCode", EQUAL, "RU"),
+      filter("itemProductName", CONTAIN, "кофе"),
+      filter("customerBirthDate", BETWEEN, "1980-01-01", "1990-12-31"),
+      filter("countryName", EQUAL, "Россия"),
+      filter("itemPrice", MORE_OR_EQUAL, "100.0")
+  );
+
+  private BenchmarkSearchData() {
+    // Utility class - prevent instantiation
+  }
+
+  /**
+   * @param count количество условий, атрибуты повторяются по кругу
+   * @param joins чередовать атрибуты заказа с атрибутами цепочки джойнов
+   */
+  public static List<SearchDataDto> filters(int count, boolean joins) {
+    var source = joins ? interleave(SIMPLE_FILTERS, JOIN_FILTERS) : SIMPLE_FILTERS;
+    var result = new ArrayList<SearchDataDto>(count);
+    for (var i = 0; i < count; i++) {
+      result.add(source.get(i % source.size()));
+    }
+
+    return result;
+  }
+
+  public static LinkedList<SortDto> sort() {
+    return new LinkedList<>(List.of(
+        new SortDto("createDate", Direction.DESC),
+        new SortDto("id", Direction.ASC)));
+  }
+
+  private static SearchDataDto filter(String attribute, Operator operator, String... values) {
+    return new SearchDataDto(attribute, new LinkedList<>(List.of(values)), operator);
+  }
+
+  private static List<SearchDataDto> interleave(List<SearchDataDto> first,
+      List<SearchDataDto> second) {
+    var result = new ArrayList<SearchDataDto>(first.size() + second.size());
+    for (var i = 0; i < Math.max(first.size(), second.size()); i++) {
+      if (i < second.size()) {
+        result.add(second.get(i));
+      }
+      if (i < first.size()) {
+        result.add(first.get(i));
+      }
+    }
+
+    return result;
+  }
+
+}
@@ -0,0 +1,104 @@
+package ru.tecius.telemed.benchmark;
+
+import static java.util.Collections.emptySet;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import ru.tecius.telemed.benchmark.entity.BenchCountryEntity;
+import ru.tecius.telemed.benchmark.entity.BenchCustomerEntity;
+import ru.tecius.telemed.benchmark.entity.BenchOrderEntity;
+import ru.tecius.telemed.benchmark.entity.BenchOrderEntityCriteriaSearchInfo;
+import ru.tecius.telemed.benchmark.entity.BenchOrderItemEntity;
+import ru.tecius.telemed.benchmark.entity.BenchRegionEntity;
+import ru.tecius.telemed.common.observation.SearchTrace;
+import ru.tecius.telemed.criteria.service.CriteriaEntityService;
+import ru.tecius.telemed.dto.request.PaginationDto;
+import ru.tecius.telemed.dto.request.SearchDataDto;
+import ru.tecius.telemed.dto.request.SortDto;
+
+/**
+ * Построение запроса Criteria API {@code AbstractCriteriaSqlService} (джойны, предикаты,
+ * сортировка, пагинация и создание TypedQuery) на EntityManager с базой H2 в памяти. Запрос не
+ * выполняется.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CriteriaQueryBuildBenchmark {
+
+  @Param({"1", "5", "10", "30"})
+  private int filterCount;
+
+  @Param({"false", "true"})
+  private boolean joins;
+
+  private EntityManagerFactory entityManagerFactory;
+  private EntityManager entityManager;
+  private QueryBuilder queryBuilder;
+  private List<SearchDataDto> searchData;
+  private LinkedList<SortDto> sort;
+  private PaginationDto pagination;
+
+  @Setup
+  public void setUp() {
+    entityManagerFactory = new Configuration()
+        .addAnnotatedClass(BenchCountryEntity.class)
+        .addAnnotatedClass(BenchRegionEntity.class)
+        .addAnnotatedClass(BenchCustomerEntity.class)
+        .addAnnotatedClass(BenchOrderEntity.class)
+        .addAnnotatedClass(BenchOrderItemEntity.class)
+        .setProperty(AvailableSettings.JAKARTA_JDBC_URL,
+            "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1")
+        .setProperty(AvailableSettings.JAKARTA_HBM2DDL_DATABASE_ACTION, "create")
+        .buildSessionFactory();
+    entityManager = entityManagerFactory.createEntityManager();
+    queryBuilder = new QueryBuilder(entityManager);
+    searchData = BenchmarkSearchData.filters(filterCount, joins);
+    sort = BenchmarkSearchData.sort();
+    pagination = new PaginationDto(0, 10);
+  }
+
+  @TearDown
+  public void tearDown() {
+    entityManager.close();
+    entityManagerFactory.close();
+  }
+
+  @Benchmark
+  public TypedQuery<BenchOrderEntity> build() {
+    return queryBuilder.build(searchData, sort, pagination);
+  }
+
+  /**
+   * Открывает построение запроса поиска.
+   */
+  private static final class QueryBuilder extends CriteriaEntityService<BenchOrderEntity> {
+
+    private QueryBuilder(EntityManager entityManager) {
+      super(entityManager, new BenchOrderEntityCriteriaSearchInfo(), 10L);
+    }
+
+    private TypedQuery<BenchOrderEntity> build(List<SearchDataDto> searchData,
+        LinkedList<SortDto> sort, PaginationDto pagination) {
+      return createSearchQuery(entityManager.getCriteriaBuilder(), searchData, sort, pagination,
+          null, emptySet(), new SearchTrace());
+    }
+
+  }
+
+}
@@ -0,0 +1,83 @@
+package ru.tecius.telemed.benchmark;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.tecius.telemed.benchmark.entity.BenchOrderEntity;
+import ru.tecius.telemed.benchmark.entity.BenchOrderEntityNativeRowMapper;
+import ru.tecius.telemed.benchmark.entity.BenchOrderEntityNativeSearchInfo;
+import ru.tecius.telemed.dto.request.SearchDataDto;
+import ru.tecius.telemed.dto.request.SortDto;
+import ru.tecius.telemed.nativ.plan.QueryTemplateCache;
+import ru.tecius.telemed.nativ.service.JdbcNativeSqlService;
+import ru.tecius.telemed.nativ.service.NativeContentQuery;
+import ru.tecius.telemed.nativ.service.NativeSearchOptions;
+
+/**
+ * Построение нативного SQL {@code AbstractNativeSqlService} без обращения к базе: компиляция
+ * шаблона запроса (кеш шаблонов нулевого размера) и связывание параметров по закешированному
+ * шаблону.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NativeQueryBuildBenchmark {
+
+  @Param({"1", "5", "10", "30"})
+  private int filterCount;
+
+  @Param({"false", "true"})
+  private boolean joins;
+
+  private QueryBuilder compilingBuilder;
+  private QueryBuilder cachedBuilder;
+  private List<SearchDataDto> searchData;
+  private LinkedList<SortDto> sort;
+
+  @Setup
+  public void setUp() {
+    compilingBuilder = new QueryBuilder(new QueryTemplateCache(0));
+    cachedBuilder = new QueryBuilder(new QueryTemplateCache());
+    searchData = BenchmarkSearchData.filters(filterCount, joins);
+    sort = BenchmarkSearchData.sort();
+    cachedBuilder.build(searchData, sort);
+  }
+
+  @Benchmark
+  public NativeContentQuery compile() {
+    return compilingBuilder.build(searchData, sort);
+  }
+
+  @Benchmark
+  public NativeContentQuery cached() {
+    return cachedBuilder.build(searchData, sort);
+  }
+
+  /**
+   * Открывает построение запроса выборки; JdbcTemplate без источника данных не используется.
+   */
+  private static final class QueryBuilder extends JdbcNativeSqlService<BenchOrderEntity> {
+
+    private QueryBuilder(QueryTemplateCache queryTemplateCache) {
+      super(new JdbcTemplate(), new BenchOrderEntityNativeRowMapper(),
+          new BenchOrderEntityNativeSearchInfo(), 10L,
+          NativeSearchOptions.builder().queryTemplateCache(queryTemplateCache).build());
+    }
+
+    private NativeContentQuery build(List<SearchDataDto> searchData,
+        LinkedList<SortDto> sort) {
+      return buildStreamingQuery(searchData, sort);
+    }
+
+  }
+
+}
@@ -0,0 +1,52 @@
+package ru.tecius.telemed.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.tecius.telemed.dto.request.Operator;
+
+/**
+ * Проверка значений и построение нативного условия {@link Operator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OperatorBenchmark {
+
+  @Param({"EQUAL", "IN", "BETWEEN", "BEGIN", "IS_NULL", "FULL_TEXT", "SIMILAR"})
+  private Operator operator;
+
+  private String dbField;
+  private List<String> values;
+
+  @Setup
+  public void setUp() {
+    dbField = "o.status";
+    values = switch (operator) {
+      case IN -> List.of("NEW", "PAID", "SHIPPED", "DELIVERED", "CANCELLED");
+      case BETWEEN -> List.of("10", "100");
+      case IS_NULL, IS_NOT_NULL -> List.of();
+      case FULL_TEXT -> List.of("срочный заказ -отмена");
+      default -> List.of("NEW");
+    };
+  }
+
+  @Benchmark
+  public Operator checkValue() {
+    operator.checkValue(values);
+    return operator;
+  }
+
+  @Benchmark
+  public String buildNativeCondition() {
+    return operator.buildNativeCondition(dbField, values);
+  }
+
+}
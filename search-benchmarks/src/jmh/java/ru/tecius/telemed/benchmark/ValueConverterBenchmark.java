@@ -0,0 +1,113 @@
+package ru.tecius.telemed.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import ru.tecius.telemed.util.criteria.CriteriaValueConverter;
+import ru.tecius.telemed.util.nativ.NativeValueConverter;
+
+/**
+ * Разбор дат и чисел {@link NativeValueConverter} и {@link CriteriaValueConverter}. Значения
+ * хранятся в полях состояния, чтобы JIT не свернул разбор в константу.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValueConverterBenchmark {
+
+  private String longValue = "1234567890";
+  private String doubleValue = "12345.678";
+  private String decimalValue = "12345.6789";
+  private String uuidValue = "3f2504e0-4f89-11d3-9a0c-0305e82c3301";
+  private String offsetDateTimeValue = "2024-03-15T10:15:30+03:00";
+  private String isoOffsetDateTimeValue = "2024-03-15T10:15:30.123456+03:00";
+  private String localDateTimeValue = "2024-03-15T10:15:30";
+  private String localDateValue = "2024-03-15";
+  private List<String> inValues = List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10");
+
+  @Benchmark
+  public Object nativeLong() {
+    return NativeValueConverter.convertValue(longValue, Long.class);
+  }
+
+  @Benchmark
+  public Object nativeDouble() {
+    return NativeValueConverter.convertValue(doubleValue, Double.class);
+  }
+
+  @Benchmark
+  public Object nativeBigDecimal() {
+    return NativeValueConverter.convertValue(decimalValue, BigDecimal.class);
+  }
+
+  @Benchmark
+  public Object nativeUuid() {
+    return NativeValueConverter.convertValue(uuidValue, UUID.class);
+  }
+
+  @Benchmark
+  public Object nativeOffsetDateTime() {
+    return NativeValueConverter.convertValue(offsetDateTimeValue, OffsetDateTime.class);
+  }
+
+  @Benchmark
+  public Object nativeIsoOffsetDateTime() {
+    return NativeValueConverter.convertIsoValue(isoOffsetDateTimeValue, OffsetDateTime.class);
+  }
+
+  @Benchmark
+  public Object nativeLocalDateTime() {
+    return NativeValueConverter.convertValue(localDateTimeValue, LocalDateTime.class);
+  }
+
+  @Benchmark
+  public Object nativeLocalDate() {
+    return NativeValueConverter.convertValue(localDateValue, LocalDate.class);
+  }
+
+  @Benchmark
+  public List<Object> nativeTransformValues() {
+    return NativeValueConverter.transformValues(inValues, Long.class);
+  }
+
+  @Benchmark
+  public Object criteriaLong() {
+    return CriteriaValueConverter.convertValue(longValue, Long.class);
+  }
+
+  @Benchmark
+  public Object criteriaDouble() {
+    return CriteriaValueConverter.convertValue(doubleValue, Double.class);
+  }
+
+  @Benchmark
+  public Object[] criteriaConvertValues() {
+    return CriteriaValueConverter.convertValues(inValues, Long.class);
+  }
+
+  @Benchmark
+  public Object criteriaOffsetDateTime() {
+    return CriteriaValueConverter.parseDateValue(offsetDateTimeValue, OffsetDateTime.class);
+  }
+
+  @Benchmark
+  public Object criteriaLocalDateTime() {
+    return CriteriaValueConverter.parseDateValue(localDateTimeValue, LocalDateTime.class);
+  }
+
+  @Benchmark
+  public Object criteriaLocalDate() {
+    return CriteriaValueConverter.parseDateValue(localDateValue, LocalDate.class);
+  }
+
+}
@@ -0,0 +1,27 @@
+package ru.tecius.telemed.benchmark.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Страна - последнее звено цепочки джойнов бенчмарков.
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "bench_countries")
+public class BenchCountryEntity {
+
+  @Id
+  private Long id;
+
+  private String code;
+
+  private String name;
+
+}
@@ -0,0 +1,36 @@
+package ru.tecius.telemed.benchmark.entity;
+
+import static jakarta.persistence.FetchType.LAZY;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Клиент, оформивший заказ.
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "bench_customers")
+public class BenchCustomerEntity {
+
+  @Id
+  private Long id;
+
+  private String fullName;
+
+  private LocalDate birthDate;
+
+  @ManyToOne(fetch = LAZY)
+  @JoinColumn(name = "region_id", referencedColumnName = "id")
+  private BenchRegionEntity region;
+
+}
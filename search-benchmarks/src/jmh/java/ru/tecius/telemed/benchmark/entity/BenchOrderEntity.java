@@ -0,0 +1,69 @@
+package ru.tecius.telemed.benchmark.entity;
+
+import static jakarta.persistence.FetchType.LAZY;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.tecius.telemed.annotation.SearchInfo;
+
+/**
+ * Заказ - корневая сущность бенчмарков. Атрибуты охватывают все типы значений конвертеров, а
+ * джойны образуют цепочку заказ -> клиент -> регион -> страна и коллекцию позиций.
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "bench_orders")
+@SearchInfo(schema = "benchmark",
+    table = "bench_orders",
+    alias = "o",
+    nativeAttributePaths = {
+        "bench-order-native-attributes-config.yml"
+    },
+    criteriaAttributePaths = {
+        "bench-order-criteria-attributes-config.yml"
+    })
+public class BenchOrderEntity {
+
+  @Id
+  private Long id;
+
+  private String number;
+
+  private String status;
+
+  private Integer quantity;
+
+  private Double amount;
+
+  private Boolean paid;
+
+  private OffsetDateTime createDate;
+
+  private LocalDateTime updateDate;
+
+  private LocalDate deliveryDate;
+
+  private String comment;
+
+  @ManyToOne(fetch = LAZY)
+  @JoinColumn(name = "customer_id", referencedColumnName = "id")
+  private BenchCustomerEntity customer;
+
+  @OneToMany(mappedBy = "order", fetch = LAZY)
+  private Set<BenchOrderItemEntity> items = new HashSet<>();
+
+}
@@ -0,0 +1,35 @@
+package ru.tecius.telemed.benchmark.entity;
+
+import static jakarta.persistence.FetchType.LAZY;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Позиция заказа - джойн к коллекции.
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "bench_order_items")
+public class BenchOrderItemEntity {
+
+  @Id
+  private Long id;
+
+  private String productName;
+
+  private Double price;
+
+  @ManyToOne(fetch = LAZY)
+  @JoinColumn(name = "order_id", referencedColumnName = "id")
+  private BenchOrderEntity order;
+
+}
@@ -0,0 +1,33 @@
+package ru.tecius.telemed.benchmark.entity;
+
+import static jakarta.persistence.FetchType.LAZY;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Регион клиента.
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "bench_regions")
+public class BenchRegionEntity {
+
+  @Id
+  private Long id;
+
+  private String name;
+
+  @ManyToOne(fetch = LAZY)
+  @JoinColumn(name = "country_id", referencedColumnName = "id")
+  private BenchCountryEntity country;
+
+}
@@ -0,0 +1,80 @@
+package ru.tecius.telemed.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.tecius.telemed.common.observation.SearchEngine;
+import ru.tecius.telemed.load.DatasetSpec;
+import ru.tecius.telemed.load.LoadHarness;
+import ru.tecius.telemed.load.LoadHarnessRunner;
+import ru.tecius.telemed.load.LoadRequestMix;
+import ru.tecius.telemed.load.SyntheticDatasetGenerator;
+import ru.tecius.telemed.service.MenuItemService;
+
+/**
+ * Конфигурация нагрузочного стенда, активна только с профилем load.
+ */
+@Configuration
+@Profile("load")
+public class LoadHarnessConfig {
+
+  @Bean
+  public DatasetSpec datasetSpec(
+      @Value("${search.load.seed:42}") long seed,
+      @Value("${search.load.dataset.menu-items:10000000}") int menuItems,
+      @Value("${search.load.dataset.users:100000}") int users,
+      @Value("${search.load.dataset.groups:1000}") int groups,
+      @Value("${search.load.dataset.document-ratio:0.9}") double documentRatio,
+      @Value("${search.load.dataset.max-attachments:10}") int maxAttachments,
+      @Value("${search.load.dataset.max-permissions:8}") int maxPermissions,
+      @Value("${search.load.dataset.max-groups-per-user:5}") int maxGroupsPerUser,
+      @Value("${search.load.dataset.skew:2.0}") double skew,
+      @Value("${search.load.dataset.batch-size:5000}") int batchSize) {
+    return new DatasetSpec(seed, menuItems, users, groups, documentRatio, maxAttachments,
+        maxPermissions, maxGroupsPerUser, skew, batchSize);
+  }
+
+  @Bean
+  public SyntheticDatasetGenerator syntheticDatasetGenerator(JdbcTemplate jdbcTemplate,
+      @Value("${spring.jpa.properties.hibernate.default_schema}") String schema) {
+    return new SyntheticDatasetGenerator(jdbcTemplate, schema);
+  }
+
+  @Bean
+  public LoadRequestMix loadRequestMix(ObjectMapper objectMapper,
+      @Value("${search.load.request-mix:classpath:load/request-mix.json}") Resource requestMix)
+      throws IOException {
+    try (var json = requestMix.getInputStream()) {
+      return LoadRequestMix.read(objectMapper, json);
+    }
+  }
+
+  @Bean
+  public LoadHarness loadHarness(MenuItemService menuItemService, LoadRequestMix loadRequestMix,
+      @Value("${search.load.seed:42}") long seed,
+      @Value("${search.load.concurrency:16}") int concurrency,
+      @Value("${search.load.warmup:30s}") Duration warmup,
+      @Value("${search.load.duration:2m}") Duration duration) {
+    return new LoadHarness(menuItemService::search, loadRequestMix, concurrency, warmup,
+        duration, seed);
+  }
+
+  @Bean
+  public LoadHarnessRunner loadHarnessRunner(SyntheticDatasetGenerator generator,
+      DatasetSpec datasetSpec, LoadHarness loadHarness, ObjectMapper objectMapper,
+      @Value("${search.load.generate:true}") boolean generate,
+      @Value("${search.load.engines:JDBC,JPA,CRITERIA}") List<SearchEngine> engines,
+      @Value("${search.load.report:build/load-report.json}") String report) {
+    return new LoadHarnessRunner(generator, datasetSpec, generate, loadHarness, engines,
+        objectMapper, Path.of(report));
+  }
+
+}
@@ -0,0 +1,45 @@
+package ru.tecius.telemed.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import ru.tecius.telemed.common.capture.CaptureValueMasker;
+import ru.tecius.telemed.common.capture.SearchTrafficRecorder;
+import ru.tecius.telemed.entity.MenuItemEntity;
+import ru.tecius.telemed.entity.MenuItemEntityCriteriaSearchInfo;
+import ru.tecius.telemed.entity.MenuItemEntityNativeSearchInfo;
+
+/**
+ * Конфигурация журнала захвата поисковых запросов. По умолчанию выключен, включается свойством
+ * search.capture.enabled; значения фильтров включённого журнала по умолчанию хешируются.
+ */
+@Configuration
+public class SearchCaptureConfig {
+
+  @Bean
+  public SearchTrafficRecorder searchTrafficRecorder(ObjectMapper objectMapper,
+      MenuItemEntityCriteriaSearchInfo menuItemEntityCriteriaSearchInfo,
+      @Value("${search.capture.enabled:false}") boolean enabled,
+      @Value("${search.capture.directory:capture}") String directory,
+      @Value("${search.capture.max-file-size:64MB}") DataSize maxFileSize,
+      @Value("${search.capture.max-files:20}") int maxFiles,
+      @Value("${search.capture.sample-rate:1.0}") double sampleRate,
+      @Value("${search.capture.hash-values:true}") boolean hashValues,
+      @Value("${search.capture.hash-salt:}") String hashSalt) {
+    if (!enabled) {
+      return SearchTrafficRecorder.disabled();
+    }
+
+    var masker = hashValues
+        ? new CaptureValueMasker(hashSalt)
+            .register(MenuItemEntity.class, new MenuItemEntityNativeSearchInfo())
+            .register(menuItemEntityCriteriaSearchInfo)
+        : null;
+    return new SearchTrafficRecorder(Path.of(directory), objectMapper, maxFileSize.toBytes(),
+        maxFiles, sampleRate, masker);
+  }
+
+}
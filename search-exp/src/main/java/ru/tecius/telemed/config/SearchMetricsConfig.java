@@ -0,0 +1,21 @@
+package ru.tecius.telemed.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.tecius.telemed.common.metrics.SearchMetrics;
+
+/**
+ * Конфигурация метрик фаз поиска.
+ */
+@Configuration
+public class SearchMetricsConfig {
+
+  @Bean
+  public SearchMetrics searchMetrics(MeterRegistry meterRegistry,
+      @Value("${search.metrics.max-filter-tag-values:100}") int maxFilterTagValues) {
+    return new SearchMetrics(meterRegistry, maxFilterTagValues);
+  }
+
+}
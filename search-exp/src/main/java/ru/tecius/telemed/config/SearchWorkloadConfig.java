@@ -0,0 +1,37 @@
+package ru.tecius.telemed.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.tecius.telemed.common.workload.IndexAdvisor;
+import ru.tecius.telemed.common.workload.SearchWorkloadEndpoint;
+import ru.tecius.telemed.common.workload.SearchWorkloadRecorder;
+import ru.tecius.telemed.entity.MenuItemEntity;
+import ru.tecius.telemed.entity.MenuItemEntityCriteriaSearchInfo;
+import ru.tecius.telemed.entity.MenuItemEntityNativeSearchInfo;
+
+/**
+ * Конфигурация статистики нагрузки поиска и actuator-эндпоинта searchworkload.
+ */
+@Configuration
+public class SearchWorkloadConfig {
+
+  @Bean
+  public SearchWorkloadRecorder searchWorkloadRecorder() {
+    return new SearchWorkloadRecorder();
+  }
+
+  @Bean
+  public IndexAdvisor indexAdvisor(
+      MenuItemEntityCriteriaSearchInfo menuItemEntityCriteriaSearchInfo) {
+    return new IndexAdvisor()
+        .register(MenuItemEntity.class, new MenuItemEntityNativeSearchInfo())
+        .register(menuItemEntityCriteriaSearchInfo);
+  }
+
+  @Bean
+  public SearchWorkloadEndpoint searchWorkloadEndpoint(SearchWorkloadRecorder recorder,
+      IndexAdvisor indexAdvisor) {
+    return new SearchWorkloadEndpoint(recorder, indexAdvisor);
+  }
+
+}
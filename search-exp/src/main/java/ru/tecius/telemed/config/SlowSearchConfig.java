@@ -0,0 +1,33 @@
+package ru.tecius.telemed.config;
+
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.tecius.telemed.common.slowlog.SlowSearchEndpoint;
+import ru.tecius.telemed.common.slowlog.SlowSearchLog;
+
+/**
+ * Конфигурация журнала медленных поисков и actuator-эндпоинта slowsearches.
+ */
+@Configuration
+public class SlowSearchConfig {
+
+  @Bean
+  public SlowSearchLog slowSearchLog(
+      @Value("${search.slow-log.threshold:500ms}") Duration threshold,
+      @Value("${search.slow-log.capacity:100}") int capacity,
+      @Value("${search.slow-log.sample-rate:1.0}") double sampleRate,
+      @Value("${search.slow-log.explain-interval:1m}") Duration explainInterval,
+      @Value("${search.slow-log.explain-timeout:5s}") Duration explainTimeout,
+      @Value("${search.slow-log.explain-analyze:false}") boolean explainAnalyze) {
+    return new SlowSearchLog(threshold, capacity, sampleRate, explainInterval, explainTimeout,
+        explainAnalyze);
+  }
+
+  @Bean
+  public SlowSearchEndpoint slowSearchEndpoint(SlowSearchLog slowSearchLog) {
+    return new SlowSearchEndpoint(slowSearchLog);
+  }
+
+}
@@ -0,0 +1,44 @@
+package ru.tecius.telemed.config;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import ru.tecius.telemed.common.observation.SearchEngine;
+import ru.tecius.telemed.entity.MenuItemEntity;
+import ru.tecius.telemed.load.TrafficReplayRunner;
+import ru.tecius.telemed.load.TrafficReplayer;
+import ru.tecius.telemed.service.MenuItemService;
+
+/**
+ * Конфигурация воспроизведения журнала захвата, активна только с профилем replay.
+ */
+@Configuration
+@Profile("replay")
+public class TrafficReplayConfig {
+
+  @Bean
+  public TrafficReplayer trafficReplayer(MenuItemService menuItemService,
+      @Value("${search.replay.engine:}") String engine,
+      @Value("${search.replay.concurrency:16}") int concurrency,
+      @Value("${search.replay.speed:1.0}") double speed) {
+    return new TrafficReplayer(menuItemService::search, MenuItemEntity.class,
+        isBlank(engine) ? null : SearchEngine.valueOf(engine), concurrency, speed);
+  }
+
+  @Bean
+  public TrafficReplayRunner trafficReplayRunner(TrafficReplayer trafficReplayer,
+      ObjectMapper objectMapper,
+      @Value("${search.replay.capture:capture}") String capture,
+      @Value("${search.replay.label:current}") String label,
+      @Value("${search.replay.report:build/replay-report.json}") String report,
+      @Value("${search.replay.baseline:}") String baseline) {
+    return new TrafficReplayRunner(trafficReplayer, objectMapper, Path.of(capture), label,
+        Path.of(report), isBlank(baseline) ? null : Path.of(baseline));
+  }
+
+}
@@ -0,0 +1,30 @@
+package ru.tecius.telemed.load;
+
+/**
+ * Параметры синтетического набора данных нагрузочного стенда.
+ *
+ * @param seed             начальное значение генератора: одинаковые параметры дают одинаковые
+ *                         данные
+ * @param menuItems        количество элементов меню
+ * @param users            количество пользователей
+ * @param groups           количество групп
+ * @param documentRatio    доля элементов меню с документом
+ * @param maxAttachments   наибольшее количество вложений документа
+ * @param maxPermissions   наибольшее количество разрешений элемента меню
+ * @param maxGroupsPerUser наибольшее количество групп пользователя
+ * @param skew             показатель перекоса распределений: 1 - равномерное, больше 1 - малые
+ *                         значения и «горячие» идентификаторы встречаются чаще
+ * @param batchSize        количество элементов меню в одной порции вставки
+ */
+public record DatasetSpec(long seed,
+                          int menuItems,
+                          int users,
+                          int groups,
+                          double documentRatio,
+                          int maxAttachments,
+                          int maxPermissions,
+                          int maxGroupsPerUser,
+                          double skew,
+                          int batchSize) {
+
+}
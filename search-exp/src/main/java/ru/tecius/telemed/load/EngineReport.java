@@ -0,0 +1,27 @@
+package ru.tecius.telemed.load;
+
+import java.util.Map;
+import ru.tecius.telemed.common.observation.SearchEngine;
+
+/**
+ * Результат измерения одного движка поиска.
+ *
+ * @param engine          движок
+ * @param seconds         длительность измерения
+ * @param throughput      успешных запросов в секунду
+ * @param latency         задержки всех запросов набора
+ * @param allocatedBytes  байт, выделенных потоками нагрузки за измерение
+ * @param allocationRate  выделение памяти потоками нагрузки, МБ/с
+ * @param bytesPerRequest байт, выделенных на один запрос
+ * @param requests        задержки по запросам набора
+ */
+public record EngineReport(SearchEngine engine,
+                           double seconds,
+                           double throughput,
+                           LatencySummary latency,
+                           long allocatedBytes,
+                           double allocationRate,
+                           long bytesPerRequest,
+                           Map<String, LatencySummary> requests) {
+
+}
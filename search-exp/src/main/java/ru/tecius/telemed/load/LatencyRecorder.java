@@ -0,0 +1,65 @@
+package ru.tecius.telemed.load;
+
+import java.util.Arrays;
+
+/**
+ * Задержки запросов одного потока нагрузки. Хранит все значения, чтобы перцентили были точными;
+ * не потокобезопасен, результаты потоков объединяются {@link #addAll}.
+ */
+public class LatencyRecorder {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private long[] nanos = new long[INITIAL_CAPACITY];
+  private int size;
+  private long errors;
+
+  public void record(long elapsedNanos) {
+    if (size == nanos.length) {
+      nanos = Arrays.copyOf(nanos, size * 2);
+    }
+
+    nanos[size++] = elapsedNanos;
+  }
+
+  public void recordError() {
+    errors++;
+  }
+
+  public long getErrors() {
+    return errors;
+  }
+
+  public void addAll(LatencyRecorder other) {
+    if (size + other.size > nanos.length) {
+      nanos = Arrays.copyOf(nanos, Math.max(nanos.length * 2, size + other.size));
+    }
+
+    System.arraycopy(other.nanos, 0, nanos, size, other.size);
+    size += other.size;
+    errors += other.errors;
+  }
+
+  public LatencySummary summarize() {
+    var sorted = Arrays.copyOf(nanos, size);
+    Arrays.sort(sorted);
+    return new LatencySummary(size, errors, percentile(sorted, 0.5), percentile(sorted, 0.9),
+        percentile(sorted, 0.99), percentile(sorted, 0.999),
+        size == 0 ? 0.0 : toMillis(sorted[size - 1]));
+  }
+
+  private static double percentile(long[] sorted, double quantile) {
+    if (sorted.length == 0) {
+      return 0.0;
+    }
+
+    // Метод ближайшего ранга
+    var rank = (int) Math.ceil(quantile * sorted.length);
+    return toMillis(sorted[Math.max(0, rank - 1)]);
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+
+}
@@ -0,0 +1,17 @@
+package ru.tecius.telemed.load;
+
+/**
+ * Задержки успешных запросов в миллисекундах.
+ *
+ * @param count  количество успешных запросов
+ * @param errors количество запросов, завершившихся ошибкой
+ */
+public record LatencySummary(long count,
+                             long errors,
+                             double p50,
+                             double p90,
+                             double p99,
+                             double p999,
+                             double max) {
+
+}
@@ -0,0 +1,152 @@
+package ru.tecius.telemed.load;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import ru.tecius.telemed.common.observation.SearchEngine;
+import ru.tecius.telemed.dto.request.SearchRequestDto;
+import ru.tecius.telemed.exception.ProcessingException;
+
+/**
+ * Нагрузочный стенд: выполняет набор запросов заданным количеством потоков поочерёдно на каждом
+ * движке поиска и измеряет пропускную способность, перцентили задержки и выделение памяти.
+ *
+ * <p>Потоки нагрузки - платформенные: выделение памяти считается по потоку через
+ * {@link com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()} и включает работу
+ * драйвера JDBC и Hibernate в этом потоке. Каждый поток выбирает запросы своим генератором с
+ * начальным значением seed + номер потока, поэтому все движки получают одинаковую
+ * последовательность запросов.
+ */
+@Slf4j
+public class LoadHarness {
+
+  private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+  private static final double BYTES_IN_MEGABYTE = 1024.0 * 1024.0;
+  private static final double NANOS_IN_SECOND = 1_000_000_000.0;
+
+  private final BiConsumer<SearchEngine, SearchRequestDto> search;
+  private final LoadRequestMix requestMix;
+  private final int concurrency;
+  private final Duration warmup;
+  private final Duration duration;
+  private final long seed;
+
+  /**
+   * @param search      выполнение поиска движком
+   * @param requestMix  набор запросов
+   * @param concurrency количество потоков нагрузки
+   * @param warmup      длительность прогрева движка, результаты прогрева не учитываются
+   * @param duration    длительность измерения движка
+   * @param seed        начальное значение выбора запросов
+   */
+  public LoadHarness(BiConsumer<SearchEngine, SearchRequestDto> search,
+      LoadRequestMix requestMix, int concurrency, Duration warmup, Duration duration, long seed) {
+    this.search = search;
+    this.requestMix = requestMix;
+    this.concurrency = concurrency;
+    this.warmup = warmup;
+    this.duration = duration;
+    this.seed = seed;
+  }
+
+  public LoadReport run(List<SearchEngine> engines, DatasetSpec dataset) {
+    return new LoadReport(dataset, concurrency, warmup.toSeconds(), duration.toSeconds(),
+        engines.stream().map(this::run).toList());
+  }
+
+  public EngineReport run(SearchEngine engine) {
+    log.info("Прогрев движка {}: {} с", engine, warmup.toSeconds());
+    execute(engine, warmup);
+    log.info("Измерение движка {}: {} с", engine, duration.toSeconds());
+    var results = execute(engine, duration);
+
+    var total = new LatencyRecorder();
+    var byRequest = new TreeMap<String, LatencyRecorder>();
+    var allocatedBytes = 0L;
+    var elapsedNanos = 0L;
+    for (var result : results) {
+      result.recorders().forEach((name, recorder) -> {
+        total.addAll(recorder);
+        byRequest.computeIfAbsent(name, key -> new LatencyRecorder()).addAll(recorder);
+      });
+      allocatedBytes += result.allocatedBytes();
+      elapsedNanos = Math.max(elapsedNanos, result.elapsedNanos());
+    }
+
+    var latency = total.summarize();
+    var seconds = elapsedNanos / NANOS_IN_SECOND;
+    var requests = new TreeMap<String, LatencySummary>();
+    byRequest.forEach((name, recorder) -> requests.put(name, recorder.summarize()));
+    var calls = latency.count() + latency.errors();
+    return new EngineReport(engine, seconds, latency.count() / seconds, latency, allocatedBytes,
+        allocatedBytes / BYTES_IN_MEGABYTE / seconds, calls == 0 ? 0 : allocatedBytes / calls,
+        requests);
+  }
+
+  private List<WorkerResult> execute(SearchEngine engine, Duration period) {
+    var deadline = System.nanoTime() + period.toNanos();
+    try (var executor = Executors.newFixedThreadPool(concurrency)) {
+      var futures = IntStream.range(0, concurrency)
+          .mapToObj(worker -> executor.submit(() -> work(engine, worker, deadline)))
+          .toList();
+      return futures.stream()
+          .map(this::await)
+          .toList();
+    }
+  }
+
+  private WorkerResult work(SearchEngine engine, int worker, long deadline) {
+    var random = new SplittableRandom(seed + worker);
+    var recorders = new HashMap<String, LatencyRecorder>();
+    var allocatedBefore = THREAD_BEAN.getCurrentThreadAllocatedBytes();
+    var start = System.nanoTime();
+    while (System.nanoTime() < deadline) {
+      var request = requestMix.next(random);
+      var recorder = recorders.computeIfAbsent(request.name(), name -> new LatencyRecorder());
+      var requestStart = System.nanoTime();
+      try {
+        search.accept(engine, request.request());
+        recorder.record(System.nanoTime() - requestStart);
+      } catch (RuntimeException ex) {
+        recorder.recordError();
+        // Первая ошибка запроса в потоке, остальные только подсчитываются
+        if (recorder.getErrors() == 1) {
+          log.warn("Ошибка запроса {} движка {}", request.name(), engine, ex);
+        }
+      }
+    }
+
+    return new WorkerResult(recorders,
+        THREAD_BEAN.getCurrentThreadAllocatedBytes() - allocatedBefore,
+        System.nanoTime() - start);
+  }
+
+  private WorkerResult await(Future<WorkerResult> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new ProcessingException("Нагрузка прервана", ex);
+    } catch (ExecutionException ex) {
+      throw new ProcessingException("Ошибка потока нагрузки", ex.getCause());
+    }
+  }
+
+  private record WorkerResult(Map<String, LatencyRecorder> recorders,
+                              long allocatedBytes,
+                              long elapsedNanos) {
+
+  }
+
+}
@@ -0,0 +1,118 @@
+package ru.tecius.telemed.load;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import ru.tecius.telemed.common.observation.SearchEngine;
+
+/**
+ * Запуск нагрузочного стенда при старте приложения с профилем load: генерация набора данных (если
+ * включена), измерение движков и запись отчёта в JSON.
+ *
+ * <p>Запуск на одной машине с локальным PostgreSQL:
+ * {@code PROFILE=load ./gradlew :search-exp:bootRun}.
+ */
+@Slf4j
+public class LoadHarnessRunner implements ApplicationRunner {
+
+  private static final String ENGINE_ROW_FORMAT = "%-9s %10s %9s %9s %9s %9s %9s %8s %10s %12s%n";
+  private static final String REQUEST_COLUMN_FORMAT = "%-28s";
+  private static final String ENGINE_COLUMN_FORMAT = " %18s";
+
+  private final SyntheticDatasetGenerator generator;
+  private final DatasetSpec datasetSpec;
+  private final boolean generate;
+  private final LoadHarness harness;
+  private final List<SearchEngine> engines;
+  private final ObjectMapper objectMapper;
+  private final Path reportPath;
+
+  /**
+   * @param generate   генерировать набор данных перед измерением; без генерации используются
+   *                   данные, оставшиеся от предыдущего запуска
+   * @param reportPath файл отчёта JSON
+   */
+  public LoadHarnessRunner(SyntheticDatasetGenerator generator, DatasetSpec datasetSpec,
+      boolean generate, LoadHarness harness, List<SearchEngine> engines,
+      ObjectMapper objectMapper, Path reportPath) {
+    this.generator = generator;
+    this.datasetSpec = datasetSpec;
+    this.generate = generate;
+    this.harness = harness;
+    this.engines = engines;
+    this.objectMapper = objectMapper;
+    this.reportPath = reportPath;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) throws IOException {
+    if (generate) {
+      generator.generate(datasetSpec);
+    }
+
+    var report = harness.run(engines, generate ? datasetSpec : null);
+    log.info("Результаты нагрузки:\n{}", format(report));
+
+    var parent = reportPath.toAbsolutePath().getParent();
+    if (nonNull(parent)) {
+      Files.createDirectories(parent);
+    }
+
+    objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportPath.toFile(), report);
+    log.info("Отчёт нагрузки записан в {}", reportPath.toAbsolutePath());
+  }
+
+  /**
+   * Текстовые таблицы отчёта: движки по строкам, затем p50/p99 запросов набора по движкам.
+   */
+  private static String format(LoadReport report) {
+    var builder = new StringBuilder();
+    builder.append(ENGINE_ROW_FORMAT.formatted("engine", "req/s", "p50 ms", "p90 ms", "p99 ms",
+        "p99.9 ms", "max ms", "errors", "alloc MB/s", "bytes/req"));
+    for (var engine : report.engines()) {
+      var latency = engine.latency();
+      builder.append(String.format(Locale.ROOT, ENGINE_ROW_FORMAT, engine.engine(),
+          decimal(engine.throughput(), 1), decimal(latency.p50(), 2), decimal(latency.p90(), 2),
+          decimal(latency.p99(), 2), decimal(latency.p999(), 2), decimal(latency.max(), 2),
+          latency.errors(), decimal(engine.allocationRate(), 1),
+          engine.bytesPerRequest()));
+    }
+
+    builder.append(System.lineSeparator())
+        .append(REQUEST_COLUMN_FORMAT.formatted("request, p50/p99 ms"));
+    report.engines().forEach(engine -> builder.append(
+        ENGINE_COLUMN_FORMAT.formatted(engine.engine())));
+    builder.append(System.lineSeparator());
+
+    var names = new TreeSet<String>();
+    report.engines().forEach(engine -> names.addAll(engine.requests().keySet()));
+    for (var name : names) {
+      builder.append(REQUEST_COLUMN_FORMAT.formatted(name));
+      for (var engine : report.engines()) {
+        var latency = engine.requests().get(name);
+        builder.append(ENGINE_COLUMN_FORMAT.formatted(isNull(latency)
+            ? "-"
+            : decimal(latency.p50(), 2) + "/" + decimal(latency.p99(), 2)));
+      }
+
+      builder.append(System.lineSeparator());
+    }
+
+    return builder.toString();
+  }
+
+  private static String decimal(double value, int scale) {
+    return String.format(Locale.ROOT, "%." + scale + "f", value);
+  }
+
+}
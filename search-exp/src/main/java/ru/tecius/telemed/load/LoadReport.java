@@ -0,0 +1,20 @@
+package ru.tecius.telemed.load;
+
+import java.util.List;
+
+/**
+ * Отчёт нагрузочного стенда: матрица движков поиска на одном наборе запросов.
+ *
+ * @param dataset         параметры сгенерированного набора данных, null - данные не генерировались
+ * @param concurrency     количество потоков нагрузки
+ * @param warmupSeconds   длительность прогрева каждого движка
+ * @param durationSeconds длительность измерения каждого движка
+ * @param engines         результаты движков
+ */
+public record LoadReport(DatasetSpec dataset,
+                         int concurrency,
+                         long warmupSeconds,
+                         long durationSeconds,
+                         List<EngineReport> engines) {
+
+}
@@ -0,0 +1,16 @@
+package ru.tecius.telemed.load;
+
+import ru.tecius.telemed.dto.request.SearchRequestDto;
+
+/**
+ * Запрос набора нагрузки.
+ *
+ * @param name    имя запроса в отчёте
+ * @param weight  относительная частота запроса в наборе
+ * @param request поисковый запрос
+ */
+public record LoadRequest(String name,
+                          int weight,
+                          SearchRequestDto request) {
+
+}
@@ -0,0 +1,63 @@
+package ru.tecius.telemed.load;
+
+import static org.apache.commons.collections4.CollectionUtils.isEmpty;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.SplittableRandom;
+import ru.tecius.telemed.exception.ProcessingException;
+
+/**
+ * Набор запросов нагрузки с весами. Запрос выбирается случайно пропорционально весу.
+ */
+public class LoadRequestMix {
+
+  private final List<LoadRequest> requests;
+  private final int[] cumulativeWeights;
+
+  public LoadRequestMix(List<LoadRequest> requests) {
+    if (isEmpty(requests)) {
+      throw new ProcessingException("Набор запросов нагрузки пуст");
+    }
+
+    this.requests = List.copyOf(requests);
+    this.cumulativeWeights = new int[requests.size()];
+    var total = 0;
+    for (var i = 0; i < requests.size(); i++) {
+      total += requests.get(i).weight();
+      cumulativeWeights[i] = total;
+    }
+  }
+
+  /**
+   * Читает набор из JSON-массива объектов {@link LoadRequest}.
+   */
+  public static LoadRequestMix read(ObjectMapper objectMapper, InputStream json) {
+    try {
+      return new LoadRequestMix(
+          objectMapper.readValue(json, new TypeReference<List<LoadRequest>>() {
+          }));
+    } catch (IOException ex) {
+      throw new ProcessingException("Ошибка чтения набора запросов нагрузки", ex);
+    }
+  }
+
+  public LoadRequest next(SplittableRandom random) {
+    var value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+    for (var i = 0; i < cumulativeWeights.length; i++) {
+      if (value < cumulativeWeights[i]) {
+        return requests.get(i);
+      }
+    }
+
+    return requests.getLast();
+  }
+
+  public List<LoadRequest> getRequests() {
+    return requests;
+  }
+
+}
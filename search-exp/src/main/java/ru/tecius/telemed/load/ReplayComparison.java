@@ -0,0 +1,54 @@
+package ru.tecius.telemed.load;
+
+import static java.util.Objects.isNull;
+
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * Сравнение двух воспроизведений одного журнала захвата, например до и после изменения сборки:
+ * перцентили задержки и их изменение в процентах в целом и по формам запросов.
+ */
+public final class ReplayComparison {
+
+  private static final String ROW_FORMAT = "%-60s %18s %18s %18s %18s %9s%n";
+
+  private ReplayComparison() {
+    // Utility class - prevent instantiation
+  }
+
+  public static String format(ReplayReport baseline, ReplayReport candidate) {
+    var builder = new StringBuilder();
+    builder.append("baseline: %s, candidate: %s%n".formatted(baseline.label(),
+        candidate.label()));
+    builder.append(ROW_FORMAT.formatted("shape, baseline -> candidate ms", "p50", "p90", "p99",
+        "p99.9", "count"));
+    appendRow(builder, "total", baseline.latency(), candidate.latency());
+
+    var shapes = new TreeSet<String>();
+    shapes.addAll(baseline.shapes().keySet());
+    shapes.addAll(candidate.shapes().keySet());
+    shapes.forEach(shape -> appendRow(builder, shape, baseline.shapes().get(shape),
+        candidate.shapes().get(shape)));
+    return builder.toString();
+  }
+
+  private static void appendRow(StringBuilder builder, String name, LatencySummary baseline,
+      LatencySummary candidate) {
+    if (isNull(baseline) || isNull(candidate)) {
+      builder.append(ROW_FORMAT.formatted(name, "-", "-", "-", "-",
+          isNull(baseline) ? "new" : "removed"));
+      return;
+    }
+
+    builder.append(ROW_FORMAT.formatted(name, change(baseline.p50(), candidate.p50()),
+        change(baseline.p90(), candidate.p90()), change(baseline.p99(), candidate.p99()),
+        change(baseline.p999(), candidate.p999()), candidate.count()));
+  }
+
+  private static String change(double baseline, double candidate) {
+    var percent = baseline == 0.0 ? 0.0 : (candidate - baseline) * 100.0 / baseline;
+    return String.format(Locale.ROOT, "%.2f->%.2f %+.0f%%", baseline, candidate, percent);
+  }
+
+}
@@ -0,0 +1,28 @@
+package ru.tecius.telemed.load;
+
+import java.util.Map;
+
+/**
+ * Отчёт воспроизведения журнала захвата.
+ *
+ * @param label       метка сборки или окружения, на котором выполнялось воспроизведение
+ * @param capture     каталог или файл журнала захвата
+ * @param speed       ускорение относительно исходного темпа, 0 - без пауз
+ * @param concurrency наибольшее количество одновременных запросов
+ * @param replayed    количество воспроизведённых запросов
+ * @param skipped     количество записей журнала по другим сущностям
+ * @param seconds     длительность воспроизведения
+ * @param latency     задержки всех запросов от запланированного времени отправки
+ * @param shapes      задержки по движку и форме запроса
+ */
+public record ReplayReport(String label,
+                           String capture,
+                           double speed,
+                           int concurrency,
+                           long replayed,
+                           long skipped,
+                           double seconds,
+                           LatencySummary latency,
+                           Map<String, LatencySummary> shapes) {
+
+}
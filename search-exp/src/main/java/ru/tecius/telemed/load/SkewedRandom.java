@@ -0,0 +1,49 @@
+package ru.tecius.telemed.load;
+
+import java.util.SplittableRandom;
+
+/**
+ * Генератор случайных значений со степенным перекосом к началу диапазона. Воспроизводим при
+ * одинаковом начальном значении.
+ */
+public class SkewedRandom {
+
+  private final SplittableRandom random;
+  private final double skew;
+
+  /**
+   * @param seed начальное значение
+   * @param skew показатель перекоса, 1 - равномерное распределение
+   */
+  public SkewedRandom(long seed, double skew) {
+    this.random = new SplittableRandom(seed);
+    this.skew = skew;
+  }
+
+  /**
+   * @return значение от 0 (включительно) до bound (не включительно), малые значения вероятнее
+   */
+  public int nextSkewed(int bound) {
+    return Math.min(bound - 1, (int) (bound * Math.pow(random.nextDouble(), skew)));
+  }
+
+  /**
+   * @return идентификатор от 1 до count, малые идентификаторы вероятнее
+   */
+  public long nextId(int count) {
+    return nextSkewed(count) + 1L;
+  }
+
+  public <T> T nextElement(T[] values) {
+    return values[nextSkewed(values.length)];
+  }
+
+  public int nextInt(int bound) {
+    return random.nextInt(bound);
+  }
+
+  public boolean nextBoolean(double probability) {
+    return random.nextDouble() < probability;
+  }
+
+}
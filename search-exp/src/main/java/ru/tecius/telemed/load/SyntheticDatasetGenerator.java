@@ -0,0 +1,248 @@
+package ru.tecius.telemed.load;
+
+import static java.util.stream.Collectors.joining;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.tecius.telemed.entity.PermissionType;
+
+/**
+ * Заполняет таблицы модели search-exp воспроизводимым синтетическим набором данных с перекосом:
+ * часть родительских элементов меню, пользователей, групп и расширений файлов встречается
+ * значительно чаще остальных, количество вложений и разрешений распределено степенно.
+ *
+ * <p>Таблицы должны существовать (профиль load создаёт их через hbm2ddl). Перед заполнением
+ * таблицы очищаются. Элементы меню вставляются порциями вместе с документами, вложениями и
+ * разрешениями в порядке внешних ключей; для скорости вставки в URL соединения PostgreSQL
+ * включается reWriteBatchedInserts.
+ */
+@Slf4j
+public class SyntheticDatasetGenerator {
+
+  private static final OffsetDateTime BASE_DATE =
+      OffsetDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+  private static final int HISTORY_SECONDS = (int) TimeUnit.DAYS.toSeconds(3 * 365);
+  private static final int UPDATE_SECONDS = (int) TimeUnit.DAYS.toSeconds(30);
+  private static final int ROOT_MENU_ITEMS = 100;
+  private static final int PROGRESS_STEP = 1_000_000;
+
+  private static final String[] TITLE_WORDS = {"Регламент", "Инструкция", "Приказ", "Положение",
+      "Справочник", "Отчёт", "Методика", "Шаблон"};
+  private static final String[] FILE_PREFIXES = {"scan", "report", "My_Little", "photo", "draft"};
+  private static final String[] EXTENSIONS = {"pdf", "docx", "png", "img", "xlsx", "txt", "zip"};
+  private static final String[] LAST_NAMES = {"Иванов", "Смирнов", "Кузнецов", "Попов",
+      "Васильев", "Петров", "Соколов", "Михайлов"};
+  private static final String[] FIRST_NAMES = {"Александр", "Мария", "Дмитрий", "Анна",
+      "Сергей", "Елена", "Андрей", "Ольга"};
+
+  private static final String DICT_PERMISSION_TYPES = "dict_permission_types";
+  private static final String USERS = "users";
+  private static final String GROUPS = "groups";
+  private static final String USERS_GROUPS = "users_groups";
+  private static final String MENU_ITEMS = "menu_items";
+  private static final String DOCUMENTS = "documents";
+  private static final String DOCUMENT_ATTACHMENTS = "document_attachments";
+  private static final String PERMISSIONS = "permissions";
+  private static final List<String> TABLES = List.of(DICT_PERMISSION_TYPES, USERS, GROUPS,
+      USERS_GROUPS, MENU_ITEMS, DOCUMENTS, DOCUMENT_ATTACHMENTS, PERMISSIONS);
+
+  private static final String DICT_PERMISSION_TYPES_COLUMNS =
+      "id, title, code, create_date, last_update_date";
+  private static final String USERS_COLUMNS =
+      "id, external_id, nickname, full_name, type, is_admin, create_date, last_update_date";
+  private static final String GROUPS_COLUMNS =
+      "id, title, is_active, creator_id, last_modifier_id, create_date, last_update_date";
+  private static final String USERS_GROUPS_COLUMNS = "id, user_id, group_id, create_date";
+  private static final String MENU_ITEMS_COLUMNS = "id, parent_id, title, path, is_active, "
+      + "inherit_parent_permissions, available_everyone, creator_id, last_modifier_id, "
+      + "create_date, last_update_date";
+  private static final String DOCUMENTS_COLUMNS = "id, menu_item_id, allow_comments, "
+      + "show_history, html_content, version, state, creator_id, last_modifier_id, create_date, "
+      + "last_update_date";
+  private static final String DOCUMENT_ATTACHMENTS_COLUMNS =
+      "id, document_id, file_name, extension, minio_path, creator_id, create_date";
+  private static final String PERMISSIONS_COLUMNS =
+      "id, menu_item_id, user_id, group_id, dict_permission_type_id, create_date";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final String schema;
+
+  /**
+   * @param schema схема таблиц модели
+   */
+  public SyntheticDatasetGenerator(JdbcTemplate jdbcTemplate, String schema) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.schema = schema;
+  }
+
+  public void generate(DatasetSpec spec) {
+    var start = System.nanoTime();
+    log.info("Генерация набора данных: {}", spec);
+    truncate();
+    insertPermissionTypes();
+    insertUsers(spec);
+    insertGroups(spec);
+    insertUserGroups(spec);
+    insertMenuItems(spec);
+    TABLES.forEach(table -> jdbcTemplate.execute("ANALYZE " + qualify(table)));
+    log.info("Набор данных сгенерирован за {} с",
+        TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+  }
+
+  private void truncate() {
+    jdbcTemplate.execute("TRUNCATE TABLE %s RESTART IDENTITY CASCADE".formatted(
+        TABLES.stream().map(this::qualify).collect(joining(", "))));
+  }
+
+  private void insertPermissionTypes() {
+    var rows = new ArrayList<Object[]>();
+    for (var type : PermissionType.values()) {
+      rows.add(new Object[]{type.ordinal() + 1L, type.getAction(), type.name(), BASE_DATE,
+          BASE_DATE});
+    }
+
+    insert(DICT_PERMISSION_TYPES, DICT_PERMISSION_TYPES_COLUMNS, rows);
+  }
+
+  private void insertUsers(DatasetSpec spec) {
+    var random = new SkewedRandom(spec.seed() + 1, spec.skew());
+    var rows = new ArrayList<Object[]>(spec.batchSize());
+    for (var id = 1L; id <= spec.users(); id++) {
+      var createDate = nextDate(random);
+      rows.add(new Object[]{id, new UUID(spec.seed(), id).toString(), "user" + id,
+          random.nextElement(LAST_NAMES) + " " + random.nextElement(FIRST_NAMES),
+          random.nextBoolean(0.95) ? "PUBLIC" : "ANONYMOUS", random.nextBoolean(0.01),
+          createDate, createDate.plusSeconds(random.nextInt(UPDATE_SECONDS))});
+      flushIfFull(USERS, USERS_COLUMNS, rows, spec);
+    }
+
+    insert(USERS, USERS_COLUMNS, rows);
+  }
+
+  private void insertGroups(DatasetSpec spec) {
+    var random = new SkewedRandom(spec.seed() + 2, spec.skew());
+    var rows = new ArrayList<Object[]>(spec.batchSize());
+    for (var id = 1L; id <= spec.groups(); id++) {
+      var createDate = nextDate(random);
+      rows.add(new Object[]{id, "Группа " + id, random.nextBoolean(0.9),
+          random.nextId(spec.users()), null, createDate,
+          createDate.plusSeconds(random.nextInt(UPDATE_SECONDS))});
+      flushIfFull(GROUPS, GROUPS_COLUMNS, rows, spec);
+    }
+
+    insert(GROUPS, GROUPS_COLUMNS, rows);
+  }
+
+  private void insertUserGroups(DatasetSpec spec) {
+    var random = new SkewedRandom(spec.seed() + 3, spec.skew());
+    var rows = new ArrayList<Object[]>(spec.batchSize());
+    var id = 0L;
+    for (var userId = 1L; userId <= spec.users(); userId++) {
+      var count = random.nextSkewed(spec.maxGroupsPerUser() + 1);
+      for (var i = 0; i < count; i++) {
+        rows.add(new Object[]{++id, userId, random.nextId(spec.groups()), nextDate(random)});
+      }
+
+      flushIfFull(USERS_GROUPS, USERS_GROUPS_COLUMNS, rows, spec);
+    }
+
+    insert(USERS_GROUPS, USERS_GROUPS_COLUMNS, rows);
+  }
+
+  private void insertMenuItems(DatasetSpec spec) {
+    var random = new SkewedRandom(spec.seed() + 4, spec.skew());
+    var menuItems = new ArrayList<Object[]>(spec.batchSize());
+    var documents = new ArrayList<Object[]>(spec.batchSize());
+    var attachments = new ArrayList<Object[]>();
+    var permissions = new ArrayList<Object[]>();
+    var documentId = 0L;
+    var attachmentId = 0L;
+    var permissionId = 0L;
+    for (var id = 1; id <= spec.menuItems(); id++) {
+      var createDate = nextDate(random);
+      var creatorId = random.nextId(spec.users());
+      // Родитель всегда вставлен раньше: корневые элементы без родителя, остальные чаще
+      // ссылаются на первые элементы, образуя «широкие» разделы
+      menuItems.add(new Object[]{(long) id, id <= ROOT_MENU_ITEMS ? null : random.nextId(id - 1),
+          random.nextElement(TITLE_WORDS) + " " + id, "/menu/" + id, random.nextBoolean(0.8),
+          random.nextBoolean(0.7), random.nextBoolean(0.1), creatorId,
+          random.nextBoolean(0.5) ? random.nextId(spec.users()) : null, createDate,
+          createDate.plusSeconds(random.nextInt(UPDATE_SECONDS))});
+
+      if (random.nextBoolean(spec.documentRatio())) {
+        documentId++;
+        documents.add(new Object[]{documentId, (long) id, random.nextBoolean(0.6),
+            random.nextBoolean(0.3), "<p>" + random.nextElement(TITLE_WORDS) + " " + id + "</p>",
+            random.nextSkewed(20) + 1, random.nextBoolean(0.7) ? "RELEASE" : "DRAFT", creatorId,
+            null, createDate, createDate});
+
+        var attachmentCount = random.nextSkewed(spec.maxAttachments() + 1);
+        for (var i = 0; i < attachmentCount; i++) {
+          attachmentId++;
+          var extension = random.nextElement(EXTENSIONS);
+          var fileName = "%s_%d.%s".formatted(random.nextElement(FILE_PREFIXES), attachmentId,
+              extension);
+          attachments.add(new Object[]{attachmentId, documentId, fileName, extension,
+              "documents/%d/%s".formatted(documentId, fileName), creatorId, createDate});
+        }
+      }
+
+      var permissionCount = random.nextSkewed(spec.maxPermissions() + 1);
+      for (var i = 0; i < permissionCount; i++) {
+        var byGroup = random.nextBoolean(0.3);
+        permissions.add(new Object[]{++permissionId, (long) id,
+            byGroup ? null : random.nextId(spec.users()),
+            byGroup ? random.nextId(spec.groups()) : null,
+            random.nextId(PermissionType.values().length), createDate});
+      }
+
+      if (menuItems.size() >= spec.batchSize() || id == spec.menuItems()) {
+        insert(MENU_ITEMS, MENU_ITEMS_COLUMNS, menuItems);
+        insert(DOCUMENTS, DOCUMENTS_COLUMNS, documents);
+        insert(DOCUMENT_ATTACHMENTS, DOCUMENT_ATTACHMENTS_COLUMNS, attachments);
+        insert(PERMISSIONS, PERMISSIONS_COLUMNS, permissions);
+      }
+
+      if (id % PROGRESS_STEP == 0) {
+        log.info("Вставлено элементов меню: {} из {}", id, spec.menuItems());
+      }
+    }
+
+    log.info("Вставлено документов: {}, вложений: {}, разрешений: {}", documentId, attachmentId,
+        permissionId);
+  }
+
+  private void flushIfFull(String table, String columns, List<Object[]> rows, DatasetSpec spec) {
+    if (rows.size() >= spec.batchSize()) {
+      insert(table, columns, rows);
+    }
+  }
+
+  private void insert(String table, String columns, List<Object[]> rows) {
+    if (rows.isEmpty()) {
+      return;
+    }
+
+    var placeholders = String.join(", ", Collections.nCopies(columns.split(",").length, "?"));
+    jdbcTemplate.batchUpdate("INSERT INTO %s (%s) VALUES (%s)".formatted(qualify(table), columns,
+        placeholders), rows);
+    rows.clear();
+  }
+
+  private OffsetDateTime nextDate(SkewedRandom random) {
+    // Перекос к BASE_DATE: свежие записи встречаются чаще старых
+    return BASE_DATE.minusSeconds(random.nextSkewed(HISTORY_SECONDS));
+  }
+
+  private String qualify(String table) {
+    return schema + "." + table;
+  }
+
+}
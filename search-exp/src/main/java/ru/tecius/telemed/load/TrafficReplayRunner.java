@@ -0,0 +1,69 @@
+package ru.tecius.telemed.load;
+
+import static java.util.Objects.nonNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+/**
+ * Запуск воспроизведения журнала захвата при старте приложения с профилем replay: воспроизведение,
+ * запись отчёта в JSON и, если задан отчёт предыдущей сборки, сравнение с ним.
+ *
+ * <p>Пример: {@code PROFILE=replay ./gradlew :search-exp:bootRun} с заданными
+ * search.replay.capture и search.replay.baseline.
+ */
+@Slf4j
+public class TrafficReplayRunner implements ApplicationRunner {
+
+  private final TrafficReplayer replayer;
+  private final ObjectMapper objectMapper;
+  private final Path capture;
+  private final String label;
+  private final Path reportPath;
+  private final Path baselinePath;
+
+  /**
+   * @param capture      каталог или файл журнала захвата
+   * @param label        метка сборки в отчёте
+   * @param reportPath   файл отчёта JSON
+   * @param baselinePath отчёт предыдущего воспроизведения для сравнения, null - без сравнения
+   */
+  public TrafficReplayRunner(TrafficReplayer replayer, ObjectMapper objectMapper, Path capture,
+      String label, Path reportPath, Path baselinePath) {
+    this.replayer = replayer;
+    this.objectMapper = objectMapper;
+    this.capture = capture;
+    this.label = label;
+    this.reportPath = reportPath;
+    this.baselinePath = baselinePath;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) throws IOException {
+    log.info("Воспроизведение журнала захвата {}", capture.toAbsolutePath());
+    var report = replayer.replay(capture, objectMapper, label);
+    log.info("Воспроизведено запросов: {}, пропущено записей: {}, ошибок: {}, за {} с",
+        report.replayed(), report.skipped(), report.latency().errors(),
+        Math.round(report.seconds()));
+
+    var parent = reportPath.toAbsolutePath().getParent();
+    if (nonNull(parent)) {
+      Files.createDirectories(parent);
+    }
+
+    objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportPath.toFile(), report);
+    log.info("Отчёт воспроизведения записан в {}", reportPath.toAbsolutePath());
+
+    if (nonNull(baselinePath)) {
+      var baseline = objectMapper.readValue(baselinePath.toFile(), ReplayReport.class);
+      log.info("Сравнение с {}:\n{}", baselinePath.toAbsolutePath(),
+          ReplayComparison.format(baseline, report));
+    }
+  }
+
+}
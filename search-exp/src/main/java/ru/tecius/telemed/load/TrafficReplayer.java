@@ -0,0 +1,158 @@
+package ru.tecius.telemed.load;
+
+import static java.util.Objects.isNull;
+import static java.util.stream.Collectors.joining;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Path;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import lombok.extern.slf4j.Slf4j;
+import ru.tecius.telemed.common.capture.CapturedSearch;
+import ru.tecius.telemed.common.capture.SearchTrafficReader;
+import ru.tecius.telemed.common.observation.SearchEngine;
+import ru.tecius.telemed.common.workload.SearchShape;
+import ru.tecius.telemed.dto.request.SearchRequestDto;
+
+/**
+ * Воспроизводит журнал захвата {@link ru.tecius.telemed.common.capture.SearchTrafficRecorder}
+ * против текущей сборки и источника данных с исходными интервалами между запросами или
+ * ускоренно.
+ *
+ * <p>Записи читаются потоком, каждая отправляется в момент, рассчитанный от начала журнала.
+ * Задержка измеряется от запланированного момента, а не от фактической отправки: если запросы
+ * не успевают и ожидают свободного потока, ожидание входит в задержку, как у реальных клиентов.
+ */
+@Slf4j
+public class TrafficReplayer {
+
+  private static final double NANOS_IN_MILLI = 1_000_000.0;
+  private static final double NANOS_IN_SECOND = 1_000_000_000.0;
+
+  private final BiConsumer<SearchEngine, SearchRequestDto> search;
+  private final Class<?> entityType;
+  private final SearchEngine engine;
+  private final int concurrency;
+  private final double speed;
+
+  /**
+   * @param search      выполнение поиска движком
+   * @param entityType  сущность воспроизводимых запросов, записи других сущностей пропускаются
+   * @param engine      движок воспроизведения, null - движок из журнала
+   * @param concurrency наибольшее количество одновременных запросов
+   * @param speed       ускорение относительно исходного темпа, 0 и меньше - без пауз
+   */
+  public TrafficReplayer(BiConsumer<SearchEngine, SearchRequestDto> search, Class<?> entityType,
+      SearchEngine engine, int concurrency, double speed) {
+    this.search = search;
+    this.entityType = entityType;
+    this.engine = engine;
+    this.concurrency = concurrency;
+    this.speed = speed;
+  }
+
+  public ReplayReport replay(Path capture, ObjectMapper objectMapper, String label) {
+    var replay = new Replay();
+    var start = System.nanoTime();
+    try (var executor = Executors.newFixedThreadPool(concurrency)) {
+      SearchTrafficReader.read(capture, objectMapper, entry -> {
+        if (!entityType.getName().equals(entry.entity())) {
+          replay.skipped++;
+          return;
+        }
+
+        var scheduled = replay.schedule(entry, start);
+        var wait = scheduled - System.nanoTime();
+        if (wait > 0) {
+          LockSupport.parkNanos(wait);
+        }
+
+        replay.permits.acquireUninterruptibly();
+        replay.replayed++;
+        executor.execute(() -> execute(entry, scheduled, replay));
+      });
+    }
+
+    var shapes = new TreeMap<String, LatencySummary>();
+    replay.shapes.forEach((shape, recorder) -> shapes.put(shape, recorder.summarize()));
+    var total = new LatencyRecorder();
+    replay.shapes.values().forEach(total::addAll);
+    return new ReplayReport(label, capture.toString(), speed, concurrency, replay.replayed,
+        replay.skipped, (System.nanoTime() - start) / NANOS_IN_SECOND, total.summarize(), shapes);
+  }
+
+  private void execute(CapturedSearch entry, long scheduled, Replay replay) {
+    var replayEngine = isNull(engine) ? entry.engine() : engine;
+    var shape = replayEngine + " " + shape(entry.request());
+    try {
+      search.accept(replayEngine, entry.request());
+      replay.record(shape, System.nanoTime() - scheduled);
+    } catch (RuntimeException ex) {
+      if (replay.recordError(shape) == 1) {
+        log.warn("Ошибка воспроизведения запроса {}", shape, ex);
+      }
+    } finally {
+      replay.permits.release();
+    }
+  }
+
+  /**
+   * Форма запроса без значений: атрибуты и операторы фильтров и сортировка.
+   */
+  private String shape(SearchRequestDto request) {
+    var searchShape = SearchShape.of(entityType, request);
+    var filters = searchShape.filters().isEmpty()
+        ? "-"
+        : searchShape.filters().stream()
+            .map(filter -> filter.attribute() + " " + filter.operator())
+            .collect(joining(" AND "));
+    return searchShape.sort().isEmpty()
+        ? filters
+        : filters + " ORDER BY " + searchShape.sort().stream()
+            .map(sort -> sort.attribute() + " " + sort.direction())
+            .collect(joining(", "));
+  }
+
+  /**
+   * Состояние одного воспроизведения. Счётчики записей меняет только поток чтения журнала,
+   * задержки записываются потоками воспроизведения под блокировкой.
+   */
+  private class Replay {
+
+    private final Semaphore permits = new Semaphore(concurrency);
+    private final TreeMap<String, LatencyRecorder> shapes = new TreeMap<>();
+    private long firstTimestamp = -1L;
+    private long replayed;
+    private long skipped;
+
+    private long schedule(CapturedSearch entry, long start) {
+      if (speed <= 0) {
+        return System.nanoTime();
+      }
+
+      if (firstTimestamp < 0) {
+        firstTimestamp = entry.timestamp();
+      }
+
+      // Записи журнала упорядочены по окончанию поиска, поэтому время начала может немного
+      // убывать: такие записи отправляются сразу
+      return start + (long) (Math.max(0L, entry.timestamp() - firstTimestamp)
+          * NANOS_IN_MILLI / speed);
+    }
+
+    private synchronized void record(String shape, long elapsedNanos) {
+      shapes.computeIfAbsent(shape, key -> new LatencyRecorder()).record(elapsedNanos);
+    }
+
+    private synchronized long recordError(String shape) {
+      var recorder = shapes.computeIfAbsent(shape, key -> new LatencyRecorder());
+      recorder.recordError();
+      return recorder.getErrors();
+    }
+
+  }
+
+}
@@ -2,26 +2,30 @@ package ru.tecius.telemed.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.time.OffsetDateTime;
 import java.util.Set;
 import lombok.SneakyThrows;
-import org.jspecify.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.tecius.telemed.common.capture.SearchTrafficRecorder;
 import ru.tecius.telemed.common.criteria.HintName;
+import ru.tecius.telemed.common.metrics.SearchMetrics;
+import ru.tecius.telemed.common.observation.SearchEngine;
+import ru.tecius.telemed.common.observation.SearchObserver;
+import ru.tecius.telemed.common.slowlog.SlowSearchLog;
+import ru.tecius.telemed.common.workload.SearchWorkloadRecorder;
 import ru.tecius.telemed.criteria.service.CriteriaEntityService;
+import ru.tecius.telemed.criteria.service.CriteriaSearchOptions;
 import ru.tecius.telemed.dto.request.SearchRequestDto;
 import ru.tecius.telemed.dto.response.SearchResponseDto;
 import ru.tecius.telemed.entity.MenuItemEntity;
 import ru.tecius.telemed.entity.MenuItemEntityCriteriaSearchInfo;
+import ru.tecius.telemed.entity.MenuItemEntityNativeRowMapper;
 import ru.tecius.telemed.entity.MenuItemEntityNativeSearchInfo;
 import ru.tecius.telemed.nativ.service.JdbcNativeSqlService;
 import ru.tecius.telemed.nativ.service.JpaNativeSqlService;
+import ru.tecius.telemed.nativ.service.NativeSearchOptions;
 
 @Service
 public class MenuItemService {
@@ -30,45 +34,60 @@ public class MenuItemService {
   private final JpaNativeSqlService<MenuItemEntity> jpaNativeSqlService;
   private final CriteriaEntityService<MenuItemEntity> criteriaEntityService;
   private final ObjectMapper objectMapper;
+  private final SearchTrafficRecorder searchTrafficRecorder;
 
   @Autowired
   public MenuItemService(JdbcTemplate jdbcTemplate,
       EntityManager entityManager,
       MenuItemEntityCriteriaSearchInfo menuItemEntityCriteriaSearchInfo,
-      ObjectMapper objectMapper) {
-    var menuItemRowMapper = new RowMapper<MenuItemEntity>() {
-      @Override
-      public @Nullable MenuItemEntity mapRow(ResultSet rs, int rowNum) throws SQLException {
-        return MenuItemEntity.builder()
-            .id(rs.getLong("id"))
-            .path(rs.getString("title"))
-            .path(rs.getString("path"))
-            .isActive(rs.getBoolean("is_active"))
-            .inheritParentPermissions(rs.getBoolean("inherit_parent_permissions"))
-            .availableEveryone(rs.getBoolean("available_everyone"))
-            .createDate(rs.getObject("create_date", OffsetDateTime.class))
-            .lastUpdateDate(rs.getObject("last_update_date", OffsetDateTime.class))
-            .build();
-      }
-    };
+      ObjectMapper objectMapper,
+      SearchWorkloadRecorder searchWorkloadRecorder,
+      SlowSearchLog slowSearchLog,
+      SearchMetrics searchMetrics,
+      SearchTrafficRecorder searchTrafficRecorder) {
     var menuItemEntityNativeSearchInfo = new MenuItemEntityNativeSearchInfo();
+    var searchObserver = SearchObserver.composite(slowSearchLog, searchMetrics,
+        searchWorkloadRecorder);
     this.jdbcNativeSqlService = new JdbcNativeSqlService<>(jdbcTemplate,
-        menuItemRowMapper,
-        menuItemEntityNativeSearchInfo, 10L);
+        new MenuItemEntityNativeRowMapper(),
+        menuItemEntityNativeSearchInfo, 10L,
+        NativeSearchOptions.builder().observer(searchObserver).build());
 
     this.jpaNativeSqlService = new JpaNativeSqlService<>(
         MenuItemEntity.class,
         entityManager,
         menuItemEntityNativeSearchInfo,
-        10L
+        10L,
+        NativeSearchOptions.builder().observer(searchObserver).build()
     );
 
     this.criteriaEntityService = new CriteriaEntityService<>(
         entityManager,
         menuItemEntityCriteriaSearchInfo,
-        10L
+        10L,
+        CriteriaSearchOptions.builder().observer(searchObserver).build()
     );
     this.objectMapper = objectMapper;
+    this.searchTrafficRecorder = searchTrafficRecorder;
+  }
+
+  /**
+   * Поиск выбранным движком с подсчётом общего количества. Используется нагрузочным стендом и
+   * воспроизведением для сравнения движков на одном наборе запросов; вызов записывается в журнал
+   * захвата, если он включён.
+   */
+  @Transactional(readOnly = true)
+  public SearchResponseDto<MenuItemEntity> search(SearchEngine engine,
+      SearchRequestDto request) {
+    return searchTrafficRecorder.record(MenuItemEntity.class, engine, request, true,
+        () -> switch (engine) {
+          case JDBC -> jdbcNativeSqlService.search(request.searchData(), request.sort(),
+              request.pagination(), true);
+          case JPA -> jpaNativeSqlService.search(request.searchData(), request.sort(),
+              request.pagination(), true);
+          case CRITERIA -> criteriaEntityService.search(request.searchData(), request.sort(),
+              request.pagination(), true);
+        });
   }
 
   @Transactional
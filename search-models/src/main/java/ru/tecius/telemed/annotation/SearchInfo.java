@@ -18,6 +18,13 @@ public @interface SearchInfo {
 
   String[] nativeAttributePaths() default {};
 
+  /**
+   * Генерировать ли вместе с нативным описанием маппер строк {@code <Entity>NativeRowMapper}.
+   * Маппер создаёт сущность конструктором без аргументов и заполняет её SIMPLE-атрибуты
+   * сеттерами; атрибут без поля или сеттера в сущности - ошибка компиляции.
+   */
+  boolean nativeRowMapper() default true;
+
   String[] criteriaAttributePaths() default {};
 
 }
@@ -7,5 +7,11 @@ import java.util.List;
  * Record to hold Path, transformed values, and field type for Criteria API predicate building.
  * Used as a parameter for criteriaPredicateFunction in Operator enum.
  */
-public record PathWithValue(Path<?> path, List<String> values, Class<?> fieldType) {
+public record PathWithValue(Path<?> path, List<String> values, Class<?> fieldType,
+    String textSearchConfig, Double similarityThreshold) {
+
+  public PathWithValue(Path<?> path, List<String> values, Class<?> fieldType) {
+    this(path, values, fieldType, null, null);
+  }
+
 }
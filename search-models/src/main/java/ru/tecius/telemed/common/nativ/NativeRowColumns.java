@@ -0,0 +1,17 @@
+package ru.tecius.telemed.common.nativ;
+
+import java.util.List;
+
+/**
+ * Маппер строк, читающий колонки корневой таблицы по именам. Если сервис настроен на узкую
+ * выборку, нативный запрос выбирает ровно эти колонки вместо {@code alias.*}; остальные свойства
+ * сущности при этом остаются пустыми.
+ */
+public interface NativeRowColumns {
+
+  /**
+   * Имена колонок корневой таблицы в порядке чтения.
+   */
+  List<String> getColumnNames();
+
+}
@@ -7,6 +7,8 @@ import ru.tecius.telemed.configuration.nativ.NativeSearchAttribute;
 
 public interface SearchInfoInterface<E> {
 
+  Class<E> getEntityClass();
+
   String getSchemaName();
 
   String getTablaName();
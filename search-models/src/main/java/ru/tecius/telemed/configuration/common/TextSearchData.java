@@ -0,0 +1,22 @@
+package ru.tecius.telemed.configuration.common;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * Настройки полнотекстового поиска по атрибуту (оператор FULL_TEXT).
+ *
+ * @param config       конфигурация текстового поиска PostgreSQL (simple, russian, english)
+ * @param vectorColumn колонка tsvector той же таблицы (например, генерируемая), по которой
+ *                     выполняется поиск вместо выражения to_tsvector над колонкой атрибута.
+ *                     Учитывается только нативным поиском
+ */
+public record TextSearchData(
+    @NotBlank(message = "Поле attributes.db.textSearch.config не может быть пустым")
+    @Pattern(regexp = "\\w+",
+        message = "Поле attributes.db.textSearch.config должно быть именем конфигурации")
+    String config,
+    String vectorColumn
+) {
+
+}
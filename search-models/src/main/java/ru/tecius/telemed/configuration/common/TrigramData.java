@@ -0,0 +1,20 @@
+package ru.tecius.telemed.configuration.common;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+
+/**
+ * Колонка атрибута покрыта GIN-индексом gin_trgm_ops: для атрибута доступны операторы ICONTAIN,
+ * IBEGIN и SIMILAR.
+ *
+ * @param similarityThreshold минимальное сходство для оператора SIMILAR, по умолчанию 0.3
+ */
+public record TrigramData(
+    @DecimalMin(value = "0",
+        message = "Поле attributes.db.trigram.similarityThreshold не может быть меньше 0")
+    @DecimalMax(value = "1",
+        message = "Поле attributes.db.trigram.similarityThreshold не может быть больше 1")
+    Double similarityThreshold
+) {
+
+}
@@ -4,6 +4,8 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.util.LinkedHashSet;
+import ru.tecius.telemed.configuration.common.TextSearchData;
+import ru.tecius.telemed.configuration.common.TrigramData;
 
 public record DbData(
     @NotBlank(message = "Поле attributes.db.column не может быть пустым")
@@ -11,7 +13,11 @@ public record DbData(
     @NotNull(message = "Поле attributes.db.type не может быть null")
     Class<?> type,
     @Valid
-    LinkedHashSet<JoinInfo> joinInfo
+    LinkedHashSet<JoinInfo> joinInfo,
+    @Valid
+    TextSearchData textSearch,
+    @Valid
+    TrigramData trigram
 ) {
 
 }
@@ -0,0 +1,18 @@
+package ru.tecius.telemed.configuration.nativ;
+
+/**
+ * Кратность связи, по которой выполняется join.
+ */
+public enum JoinCardinality {
+
+  /**
+   * Каждой строке ссылающейся таблицы соответствует не более одной строки присоединяемой.
+   */
+  TO_ONE,
+
+  /**
+   * Строке ссылающейся таблицы может соответствовать несколько строк присоединяемой.
+   */
+  TO_MANY
+
+}
@@ -1,7 +1,11 @@
 package ru.tecius.telemed.configuration.nativ;
 
+import static ru.tecius.telemed.configuration.nativ.JoinCardinality.TO_MANY;
+import static ru.tecius.telemed.configuration.nativ.JoinCardinality.TO_ONE;
+
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.util.Objects;
 
 public record JoinInfo(
     @NotNull(message = "Поле attributes.db.joinInfo.order не может быть null")
@@ -16,7 +20,34 @@ public record JoinInfo(
     JoinData join,
 
     @NotNull(message = "Поле attributes.db.joinInfo.type не может быть null")
-    JoinTypeEnum type
+    JoinTypeEnum type,
+
+    JoinCardinality cardinality,
+
+    Boolean nullable
 ) {
 
+  /**
+   * Связь один ко многим. Без явного указания кратности связь считается связью к одной записи.
+   */
+  public boolean isToMany() {
+    return Objects.equals(cardinality, TO_MANY);
+  }
+
+  /**
+   * Связь явно объявлена связью к одной записи. Без указания кратности связь может размножать
+   * строки, поэтому не считается таковой.
+   */
+  public boolean isToOne() {
+    return Objects.equals(cardinality, TO_ONE);
+  }
+
+  /**
+   * Связь обязательна: у каждой строки ссылающейся таблицы есть связанная строка. Без явного
+   * указания nullable: false связь считается необязательной.
+   */
+  public boolean isMandatory() {
+    return Objects.equals(nullable, Boolean.FALSE);
+  }
+
 }
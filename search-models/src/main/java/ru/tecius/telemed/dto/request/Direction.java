@@ -3,6 +3,11 @@ package ru.tecius.telemed.dto.request;
 public enum Direction {
 
   ASC,
-  DESC
+  DESC,
+
+  /**
+   * По убыванию релевантности (ts_rank) фильтра FULL_TEXT по тому же атрибуту.
+   */
+  RELEVANCE
 
 }
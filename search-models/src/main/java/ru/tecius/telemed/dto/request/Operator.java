@@ -3,16 +3,23 @@ package ru.tecius.telemed.dto.request;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.nCopies;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static org.hibernate.internal.util.StringHelper.join;
+import static ru.tecius.telemed.util.Constants.DEFAULT_SIMILARITY_THRESHOLD;
+import static ru.tecius.telemed.util.Constants.DEFAULT_TEXT_SEARCH_CONFIG;
 
 import jakarta.persistence.criteria.CriteriaBuilder;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.BiFunction;
 import lombok.Getter;
 import org.apache.commons.collections4.CollectionUtils;
 import ru.tecius.telemed.common.criteria.PathWithValue;
 import ru.tecius.telemed.exception.ValidationException;
+import ru.tecius.telemed.util.TextSearchSql;
+import ru.tecius.telemed.util.TrigramSql;
 import ru.tecius.telemed.util.criteria.CriteriaValueConverter;
 import ru.tecius.telemed.util.nativ.NativeValueConverter;
 
@@ -105,17 +112,51 @@ public enum Operator {
       values -> isNotEmpty(values) && Objects.equals(1, values.size()),
       (field, values) -> "%s <= ?".formatted(field),
       NativeValueConverter::transformValues,
-      CriteriaValueConverter::buildLessOrEqualPredicate);
+      CriteriaValueConverter::buildLessOrEqualPredicate),
+
+  // Запрос в синтаксисе websearch_to_tsquery: слова, "фразы", or, -исключения
+  FULL_TEXT(
+      values -> isNotEmpty(values) && Objects.equals(1, values.size())
+          && isNotBlank(values.getFirst()),
+      (field, values) -> TextSearchSql.buildMatchCondition(
+          TextSearchSql.buildDocumentVector(field, DEFAULT_TEXT_SEARCH_CONFIG),
+          DEFAULT_TEXT_SEARCH_CONFIG),
+      (values, fieldType) -> List.of(values.getFirst()),
+      (cb, pv) -> cb.isTrue(cb.function(
+          TextSearchSql.getMatchFunctionName(pv.textSearchConfig()), Boolean.class, pv.path(),
+          CriteriaValueConverter.bindValue(cb, pv.values().getFirst())))),
+
+  // Операторы ICONTAIN, IBEGIN и SIMILAR доступны только для атрибутов с db.trigram
+  ICONTAIN(
+      values -> isNotEmpty(values) && Objects.equals(1, values.size()),
+      (field, values) -> "%s ILIKE ? ESCAPE '\\'".formatted(field),
+      (values, fieldType) -> NativeValueConverter.transformValuesForIContain(values),
+      CriteriaValueConverter::buildIContainPredicate),
+
+  IBEGIN(
+      values -> isNotEmpty(values) && Objects.equals(1, values.size()),
+      (field, values) -> "%s ILIKE ? ESCAPE '\\'".formatted(field),
+      (values, fieldType) -> NativeValueConverter.transformValuesForIBegin(values),
+      CriteriaValueConverter::buildIBeginPredicate),
+
+  SIMILAR(
+      values -> isNotEmpty(values) && Objects.equals(1, values.size())
+          && isNotBlank(values.getFirst()),
+      (field, values) -> TrigramSql.buildSimilarCondition(field, DEFAULT_SIMILARITY_THRESHOLD),
+      (values, fieldType) -> List.of(values.getFirst(), values.getFirst()),
+      CriteriaValueConverter::buildSimilarPredicate);
+
+  private static final Set<Operator> TRIGRAM_OPERATORS = EnumSet.of(ICONTAIN, IBEGIN, SIMILAR);
 
   private final java.util.function.Predicate<List<String>> valuePredicate;
   private final BiFunction<String, List<String>, String> nativeSqlTemplateFunction;
-  private final BiFunction<List<String>, Class<?>, List<String>> nativeTransformValueFunction;
+  private final BiFunction<List<String>, Class<?>, List<Object>> nativeTransformValueFunction;
   private final BiFunction<CriteriaBuilder, PathWithValue, Object> criteriaPredicateFunction;
 
   Operator(
       java.util.function.Predicate<List<String>> valuePredicate,
       BiFunction<String, List<String>, String> nativeSqlTemplateFunction,
-      BiFunction<List<String>, Class<?>, List<String>> nativeTransformValueFunction,
+      BiFunction<List<String>, Class<?>, List<Object>> nativeTransformValueFunction,
       BiFunction<CriteriaBuilder, PathWithValue, Object> criteriaPredicateFunction
   ) {
     this.valuePredicate = valuePredicate;
@@ -135,4 +176,11 @@ public enum Operator {
     return nativeSqlTemplateFunction.apply(dbField, values);
   }
 
+  /**
+   * Оператор выполняется быстро только по GIN-индексу gin_trgm_ops колонки атрибута.
+   */
+  public boolean isTrigram() {
+    return TRIGRAM_OPERATORS.contains(this);
+  }
+
 }
@@ -1,6 +1,26 @@
 package ru.tecius.telemed.dto.request;
 
+import java.util.Objects;
+
+/**
+ * Параметры пагинации.
+ *
+ * @param page   номер страницы (только для режима OFFSET)
+ * @param size   размер страницы
+ * @param mode   режим пагинации, по умолчанию OFFSET
+ * @param cursor курсор продолжения из {@code SearchResponseDto.nextCursor} (только для KEYSET)
+ */
 public record PaginationDto(Integer page,
-                            Integer size) {
+                            Integer size,
+                            PaginationMode mode,
+                            String cursor) {
+
+  public PaginationDto(Integer page, Integer size) {
+    this(page, size, null, null);
+  }
+
+  public boolean isKeyset() {
+    return Objects.equals(mode, PaginationMode.KEYSET);
+  }
 
 }
@@ -0,0 +1,8 @@
+package ru.tecius.telemed.dto.request;
+
+public enum PaginationMode {
+
+  OFFSET,
+  KEYSET
+
+}
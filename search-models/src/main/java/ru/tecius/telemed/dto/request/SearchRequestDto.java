@@ -3,8 +3,19 @@ package ru.tecius.telemed.dto.request;
 import java.util.LinkedList;
 import java.util.List;
 
+/**
+ * Поисковый запрос.
+ *
+ * @param fields JSON-ключи атрибутов, которые нужно вернуть (null - сущность целиком)
+ */
 public record SearchRequestDto(PaginationDto pagination,
                                LinkedList<SortDto> sort,
-                               List<SearchDataDto> searchData) {
+                               List<SearchDataDto> searchData,
+                               List<String> fields) {
+
+  public SearchRequestDto(PaginationDto pagination, LinkedList<SortDto> sort,
+      List<SearchDataDto> searchData) {
+    this(pagination, sort, searchData, null);
+  }
 
 }
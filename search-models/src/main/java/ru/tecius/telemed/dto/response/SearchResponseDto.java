@@ -5,6 +5,13 @@ import java.util.List;
 public record SearchResponseDto<E>(Long totalElements,
                                    Long totalPages,
                                 Boolean moreRows,
-                                List<E> content) {
+                                List<E> content,
+                                String nextCursor,
+                                TotalElementsType totalElementsType) {
+
+  public SearchResponseDto(Long totalElements, Long totalPages, Boolean moreRows,
+      List<E> content) {
+    this(totalElements, totalPages, moreRows, content, null, TotalElementsType.EXACT);
+  }
 
 }
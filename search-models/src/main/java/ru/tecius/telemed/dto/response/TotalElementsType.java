@@ -0,0 +1,23 @@
+package ru.tecius.telemed.dto.response;
+
+/**
+ * Вид значения totalElements в ответе.
+ */
+public enum TotalElementsType {
+
+  /**
+   * Точное количество.
+   */
+  EXACT,
+
+  /**
+   * Нижняя граница: записей не меньше, чем totalElements ("1000+").
+   */
+  CAPPED,
+
+  /**
+   * Оценка планировщика PostgreSQL.
+   */
+  ESTIMATED
+
+}
@@ -1,12 +1,16 @@
 package ru.tecius.telemed.util;
 
 import static java.time.format.DateTimeFormatter.ofPattern;
+import static java.util.Map.entry;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import lombok.experimental.UtilityClass;
 
 @UtilityClass
@@ -19,6 +23,9 @@ public class Constants {
   public static final String INVALID_VALUE_FORMAT_ERROR_TEMPLATE =
       "Переданное значение %s не соответствует формату %s";
 
+  public static final String INVALID_VALUE_TYPE_ERROR_TEMPLATE =
+      "Переданное значение %s не соответствует типу %s";
+
   public static final DateTimeFormatter ISO_DATE_TIME_FORMATTER = ofPattern(ISO_DATE_FORMAT);
 
   public static final DateTimeFormatter LOCAL_DATE_TIME_FORMATTER =
@@ -29,4 +36,43 @@ public class Constants {
   public static final List<Class<?>> DATE_CLASSES = List.of(
       OffsetDateTime.class, LocalDateTime.class, LocalDate.class);
 
+  /**
+   * Количество значений IN, начиная с которого они связываются одним параметром-массивом.
+   */
+  public static final int DEFAULT_IN_ARRAY_THRESHOLD = 32;
+
+  /**
+   * Типы элементов массива PostgreSQL для типов атрибутов, значения IN которых можно связать
+   * массивом. Строки не связываются массивом: тип колонки (enum, jsonb) для них неизвестен.
+   */
+  public static final Map<Class<?>, String> ARRAY_ELEMENT_TYPES = Map.ofEntries(
+      entry(Long.class, "int8"),
+      entry(Integer.class, "int4"),
+      entry(Short.class, "int2"),
+      entry(Double.class, "float8"),
+      entry(Float.class, "float4"),
+      entry(BigDecimal.class, "numeric"),
+      entry(Boolean.class, "bool"),
+      entry(UUID.class, "uuid"),
+      entry(OffsetDateTime.class, "timestamptz"),
+      entry(LocalDateTime.class, "timestamp"),
+      entry(LocalDate.class, "date"));
+
+  /**
+   * Конфигурация текстового поиска для атрибутов без настроек textSearch.
+   */
+  public static final String DEFAULT_TEXT_SEARCH_CONFIG = "simple";
+
+  /**
+   * Конфигурации текстового поиска, для которых регистрируются функции Criteria API.
+   */
+  public static final List<String> TEXT_SEARCH_CONFIGS =
+      List.of(DEFAULT_TEXT_SEARCH_CONFIG, "russian", "english");
+
+  /**
+   * Порог сходства оператора SIMILAR для атрибутов без явного значения (значение
+   * pg_trgm.similarity_threshold по умолчанию).
+   */
+  public static final double DEFAULT_SIMILARITY_THRESHOLD = 0.3;
+
 }
@@ -0,0 +1,36 @@
+package ru.tecius.telemed.util;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Шаблоны LIKE/ILIKE из пользовательского значения. Символы % и _ значения экранируются и
+ * сравниваются буквально.
+ */
+@UtilityClass
+public class LikePatterns {
+
+  public static final char ESCAPE_CHAR = '\\';
+
+  public static String escape(String value) {
+    var sb = new StringBuilder(value.length());
+    for (var i = 0; i < value.length(); i++) {
+      var ch = value.charAt(i);
+      if (ch == ESCAPE_CHAR || ch == '%' || ch == '_') {
+        sb.append(ESCAPE_CHAR);
+      }
+
+      sb.append(ch);
+    }
+
+    return sb.toString();
+  }
+
+  public static String contains(String value) {
+    return "%" + escape(value) + "%";
+  }
+
+  public static String startsWith(String value) {
+    return escape(value) + "%";
+  }
+
+}
@@ -0,0 +1,49 @@
+package ru.tecius.telemed.util;
+
+import static ru.tecius.telemed.util.Constants.DEFAULT_TEXT_SEARCH_CONFIG;
+
+import java.util.Objects;
+import lombok.experimental.UtilityClass;
+
+/**
+ * SQL-выражения полнотекстового поиска PostgreSQL. Конфигурация подставляется в текст запроса
+ * константой: только выражение to_tsvector с константной конфигурацией может использовать
+ * GIN-индекс по выражению.
+ */
+@UtilityClass
+public class TextSearchSql {
+
+  private static final String MATCH_FUNCTION_PREFIX = "fts_match_";
+  private static final String RANK_FUNCTION_PREFIX = "fts_rank_";
+
+  public static String buildDocumentVector(String column, String config) {
+    return "to_tsvector('%s', %s)".formatted(config, column);
+  }
+
+  public static String buildQuery(String value, String config) {
+    return "websearch_to_tsquery('%s', %s)".formatted(config, value);
+  }
+
+  public static String buildMatchCondition(String vector, String config) {
+    return "%s @@ %s".formatted(vector, buildQuery("?", config));
+  }
+
+  public static String buildRank(String vector, String config) {
+    return "ts_rank(%s, %s)".formatted(vector, buildQuery("?", config));
+  }
+
+  /**
+   * Имя функции Criteria API, проверяющей соответствие колонки запросу в конфигурации config.
+   */
+  public static String getMatchFunctionName(String config) {
+    return MATCH_FUNCTION_PREFIX + Objects.requireNonNullElse(config, DEFAULT_TEXT_SEARCH_CONFIG);
+  }
+
+  /**
+   * Имя функции Criteria API, вычисляющей релевантность колонки запросу в конфигурации config.
+   */
+  public static String getRankFunctionName(String config) {
+    return RANK_FUNCTION_PREFIX + Objects.requireNonNullElse(config, DEFAULT_TEXT_SEARCH_CONFIG);
+  }
+
+}
@@ -0,0 +1,24 @@
+package ru.tecius.telemed.util;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * SQL-выражения поиска по сходству расширения pg_trgm.
+ */
+@UtilityClass
+public class TrigramSql {
+
+  public static final String SIMILAR_FUNCTION_NAME = "trgm_similar";
+  public static final String SIMILARITY_FUNCTION_NAME = "trgm_similarity";
+
+  /**
+   * Условие сходства колонки с параметром. Оператор % использует GIN-индекс gin_trgm_ops с
+   * порогом pg_trgm.similarity_threshold, сравнение similarity уточняет его до порога атрибута,
+   * поэтому порог ниже pg_trgm.similarity_threshold не расширяет выборку. Значение связывается
+   * дважды.
+   */
+  public static String buildSimilarCondition(String column, double threshold) {
+    return "(%s %% ? AND similarity(%s, ?) >= %s)".formatted(column, column, threshold);
+  }
+
+}
@@ -4,8 +4,12 @@ import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
 import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
 import static ru.tecius.telemed.util.Constants.DATE_CLASSES;
+import static ru.tecius.telemed.util.Constants.DEFAULT_SIMILARITY_THRESHOLD;
+import static ru.tecius.telemed.util.TrigramSql.SIMILARITY_FUNCTION_NAME;
+import static ru.tecius.telemed.util.TrigramSql.SIMILAR_FUNCTION_NAME;
 
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import java.time.LocalDate;
@@ -13,8 +17,10 @@ import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Objects;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import ru.tecius.telemed.common.criteria.PathWithValue;
 import ru.tecius.telemed.exception.ValidationException;
+import ru.tecius.telemed.util.LikePatterns;
 
 public final class CriteriaValueConverter {
 
@@ -37,6 +43,16 @@ public final class CriteriaValueConverter {
     };
   }
 
+  /**
+   * Значение, которое связывается параметром запроса. {@link CriteriaBuilder#literal} Hibernate
+   * подставляет в текст SQL, поэтому каждое значение давало бы свой текст запроса, свою запись
+   * кэша планов и кэша подготовленных выражений. Значение связывается при режиме
+   * hibernate.criteria.value_handling_mode=bind, который Hibernate использует по умолчанию.
+   */
+  public static <T> Expression<T> bindValue(CriteriaBuilder cb, T value) {
+    return ((HibernateCriteriaBuilder) cb).value(value);
+  }
+
   public static Object[] convertValues(List<String> values, Class<?> fieldType) {
     return values.stream()
         .map(v -> convertValue(v, fieldType))
@@ -102,6 +118,30 @@ public final class CriteriaValueConverter {
     );
   }
 
+  public static Predicate buildIContainPredicate(CriteriaBuilder cb, PathWithValue pv) {
+    return ((HibernateCriteriaBuilder) cb).ilike(pv.path().as(String.class),
+        LikePatterns.contains(pv.values().getFirst()), LikePatterns.ESCAPE_CHAR);
+  }
+
+  public static Predicate buildIBeginPredicate(CriteriaBuilder cb, PathWithValue pv) {
+    return ((HibernateCriteriaBuilder) cb).ilike(pv.path().as(String.class),
+        LikePatterns.startsWith(pv.values().getFirst()), LikePatterns.ESCAPE_CHAR);
+  }
+
+  /**
+   * Сходство по pg_trgm: функции trgm_similar и trgm_similarity регистрирует
+   * TrigramFunctionContributor. Значение связывается параметром в обоих вызовах.
+   */
+  public static Predicate buildSimilarPredicate(CriteriaBuilder cb, PathWithValue pv) {
+    var value = bindValue(cb, pv.values().getFirst());
+    var threshold = Objects.requireNonNullElse(pv.similarityThreshold(),
+        DEFAULT_SIMILARITY_THRESHOLD);
+    return cb.and(
+        cb.isTrue(cb.function(SIMILAR_FUNCTION_NAME, Boolean.class, pv.path(), value)),
+        cb.ge(cb.function(SIMILARITY_FUNCTION_NAME, Float.class, pv.path(), value),
+            threshold.floatValue()));
+  }
+
   @SuppressWarnings("unchecked,rawtypes")
   public static Comparable parseDateValue(String value, Class<?> fieldType) {
     try {
@@ -1,71 +1,126 @@
 package ru.tecius.telemed.util.nativ;
 
-import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
-import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+import static java.util.Objects.isNull;
 import static ru.tecius.telemed.util.Constants.BIRTHDAY_DATE_FORMAT;
 import static ru.tecius.telemed.util.Constants.BIRTHDAY_DATE_FORMATTER;
 import static ru.tecius.telemed.util.Constants.DATE_CLASSES;
 import static ru.tecius.telemed.util.Constants.INVALID_VALUE_FORMAT_ERROR_TEMPLATE;
+import static ru.tecius.telemed.util.Constants.INVALID_VALUE_TYPE_ERROR_TEMPLATE;
 import static ru.tecius.telemed.util.Constants.ISO_DATE_FORMAT;
 import static ru.tecius.telemed.util.Constants.ISO_DATE_TIME_FORMATTER;
 import static ru.tecius.telemed.util.Constants.LOCAL_DATE_TIME_FORMAT;
 import static ru.tecius.telemed.util.Constants.LOCAL_DATE_TIME_FORMATTER;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.UUID;
 import java.util.function.Supplier;
-import java.util.stream.Stream;
 import lombok.experimental.UtilityClass;
 import ru.tecius.telemed.exception.ValidationException;
+import ru.tecius.telemed.util.LikePatterns;
 
+/**
+ * Преобразование строковых значений фильтров в объекты типа атрибута ({@code DbData.type}). Типы
+ * без явного преобразования передаются строкой, и их тип определяет PostgreSQL.
+ */
 @UtilityClass
 public final class NativeValueConverter {
 
-  public static List<String> transformValues(List<String> values, Class<?> fieldType) {
-    return Stream.of(fieldType)
-        .filter(DATE_CLASSES::contains)
-        .map(cls -> parseDateValues(values, cls))
-        .findAny()
-        .orElse(values);
+  public static List<Object> transformValues(List<String> values, Class<?> fieldType) {
+    return values.stream()
+        .map(value -> convertValue(value, fieldType))
+        .toList();
   }
 
-  public static List<String> transformValuesForLike(List<String> values) {
+  public static List<Object> transformValuesForLike(List<String> values) {
     return List.of("%" + values.getFirst() + "%");
   }
 
-  public static List<String> transformValuesForBegin(List<String> values) {
+  public static List<Object> transformValuesForBegin(List<String> values) {
     return List.of(values.getFirst() + "%");
   }
 
-  public static List<String> transformValuesForEnd(List<String> values) {
+  public static List<Object> transformValuesForEnd(List<String> values) {
     return List.of("%" + values.getFirst());
   }
 
-  private static List<String> parseDateValues(List<String> values, Class<?> fieldType) {
-    return values.stream()
-        .map(value -> parseSingleDateValue(value, fieldType))
-        .toList();
+  public static List<Object> transformValuesForIContain(List<String> values) {
+    return List.of(LikePatterns.contains(values.getFirst()));
+  }
+
+  public static List<Object> transformValuesForIBegin(List<String> values) {
+    return List.of(LikePatterns.startsWith(values.getFirst()));
+  }
+
+  public static Object convertValue(String value, Class<?> fieldType) {
+    if (isNull(value)) {
+      return null;
+    }
+
+    if (DATE_CLASSES.contains(fieldType)) {
+      return parseSingleDateValue(value, fieldType);
+    }
+
+    return parseSingleValue(() -> switch (fieldType) {
+      case Class<?> c when c == Long.class -> Long.parseLong(value);
+      case Class<?> c when c == Integer.class -> Integer.parseInt(value);
+      case Class<?> c when c == Short.class -> Short.parseShort(value);
+      case Class<?> c when c == Double.class -> Double.parseDouble(value);
+      case Class<?> c when c == Float.class -> Float.parseFloat(value);
+      case Class<?> c when c == BigDecimal.class -> new BigDecimal(value);
+      case Class<?> c when c == Boolean.class -> parseBoolean(value);
+      case Class<?> c when c == UUID.class -> UUID.fromString(value);
+      default -> value;
+    }, INVALID_VALUE_TYPE_ERROR_TEMPLATE.formatted(value, fieldType.getSimpleName()));
+  }
+
+  /**
+   * Преобразование значения, записанного через toString (значения курсора keyset-пагинации):
+   * даты разбираются в формате ISO-8601 с дробными секундами.
+   */
+  public static Object convertIsoValue(String value, Class<?> fieldType) {
+    if (isNull(value) || !DATE_CLASSES.contains(fieldType)) {
+      return convertValue(value, fieldType);
+    }
+
+    return parseSingleValue(() -> switch (fieldType) {
+      case Class<?> c when c == OffsetDateTime.class -> OffsetDateTime.parse(value);
+      case Class<?> c when c == LocalDateTime.class -> LocalDateTime.parse(value);
+      default -> LocalDate.parse(value);
+    }, INVALID_VALUE_TYPE_ERROR_TEMPLATE.formatted(value, fieldType.getSimpleName()));
+  }
+
+  private static Boolean parseBoolean(String value) {
+    if (Boolean.TRUE.toString().equalsIgnoreCase(value)) {
+      return true;
+    }
+
+    if (Boolean.FALSE.toString().equalsIgnoreCase(value)) {
+      return false;
+    }
+
+    throw new IllegalArgumentException(value);
   }
 
-  private static String parseSingleDateValue(String value, Class<?> fieldType) {
+  private static Object parseSingleDateValue(String value, Class<?> fieldType) {
     return switch (fieldType) {
-      case Class<?> c when c == OffsetDateTime.class -> parseSingleDateValue(() ->
-              OffsetDateTime.parse(value, ISO_DATE_TIME_FORMATTER).format(ISO_OFFSET_DATE_TIME),
+      case Class<?> c when c == OffsetDateTime.class -> parseSingleValue(() ->
+              OffsetDateTime.parse(value, ISO_DATE_TIME_FORMATTER),
           INVALID_VALUE_FORMAT_ERROR_TEMPLATE.formatted(value, ISO_DATE_FORMAT));
-      case Class<?> c when c == LocalDateTime.class -> parseSingleDateValue(() ->
-              LocalDateTime.parse(value, LOCAL_DATE_TIME_FORMATTER).format(ISO_LOCAL_DATE_TIME),
+      case Class<?> c when c == LocalDateTime.class -> parseSingleValue(() ->
+              LocalDateTime.parse(value, LOCAL_DATE_TIME_FORMATTER),
           INVALID_VALUE_FORMAT_ERROR_TEMPLATE.formatted(value, LOCAL_DATE_TIME_FORMAT));
-      case Class<?> c when c == LocalDate.class -> parseSingleDateValue(() ->
-              LocalDate.parse(value, BIRTHDAY_DATE_FORMATTER).format(ISO_LOCAL_DATE),
+      case Class<?> c when c == LocalDate.class -> parseSingleValue(() ->
+              LocalDate.parse(value, BIRTHDAY_DATE_FORMATTER),
           INVALID_VALUE_FORMAT_ERROR_TEMPLATE.formatted(value, BIRTHDAY_DATE_FORMAT));
       default -> value;
     };
   }
 
-  private static String parseSingleDateValue(Supplier<String> supplier, String errorMessage) {
+  private static Object parseSingleValue(Supplier<Object> supplier, String errorMessage) {
     try {
       return supplier.get();
     } catch (Exception ex) {
@@ -19,6 +19,7 @@ import ru.tecius.telemed.annotation.SearchInfo;
 import ru.tecius.telemed.processor.config.ConfigLoader;
 import ru.tecius.telemed.processor.error.ErrorHandler;
 import ru.tecius.telemed.processor.generator.nativ.NativeInfoClassGenerator;
+import ru.tecius.telemed.processor.generator.nativ.NativeRowMapperClassGenerator;
 import ru.tecius.telemed.processor.generator.criteria.CriteriaInfoClassGenerator;
 import ru.tecius.telemed.processor.util.ProcessorConstants;
 
@@ -29,6 +30,7 @@ public class SearchInfoProcessor extends AbstractProcessor {
 
   private ConfigLoader configLoader;
   private NativeInfoClassGenerator nativeInfoClassGenerator;
+  private NativeRowMapperClassGenerator nativeRowMapperClassGenerator;
   private CriteriaInfoClassGenerator criteriaInfoClassGenerator;
   private ErrorHandler errorHandler;
 
@@ -55,8 +57,10 @@ public class SearchInfoProcessor extends AbstractProcessor {
       factoryBean.afterPropertiesSet();
       configLoader = new ConfigLoader(processingEnv, factoryBean);
       nativeInfoClassGenerator = new NativeInfoClassGenerator();
-      criteriaInfoClassGenerator = new CriteriaInfoClassGenerator();
       errorHandler = new ErrorHandler(processingEnv.getMessager());
+      nativeRowMapperClassGenerator = new NativeRowMapperClassGenerator(errorHandler,
+          processingEnv.getElementUtils());
+      criteriaInfoClassGenerator = new CriteriaInfoClassGenerator();
     }
   }
 
@@ -74,6 +78,15 @@ public class SearchInfoProcessor extends AbstractProcessor {
         JavaFile.builder(packageName, nativeClassSpec)
             .build()
             .writeTo(processingEnv.getFiler());
+
+        if (annotation.nativeRowMapper()) {
+          var rowMapperClassSpec = nativeRowMapperClassGenerator.generateClassSpec(typeElement,
+              nativeConfigs);
+
+          JavaFile.builder(packageName, rowMapperClassSpec)
+              .build()
+              .writeTo(processingEnv.getFiler());
+        }
       }
 
       var criteriaAttributePaths = annotation.criteriaAttributePaths();
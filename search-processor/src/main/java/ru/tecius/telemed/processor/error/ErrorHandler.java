@@ -1,8 +1,10 @@
 package ru.tecius.telemed.processor.error;
 
 import static javax.tools.Diagnostic.Kind.ERROR;
+import static javax.tools.Diagnostic.Kind.WARNING;
 
 import javax.annotation.processing.Messager;
+import javax.lang.model.element.Element;
 
 public final class ErrorHandler {
 
@@ -16,4 +18,12 @@ public final class ErrorHandler {
     messager.printMessage(ERROR, message);
   }
 
+  public void reportError(String message, Element element) {
+    messager.printMessage(ERROR, message, element);
+  }
+
+  public void reportWarning(String message, Element element) {
+    messager.printMessage(WARNING, message, element);
+  }
+
 }
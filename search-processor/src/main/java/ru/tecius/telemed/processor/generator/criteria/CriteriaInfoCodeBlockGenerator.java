@@ -14,6 +14,8 @@ import java.util.Set;
 import ru.tecius.telemed.configuration.criteria.CriteriaSearchAttribute;
 import ru.tecius.telemed.configuration.criteria.JoinInfo;
 import ru.tecius.telemed.configuration.common.AttributeType;
+import ru.tecius.telemed.configuration.common.TextSearchData;
+import ru.tecius.telemed.configuration.common.TrigramData;
 import ru.tecius.telemed.configuration.criteria.CriteriaSearchAttributeConfig;
 import ru.tecius.telemed.configuration.criteria.DbData;
 import ru.tecius.telemed.configuration.criteria.JsonData;
@@ -62,8 +64,9 @@ public class CriteriaInfoCodeBlockGenerator {
         .indent()
         .add("$T.$L,\n", AttributeType.class, attr.type())
         .add("new $T(\n$S\n),\n", JsonData.class, attr.json().key())
-        .add("new $T(\n$S,\n$T.class,\n$L\n)",
-            DbData.class, db.column(), db.type(), generateJoinInfoBlock(db.joinInfo()))
+        .add("new $T(\n$S,\n$T.class,\n$L,\n$L,\n$L\n)",
+            DbData.class, db.column(), db.type(), generateJoinInfoBlock(db.joinInfo()),
+            generateTextSearchBlock(db.textSearch()), generateTrigramBlock(db.trigram()))
         .unindent()
         .add("\n)")
         .build();
@@ -92,4 +95,28 @@ public class CriteriaInfoCodeBlockGenerator {
         .build();
   }
 
+  /**
+   * Генерирует блок для настроек полнотекстового поиска (TextSearchData или null)
+   */
+  private CodeBlock generateTextSearchBlock(TextSearchData textSearch) {
+    if (textSearch == null) {
+      return CodeBlock.of("null");
+    }
+
+    return CodeBlock.of("new $T($S, $S)", TextSearchData.class, textSearch.config(),
+        textSearch.vectorColumn());
+  }
+
+  /**
+   * Генерирует блок для настроек триграммного индекса (TrigramData или null)
+   */
+  private CodeBlock generateTrigramBlock(TrigramData trigram) {
+    if (trigram == null) {
+      return CodeBlock.of("null");
+    }
+
+    return CodeBlock.of("new $T($L)", TrigramData.class,
+        trigram.similarityThreshold() == null ? "null" : trigram.similarityThreshold() + "d");
+  }
+
 }
@@ -40,8 +40,8 @@ public class NativeInfoClassGenerator {
         .addModifiers(Modifier.PUBLIC)
         .addSuperinterface(searchInfoInterface);
 
-    addStaticConstants(classBuilder, annotation, configs);
-    nativeInfoMethodGenerator.addInterfaceMethods(classBuilder);
+    addStaticConstants(classBuilder, entityClassName, annotation, configs);
+    nativeInfoMethodGenerator.addInterfaceMethods(classBuilder, entityClassName);
 
     return classBuilder.build();
   }
@@ -52,10 +52,18 @@ public class NativeInfoClassGenerator {
 
   private void addStaticConstants(
       TypeSpec.Builder classBuilder,
+      ClassName entityClassName,
       SearchInfo annotation,
       List<NativeSearchAttributeConfig> configs
   ) {
 
+    classBuilder.addField(FieldSpec.builder(
+            ParameterizedTypeName.get(ClassName.get(Class.class), entityClassName),
+            "ENTITY_CLASS",
+            Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+        .initializer("$T.class", entityClassName)
+        .build());
+
     classBuilder.addField(createStaticStringField("FULL_DB_COLUMN_NAME_TEMPLATE", "%s.%s"));
     classBuilder.addField(createStaticStringField("SCHEMA_NAME", annotation.schema()));
     classBuilder.addField(createStaticStringField("TABLE_NAME", annotation.table()));
@@ -12,7 +12,10 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import ru.tecius.telemed.configuration.common.AttributeType;
+import ru.tecius.telemed.configuration.common.TextSearchData;
+import ru.tecius.telemed.configuration.common.TrigramData;
 import ru.tecius.telemed.configuration.nativ.DbData;
+import ru.tecius.telemed.configuration.nativ.JoinCardinality;
 import ru.tecius.telemed.configuration.nativ.JoinData;
 import ru.tecius.telemed.configuration.nativ.JoinInfo;
 import ru.tecius.telemed.configuration.nativ.JoinReferenceData;
@@ -65,8 +68,9 @@ public class NativeInfoCodeBlockGenerator {
         .indent()
         .add("$T.$L,\n", AttributeType.class, attr.type())
         .add("new $T(\n$S\n),\n", JsonData.class, attr.json().key())
-        .add("new $T(\n$S,\n$T.class,\n$L\n)",
-            DbData.class, db.column(), db.type(), generateJoinInfoBlock(db.joinInfo()))
+        .add("new $T(\n$S,\n$T.class,\n$L,\n$L,\n$L\n)",
+            DbData.class, db.column(), db.type(), generateJoinInfoBlock(db.joinInfo()),
+            generateTextSearchBlock(db.textSearch()), generateTrigramBlock(db.trigram()))
         .unindent()
         .add("\n)")
         .build();
@@ -84,12 +88,14 @@ public class NativeInfoCodeBlockGenerator {
         .map(join -> {
           var ref = join.reference();
           var jd = join.join();
-          return CodeBlock.of("new $T($L, new $T($S, $S, $S), new $T($S, $S, $S), $T.$L)",
+          return CodeBlock.of("new $T($L, new $T($S, $S, $S), new $T($S, $S, $S), $T.$L, $L, $L)",
               JoinInfo.class,
               join.order(),
               JoinReferenceData.class, ref.table(), getTableAlias(ref.table(), ref.alias()), ref.column(),
               JoinData.class, jd.table(), getTableAlias(jd.table(), jd.alias()), jd.column(),
-              JoinTypeEnum.class, join.type());
+              JoinTypeEnum.class, join.type(),
+              generateJoinCardinalityBlock(join.cardinality()),
+              join.nullable());
         })
         .collect(CodeBlock.joining(",\n"));
 
@@ -100,4 +106,39 @@ public class NativeInfoCodeBlockGenerator {
         .build();
   }
 
+  /**
+   * Генерирует блок для кратности связи (значение перечисления или null)
+   */
+  private CodeBlock generateJoinCardinalityBlock(JoinCardinality cardinality) {
+    if (cardinality == null) {
+      return CodeBlock.of("null");
+    }
+
+    return CodeBlock.of("$T.$L", JoinCardinality.class, cardinality);
+  }
+
+  /**
+   * Генерирует блок для настроек полнотекстового поиска (TextSearchData или null)
+   */
+  private CodeBlock generateTextSearchBlock(TextSearchData textSearch) {
+    if (textSearch == null) {
+      return CodeBlock.of("null");
+    }
+
+    return CodeBlock.of("new $T($S, $S)", TextSearchData.class, textSearch.config(),
+        textSearch.vectorColumn());
+  }
+
+  /**
+   * Генерирует блок для настроек триграммного индекса (TrigramData или null)
+   */
+  private CodeBlock generateTrigramBlock(TrigramData trigram) {
+    if (trigram == null) {
+      return CodeBlock.of("null");
+    }
+
+    return CodeBlock.of("new $T($L)", TrigramData.class,
+        trigram.similarityThreshold() == null ? "null" : trigram.similarityThreshold() + "d");
+  }
+
 }
@@ -2,6 +2,7 @@ package ru.tecius.telemed.processor.generator.nativ;
 
 import static javax.lang.model.element.Modifier.PUBLIC;
 
+import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeSpec;
@@ -13,7 +14,8 @@ import ru.tecius.telemed.exception.ValidationException;
 
 public class NativeInfoMethodGenerator {
 
-  public void addInterfaceMethods(TypeSpec.Builder classBuilder) {
+  public void addInterfaceMethods(TypeSpec.Builder classBuilder, ClassName entityClassName) {
+    addGetEntityClassMethod(classBuilder, entityClassName);
     addGetSchemaNameMethod(classBuilder);
     addGetTableNameMethod(classBuilder);
     addGetTableAliasMethod(classBuilder);
@@ -27,6 +29,16 @@ public class NativeInfoMethodGenerator {
     addGetFullColumnNameByAttributeMethod(classBuilder);
   }
 
+  private void addGetEntityClassMethod(TypeSpec.Builder classBuilder,
+      ClassName entityClassName) {
+    classBuilder.addMethod(MethodSpec.methodBuilder("getEntityClass")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(ParameterizedTypeName.get(ClassName.get(Class.class), entityClassName))
+        .addStatement("return ENTITY_CLASS")
+        .build());
+  }
+
   private void addGetSchemaNameMethod(TypeSpec.Builder classBuilder) {
     classBuilder.addMethod(MethodSpec.methodBuilder("getSchemaName")
         .addAnnotation(Override.class)
@@ -0,0 +1,250 @@
+package ru.tecius.telemed.processor.generator.nativ;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+import static org.apache.commons.lang3.StringUtils.capitalize;
+import static ru.tecius.telemed.configuration.common.AttributeType.SIMPLE;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeSpec;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import org.springframework.jdbc.core.RowMapper;
+import ru.tecius.telemed.common.nativ.NativeRowColumns;
+import ru.tecius.telemed.configuration.nativ.NativeSearchAttribute;
+import ru.tecius.telemed.configuration.nativ.NativeSearchAttributeConfig;
+import ru.tecius.telemed.processor.error.ErrorHandler;
+
+/**
+ * Генерирует маппер строк нативного запроса, читающий колонки корневой таблицы по именам. В
+ * маппер попадают SIMPLE-атрибуты, JSON-ключ которых совпадает с именем поля сущности или её
+ * суперклассов. Сеттер поля ищется среди методов сущности, а если его ещё нет - выводится по
+ * правилам Lombok для полей и классов с {@code @Setter} или {@code @Data}. Атрибут без поля или
+ * сеттера - ошибка компиляции.
+ */
+public class NativeRowMapperClassGenerator {
+
+  /**
+   * Типы, для которых есть примитивный геттер ResultSet. Для полей-обёрток значение после чтения
+   * проверяется через wasNull.
+   */
+  private static final Map<Class<?>, String> PRIMITIVE_GETTERS = Map.of(
+      Long.class, "getLong",
+      Integer.class, "getInt",
+      Short.class, "getShort",
+      Double.class, "getDouble",
+      Float.class, "getFloat",
+      Boolean.class, "getBoolean");
+
+  private static final Map<Class<?>, String> OBJECT_GETTERS = Map.of(
+      String.class, "getString",
+      BigDecimal.class, "getBigDecimal");
+
+  private static final Set<String> LOMBOK_SETTER_ANNOTATIONS = Set.of(
+      "lombok.Setter",
+      "lombok.Data");
+
+  private final ErrorHandler errorHandler;
+  private final Elements elements;
+
+  public NativeRowMapperClassGenerator(ErrorHandler errorHandler, Elements elements) {
+    this.errorHandler = errorHandler;
+    this.elements = elements;
+  }
+
+  public TypeSpec generateClassSpec(TypeElement typeElement,
+      List<NativeSearchAttributeConfig> configs) {
+    var entityClassName = ClassName.get(typeElement);
+    var fields = getEntityFields(typeElement);
+    var setters = getEntitySetters(typeElement);
+    var attributes = new ArrayList<MappedAttribute>();
+    configs.stream()
+        .map(NativeSearchAttributeConfig::attributes)
+        .flatMap(Collection::stream)
+        .filter(attr -> Objects.equals(attr.type(), SIMPLE))
+        .forEach(attr -> {
+          var field = fields.get(attr.json().key());
+          if (isNull(field)) {
+            errorHandler.reportError("Атрибут %s не совпадает ни с одним полем сущности %s"
+                .formatted(attr.json().key(), typeElement.getSimpleName()), typeElement);
+            return;
+          }
+
+          findSetter(field, setters).ifPresentOrElse(
+              setter -> attributes.add(new MappedAttribute(attr, field, setter)),
+              () -> errorHandler.reportError("Поле %s сущности %s не имеет сеттера для маппера %s"
+                  .formatted(field.getSimpleName(), typeElement.getSimpleName(),
+                      getClassName(typeElement)), field));
+        });
+
+    return TypeSpec.classBuilder(getClassName(typeElement))
+        .addModifiers(PUBLIC)
+        .addSuperinterface(ParameterizedTypeName.get(ClassName.get(RowMapper.class),
+            entityClassName))
+        .addSuperinterface(NativeRowColumns.class)
+        .addField(createColumnNamesField(attributes))
+        .addMethod(MethodSpec.methodBuilder("getColumnNames")
+            .addAnnotation(Override.class)
+            .addModifiers(PUBLIC)
+            .returns(ParameterizedTypeName.get(List.class, String.class))
+            .addStatement("return COLUMN_NAMES")
+            .build())
+        .addMethod(createMapRowMethod(entityClassName, attributes))
+        .build();
+  }
+
+  private String getClassName(TypeElement typeElement) {
+    return typeElement.getSimpleName() + "NativeRowMapper";
+  }
+
+  /**
+   * Поля сущности и её суперклассов. Приватные поля предков не входят в getAllMembers, поэтому
+   * цепочка суперклассов обходится явно; поле подкласса скрывает одноимённое поле предка.
+   */
+  private Map<String, VariableElement> getEntityFields(TypeElement typeElement) {
+    var fields = new LinkedHashMap<String, VariableElement>();
+    for (var type = typeElement; nonNull(type); type = getSuperclass(type)) {
+      ElementFilter.fieldsIn(type.getEnclosedElements()).stream()
+          .filter(field -> !field.getModifiers().contains(STATIC))
+          .forEach(field -> fields.putIfAbsent(field.getSimpleName().toString(), field));
+    }
+    return fields;
+  }
+
+  private TypeElement getSuperclass(TypeElement type) {
+    return type.getSuperclass() instanceof DeclaredType declaredType
+        ? (TypeElement) declaredType.asElement()
+        : null;
+  }
+
+  /**
+   * Имена открытых для маппера методов с одним параметром, включая унаследованные.
+   */
+  private Set<String> getEntitySetters(TypeElement typeElement) {
+    return ElementFilter.methodsIn(elements.getAllMembers(typeElement)).stream()
+        .filter(method -> !method.getModifiers().contains(STATIC)
+            && !method.getModifiers().contains(PRIVATE)
+            && method.getParameters().size() == 1)
+        .map(method -> method.getSimpleName().toString())
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Сеттер поля: объявленный метод, а если его нет - метод, который сгенерирует Lombok.
+   */
+  private Optional<String> findSetter(VariableElement field, Set<String> setters) {
+    var candidates = getSetterNames(field);
+    return candidates.stream()
+        .filter(setters::contains)
+        .findFirst()
+        .or(() -> hasLombokSetter(field) ? Optional.of(candidates.getFirst()) : Optional.empty());
+  }
+
+  /**
+   * Имена сеттера по правилам Lombok и JavaBeans: для примитивного boolean-поля {@code isActive}
+   * это {@code setActive}, для остальных полей - {@code set} и имя поля с заглавной буквы.
+   */
+  private List<String> getSetterNames(VariableElement field) {
+    var name = field.getSimpleName().toString();
+    var plainSetter = "set" + capitalize(name);
+    if (field.asType().getKind() == TypeKind.BOOLEAN && name.length() > 2
+        && name.startsWith("is") && Character.isUpperCase(name.charAt(2))) {
+      return List.of("set" + name.substring(2), plainSetter);
+    }
+    return List.of(plainSetter);
+  }
+
+  private boolean hasLombokSetter(VariableElement field) {
+    return !field.getModifiers().contains(FINAL)
+        && (hasLombokSetterAnnotation(field)
+        || hasLombokSetterAnnotation(field.getEnclosingElement()));
+  }
+
+  private boolean hasLombokSetterAnnotation(Element element) {
+    return element.getAnnotationMirrors().stream()
+        .map(mirror -> ((TypeElement) mirror.getAnnotationType().asElement())
+            .getQualifiedName().toString())
+        .anyMatch(LOMBOK_SETTER_ANNOTATIONS::contains);
+  }
+
+  private FieldSpec createColumnNamesField(List<MappedAttribute> attributes) {
+    var columns = attributes.stream()
+        .map(mapped -> CodeBlock.of("$S", mapped.attribute().db().column()))
+        .collect(CodeBlock.joining(",\n"));
+
+    return FieldSpec.builder(ParameterizedTypeName.get(List.class, String.class),
+            "COLUMN_NAMES", PRIVATE, STATIC, FINAL)
+        .initializer(CodeBlock.builder()
+            .add("$T.of(\n", List.class)
+            .indent().add(columns).unindent()
+            .add(")")
+            .build())
+        .build();
+  }
+
+  private MethodSpec createMapRowMethod(ClassName entityClassName,
+      List<MappedAttribute> attributes) {
+    var method = MethodSpec.methodBuilder("mapRow")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .returns(entityClassName)
+        .addParameter(ResultSet.class, "rs")
+        .addParameter(int.class, "rowNum")
+        .addException(SQLException.class)
+        .addStatement("var entity = new $T()", entityClassName);
+
+    for (var i = 0; i < attributes.size(); i++) {
+      var mapped = attributes.get(i);
+      var column = mapped.attribute().db().column();
+      var setter = mapped.setter();
+      var type = mapped.attribute().db().type();
+      var primitiveField = mapped.field().asType().getKind().isPrimitive();
+
+      if (PRIMITIVE_GETTERS.containsKey(type) && primitiveField) {
+        method.addStatement("entity.$L(rs.$L($S))", setter, PRIMITIVE_GETTERS.get(type), column);
+      } else if (PRIMITIVE_GETTERS.containsKey(type)) {
+        var variable = "value" + (i + 1);
+        method.addStatement("var $L = rs.$L($S)", variable, PRIMITIVE_GETTERS.get(type), column)
+            .addStatement("entity.$L(rs.wasNull() ? null : $L)", setter, variable);
+      } else if (OBJECT_GETTERS.containsKey(type)) {
+        method.addStatement("entity.$L(rs.$L($S))", setter, OBJECT_GETTERS.get(type), column);
+      } else {
+        method.addStatement("entity.$L(rs.getObject($S, $T.class))", setter, column, type);
+      }
+    }
+
+    return method.addStatement("return entity")
+        .build();
+  }
+
+  private record MappedAttribute(NativeSearchAttribute attribute, VariableElement field,
+                                 String setter) {
+
+  }
+
+}
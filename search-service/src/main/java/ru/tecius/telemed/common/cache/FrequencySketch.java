@@ -0,0 +1,78 @@
+package ru.tecius.telemed.common.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Приближённый счётчик частоты обращений к ключам (count-min sketch с 4-битными счётчиками) для
+ * TinyLFU-допуска в кэш. После заданного числа обращений все счётчики делятся пополам, чтобы
+ * частота отражала недавнюю нагрузку. Потокобезопасен без блокировок: счётчики изменяются
+ * атомарно, обращения во время деления пополам могут быть учтены до или после него.
+ */
+class FrequencySketch {
+
+  private static final int DEPTH = 4;
+  private static final int MAX_COUNT = 15;
+  private static final int[] SEEDS = {0x97cb3127, 0x9e3779b9, 0x7f4a7c15, 0x2545f491};
+
+  private final AtomicIntegerArray[] counters;
+  private final int mask;
+  private final int sampleSize;
+  private final AtomicInteger additions = new AtomicInteger();
+
+  /**
+   * @param width количество счётчиков в строке, округляется до степени двойки
+   */
+  FrequencySketch(int width) {
+    var size = Integer.highestOneBit(Math.max(width, 16) - 1) << 1;
+    this.counters = new AtomicIntegerArray[DEPTH];
+    for (var i = 0; i < DEPTH; i++) {
+      counters[i] = new AtomicIntegerArray(size);
+    }
+
+    this.mask = size - 1;
+    this.sampleSize = size * 10;
+  }
+
+  void increment(Object key) {
+    var hash = key.hashCode();
+    var added = false;
+    for (var i = 0; i < DEPTH; i++) {
+      var index = index(hash, i);
+      if (counters[i].getAndUpdate(index, count -> Math.min(count + 1, MAX_COUNT)) < MAX_COUNT) {
+        added = true;
+      }
+    }
+
+    // Делит пополам только поток, достигший размера выборки
+    if (added && additions.incrementAndGet() == sampleSize) {
+      reset();
+    }
+  }
+
+  int frequency(Object key) {
+    var hash = key.hashCode();
+    var frequency = MAX_COUNT;
+    for (var i = 0; i < DEPTH; i++) {
+      frequency = Math.min(frequency, counters[i].get(index(hash, i)));
+    }
+
+    return frequency;
+  }
+
+  private int index(int hash, int row) {
+    var h = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  private void reset() {
+    for (var row : counters) {
+      for (var i = 0; i < row.length(); i++) {
+        row.getAndUpdate(i, count -> count >>> 1);
+      }
+    }
+
+    additions.addAndGet(-sampleSize / 2);
+  }
+
+}
@@ -0,0 +1,321 @@
+package ru.tecius.telemed.common.cache;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.comparingLong;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import ru.tecius.telemed.common.count.CountStrategy;
+import ru.tecius.telemed.dto.request.SearchDataDto;
+import ru.tecius.telemed.dto.request.SearchRequestDto;
+import ru.tecius.telemed.dto.response.SearchResponseDto;
+import ru.tecius.telemed.exception.ProcessingException;
+
+/**
+ * Кэш страниц результата поиска перед сервисами поиска (нативными и Criteria). Ключ - тип сущности,
+ * канонизированный запрос и стратегия подсчёта. Страницы хранятся сериализованными в JSON вне кучи
+ * (direct-буферы), поэтому не увеличивают старое поколение.
+ *
+ * <p>Общий объём страниц ограничен бюджетом в байтах. При переполнении вытесняются давно не
+ * использованные страницы, но новая страница допускается, только если по оценке частоты
+ * (TinyLFU) к ней обращаются не реже, чем к вытесняемой: разовые запросы не вымывают популярные.
+ * Время жизни задаётся по типу сущности, при изменении данных записи сущности сбрасываются
+ * {@link #invalidate(Class)}. Сброс увеличивает поколение сущности: страница, загрузка которой
+ * началась до сброса, не сохраняется, иначе данные до изменения остались бы в кэше до истечения
+ * времени жизни.
+ *
+ * <p>Чтение не блокируется: страницы хранятся в ConcurrentHashMap, время последнего обращения и
+ * счётчики частоты обновляются атомарно. Монитор кэша захватывают только запись с допуском и
+ * вытеснением, сброс и статистика.
+ *
+ * <p>Бюджет учитывает размер данных, память буфера освобождается при сборке мусора, поэтому
+ * -XX:MaxDirectMemorySize должен быть больше бюджета.
+ *
+ * <p>Кэшировать можно только результаты, которые сериализуются в JSON без обращения к базе: DTO
+ * и строки нативных сервисов. Сущности Criteria и JPA с двунаправленными связями без
+ * {@code @JsonIgnore} приводят к бесконечной рекурсии или загрузке ленивых связей; такие страницы
+ * возвращаются без кэширования и учитываются в {@link SearchPageCacheStats#serializationFailures}.
+ */
+public class SearchPageCache {
+
+  private static final int SKETCH_WIDTH = 1 << 16;
+
+  private final ObjectMapper objectMapper;
+  private final ObjectMapper keyMapper;
+  private final long maxBytes;
+  private final Duration defaultTtl;
+  private final Map<Class<?>, Duration> entityTtls;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+  private final AtomicLong allGeneration = new AtomicLong();
+  private final FrequencySketch sketch = new FrequencySketch(SKETCH_WIDTH);
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder serializationFailures = new LongAdder();
+  // Изменяются только под монитором кэша
+  private long usedBytes;
+  private long rejections;
+  private long evictions;
+
+  public SearchPageCache(ObjectMapper objectMapper, long maxBytes, Duration defaultTtl) {
+    this(objectMapper, maxBytes, defaultTtl, Map.of());
+  }
+
+  /**
+   * @param objectMapper сериализация страниц, должна поддерживать типы атрибутов сущностей
+   * @param maxBytes     бюджет на сериализованные страницы
+   * @param defaultTtl   время жизни страниц сущностей, для которых оно не задано явно
+   * @param entityTtls   время жизни страниц по типу сущности
+   */
+  public SearchPageCache(ObjectMapper objectMapper, long maxBytes, Duration defaultTtl,
+      Map<Class<?>, Duration> entityTtls) {
+    this.objectMapper = objectMapper;
+    this.keyMapper = objectMapper.copy()
+        .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+        .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    this.maxBytes = maxBytes;
+    this.defaultTtl = defaultTtl;
+    this.entityTtls = Map.copyOf(entityTtls);
+  }
+
+  /**
+   * Возвращает страницу из кэша или выполняет поиск и сохраняет результат.
+   *
+   * @param entityType    тип сущности, по которой выполняется поиск
+   * @param request       запрос, при заданных fields строки страницы - Map атрибутов
+   * @param countStrategy стратегия подсчёта поиска, входит в ключ
+   * @param loader        выполнение поиска
+   */
+  public <R> SearchResponseDto<R> get(Class<?> entityType, SearchRequestDto request,
+      CountStrategy countStrategy, Supplier<SearchResponseDto<R>> loader) {
+    var key = buildKey(entityType, request, countStrategy);
+    var data = read(key);
+    if (nonNull(data)) {
+      return deserialize(data, isNull(request.fields()) ? entityType : Map.class);
+    }
+
+    // Поколение читается до поиска: сброс во время поиска отменит сохранение его результата
+    var generation = getGeneration(entityType);
+    var response = loader.get();
+    var serialized = serialize(response);
+    if (nonNull(serialized)) {
+      write(entityType, key, serialized, generation);
+    }
+
+    return response;
+  }
+
+  public synchronized void invalidate(Class<?> entityType) {
+    generations.computeIfAbsent(entityType, type -> new AtomicLong()).incrementAndGet();
+    var iterator = entries.values().iterator();
+    while (iterator.hasNext()) {
+      var entry = iterator.next();
+      if (Objects.equals(entry.entityType(), entityType)) {
+        usedBytes -= entry.size();
+        iterator.remove();
+      }
+    }
+  }
+
+  public synchronized void invalidateAll() {
+    allGeneration.incrementAndGet();
+    entries.clear();
+    usedBytes = 0;
+  }
+
+  public synchronized SearchPageCacheStats getStats() {
+    return new SearchPageCacheStats(hits.sum(), misses.sum(), rejections, evictions,
+        serializationFailures.sum(), entries.size(), usedBytes);
+  }
+
+  private ByteBuffer read(String key) {
+    sketch.increment(key);
+    var entry = entries.get(key);
+    var now = System.nanoTime();
+    if (isNull(entry) || entry.isExpired(now)) {
+      if (nonNull(entry)) {
+        remove(key, entry);
+      }
+
+      misses.increment();
+      return null;
+    }
+
+    hits.increment();
+    entry.touch(now);
+    // Копия позиции буфера, чтобы чтение не мешало другим потокам
+    return entry.data().duplicate();
+  }
+
+  private synchronized void write(Class<?> entityType, String key, byte[] data,
+      long generation) {
+    if (getGeneration(entityType) != generation) {
+      // Страница загружена до сброса записей сущности и может содержать устаревшие данные
+      return;
+    }
+
+    if (data.length > maxBytes) {
+      rejections++;
+      return;
+    }
+
+    var previous = entries.get(key);
+    if (nonNull(previous)) {
+      remove(key, previous);
+    }
+
+    var now = System.nanoTime();
+    var candidateFrequency = sketch.frequency(key);
+    // Сначала решаем о допуске по всем жертвам, вытесняем только ради допущенной страницы.
+    // Жертвы выбираются по давности последнего обращения
+    var victims = new ArrayList<Victim>();
+    var freedBytes = 0L;
+    if (usedBytes + data.length > maxBytes) {
+      // Время обращения читается один раз: чтения продолжают его менять во время сортировки
+      var iterator = entries.entrySet().stream()
+          .map(entry -> new Victim(entry.getKey(), entry.getValue(),
+              entry.getValue().lastAccess()))
+          .sorted(comparingLong(Victim::lastAccess))
+          .iterator();
+      while (usedBytes - freedBytes + data.length > maxBytes) {
+        var victim = iterator.next();
+        // TinyLFU: страница, к которой обращаются чаще новой, не вытесняется ради неё
+        if (!victim.entry().isExpired(now)
+            && sketch.frequency(victim.key()) > candidateFrequency) {
+          rejections++;
+          return;
+        }
+
+        victims.add(victim);
+        freedBytes += victim.entry().size();
+      }
+    }
+
+    victims.forEach(victim -> remove(victim.key(), victim.entry()));
+    evictions += victims.size();
+
+    var buffer = ByteBuffer.allocateDirect(data.length).put(data).flip();
+    var ttl = entityTtls.getOrDefault(entityType, defaultTtl);
+    entries.put(key, new Entry(entityType, buffer.asReadOnlyBuffer(), now + ttl.toNanos(), now));
+    usedBytes += data.length;
+  }
+
+  /**
+   * Удаляет запись, если она не была заменена другим потоком.
+   */
+  private synchronized void remove(String key, Entry entry) {
+    if (entries.remove(key, entry)) {
+      usedBytes -= entry.size();
+    }
+  }
+
+  /**
+   * Поколение записей сущности: увеличивается при каждом сбросе её записей или всего кэша.
+   */
+  private long getGeneration(Class<?> entityType) {
+    var generation = generations.get(entityType);
+    return allGeneration.get() + (isNull(generation) ? 0L : generation.get());
+  }
+
+  private String buildKey(Class<?> entityType, SearchRequestDto request,
+      CountStrategy countStrategy) {
+    // Фильтры объединяются через AND, поэтому их порядок не влияет на результат
+    var searchData = isNull(request.searchData())
+        ? null
+        : request.searchData().stream()
+            .sorted(comparing(SearchDataDto::toString))
+            .toList();
+    var canonical = new SearchRequestDto(request.pagination(), request.sort(),
+        searchData, request.fields());
+    try {
+      return String.join("|", entityType.getName(), keyMapper.writeValueAsString(canonical),
+          String.valueOf(countStrategy));
+    } catch (IOException ex) {
+      throw new ProcessingException("Не удалось построить ключ кэша поиска", ex);
+    }
+  }
+
+  /**
+   * @return JSON страницы или null, если страница не сериализуется и не может быть кэширована
+   */
+  private byte[] serialize(SearchResponseDto<?> response) {
+    try {
+      return objectMapper.writeValueAsBytes(response);
+    } catch (IOException ex) {
+      serializationFailures.increment();
+      return null;
+    }
+  }
+
+  private <R> SearchResponseDto<R> deserialize(ByteBuffer data, Class<?> contentType) {
+    var bytes = new byte[data.remaining()];
+    data.get(bytes);
+    var type = objectMapper.getTypeFactory()
+        .constructParametricType(SearchResponseDto.class, contentType);
+    try {
+      return objectMapper.readValue(bytes, type);
+    } catch (IOException ex) {
+      throw new ProcessingException("Не удалось прочитать страницу поиска из кэша", ex);
+    }
+  }
+
+  private record Victim(String key,
+                        Entry entry,
+                        long lastAccess) {
+
+  }
+
+  private static final class Entry {
+
+    private final Class<?> entityType;
+    private final ByteBuffer data;
+    private final long expiresAt;
+    private volatile long lastAccess;
+
+    private Entry(Class<?> entityType, ByteBuffer data, long expiresAt, long lastAccess) {
+      this.entityType = entityType;
+      this.data = data;
+      this.expiresAt = expiresAt;
+      this.lastAccess = lastAccess;
+    }
+
+    Class<?> entityType() {
+      return entityType;
+    }
+
+    ByteBuffer data() {
+      return data;
+    }
+
+    long lastAccess() {
+      return lastAccess;
+    }
+
+    void touch(long now) {
+      lastAccess = now;
+    }
+
+    int size() {
+      return data.capacity();
+    }
+
+    boolean isExpired(long now) {
+      return now - expiresAt >= 0;
+    }
+
+  }
+
+}
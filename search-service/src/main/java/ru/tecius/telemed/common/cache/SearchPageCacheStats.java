@@ -0,0 +1,14 @@
+package ru.tecius.telemed.common.cache;
+
+/**
+ * @param serializationFailures страницы, возвращённые без кэширования из-за ошибки сериализации
+ */
+public record SearchPageCacheStats(long hits,
+                                   long misses,
+                                   long rejections,
+                                   long evictions,
+                                   long serializationFailures,
+                                   long size,
+                                   long usedBytes) {
+
+}
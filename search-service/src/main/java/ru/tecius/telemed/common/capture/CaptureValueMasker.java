@@ -0,0 +1,124 @@
+package ru.tecius.telemed.common.capture;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static ru.tecius.telemed.util.Constants.DATE_CLASSES;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import ru.tecius.telemed.common.criteria.CriteriaInfoInterface;
+import ru.tecius.telemed.common.nativ.SearchInfoInterface;
+import ru.tecius.telemed.dto.request.PaginationDto;
+import ru.tecius.telemed.dto.request.SearchDataDto;
+import ru.tecius.telemed.dto.request.SearchRequestDto;
+import ru.tecius.telemed.exception.ProcessingException;
+
+/**
+ * Заменяет значения фильтров журнала захвата хешами SHA-256 с солью. Значения сохраняются только
+ * для атрибутов, объявленных числом, логическим значением, датой, UUID или перечислением: без них
+ * воспроизведённый запрос не пройдёт проверку типа значения. Решение принимается по объявленному
+ * типу атрибута, а не по виду значения, поэтому строки из цифр (телефон, СНИЛС, номер паспорта
+ * или полиса) хешируются. Значения атрибутов незарегистрированных сущностей хешируются все.
+ * Одинаковые значения дают одинаковые хеши, поэтому повторяемость значений в нагрузке
+ * сохраняется. Курсор keyset-пагинации содержит значения строки и удаляется.
+ */
+public class CaptureValueMasker {
+
+  private static final String HASH_ALGORITHM = "SHA-256";
+  private static final String HASH_PREFIX = "h_";
+  private static final int HASH_LENGTH = 16;
+
+  private final byte[] salt;
+  private final Map<String, Map<String, Class<?>>> entityAttributeTypes =
+      new ConcurrentHashMap<>();
+
+  public CaptureValueMasker(String salt) {
+    this.salt = isNull(salt) ? new byte[0] : salt.getBytes(UTF_8);
+  }
+
+  public <E> CaptureValueMasker register(Class<E> entityType, SearchInfoInterface<E> searchInfo) {
+    var attributeTypes = getAttributeTypes(entityType);
+    Stream.concat(searchInfo.getSimpleAttributes().stream(),
+            searchInfo.getMultipleAttributes().stream())
+        .forEach(attr -> attributeTypes.put(attr.json().key(), attr.db().type()));
+    return this;
+  }
+
+  /**
+   * Атрибуты, уже зарегистрированные нативной конфигурацией сущности, не заменяются.
+   */
+  public <E> CaptureValueMasker register(CriteriaInfoInterface<E> criteriaInfo) {
+    var attributeTypes = getAttributeTypes(criteriaInfo.getEntityClass());
+    Stream.concat(criteriaInfo.getSimpleAttributes().stream(),
+            criteriaInfo.getMultipleAttributes().stream())
+        .forEach(attr -> attributeTypes.putIfAbsent(attr.json().key(), attr.db().type()));
+    return this;
+  }
+
+  /**
+   * @param entity имя класса сущности, по которой выполнялся поиск
+   */
+  public SearchRequestDto mask(String entity, SearchRequestDto request) {
+    var attributeTypes = entityAttributeTypes.getOrDefault(entity, Map.of());
+    var searchData = isNull(request.searchData())
+        ? null
+        : request.searchData().stream()
+            .map(data -> mask(data, attributeTypes.get(data.attribute())))
+            .toList();
+    var pagination = request.pagination();
+    if (nonNull(pagination) && nonNull(pagination.cursor())) {
+      pagination = new PaginationDto(pagination.page(), pagination.size(), pagination.mode(),
+          null);
+    }
+
+    return new SearchRequestDto(pagination, request.sort(), searchData, request.fields());
+  }
+
+  private Map<String, Class<?>> getAttributeTypes(Class<?> entityType) {
+    return entityAttributeTypes.computeIfAbsent(entityType.getName(),
+        key -> new ConcurrentHashMap<>());
+  }
+
+  private SearchDataDto mask(SearchDataDto data, Class<?> attributeType) {
+    if (isNull(data.value()) || isTyped(attributeType)) {
+      return data;
+    }
+
+    var values = data.value().stream()
+        .map(this::maskValue)
+        .toList();
+    return new SearchDataDto(data.attribute(), new LinkedList<>(values), data.operator());
+  }
+
+  private boolean isTyped(Class<?> attributeType) {
+    return nonNull(attributeType)
+        && (Number.class.isAssignableFrom(attributeType)
+        || Boolean.class.equals(attributeType)
+        || UUID.class.equals(attributeType)
+        || Enum.class.isAssignableFrom(attributeType)
+        || DATE_CLASSES.contains(attributeType));
+  }
+
+  private String maskValue(String value) {
+    if (isNull(value)) {
+      return value;
+    }
+
+    try {
+      var digest = MessageDigest.getInstance(HASH_ALGORITHM);
+      digest.update(salt);
+      var hash = HexFormat.of().formatHex(digest.digest(value.getBytes(UTF_8)));
+      return HASH_PREFIX + hash.substring(0, HASH_LENGTH);
+    } catch (NoSuchAlgorithmException ex) {
+      throw new ProcessingException("Алгоритм %s недоступен".formatted(HASH_ALGORITHM), ex);
+    }
+  }
+
+}
@@ -0,0 +1,25 @@
+package ru.tecius.telemed.common.capture;
+
+import ru.tecius.telemed.common.observation.SearchEngine;
+import ru.tecius.telemed.dto.request.SearchRequestDto;
+
+/**
+ * Запись журнала захвата поисковых запросов.
+ *
+ * @param timestamp    время начала поиска, мс от эпохи
+ * @param entity       имя класса сущности
+ * @param engine       движок поиска
+ * @param count        запрашивался ли подсчёт общего количества
+ * @param elapsedNanos время поиска
+ * @param failed       завершился ли поиск ошибкой
+ * @param request      запрос; при маскировании значения заменены хешами
+ */
+public record CapturedSearch(long timestamp,
+                             String entity,
+                             SearchEngine engine,
+                             boolean count,
+                             long elapsedNanos,
+                             boolean failed,
+                             SearchRequestDto request) {
+
+}
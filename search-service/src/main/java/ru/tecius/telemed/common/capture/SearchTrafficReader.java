@@ -0,0 +1,81 @@
+package ru.tecius.telemed.common.capture;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static ru.tecius.telemed.common.capture.SearchTrafficRecorder.FILE_PREFIX;
+import static ru.tecius.telemed.common.capture.SearchTrafficRecorder.FILE_SUFFIX;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import lombok.extern.slf4j.Slf4j;
+import ru.tecius.telemed.exception.ProcessingException;
+
+/**
+ * Чтение журнала захвата {@link SearchTrafficRecorder}: файлы каталога в порядке записи, строки
+ * файла по порядку.
+ */
+@Slf4j
+public final class SearchTrafficReader {
+
+  private SearchTrafficReader() {
+    // Utility class - prevent instantiation
+  }
+
+  /**
+   * Передаёт записи журнала обработчику. Незавершённый файл (запись ещё идёт или приложение
+   * остановлено аварийно) читается до последней сброшенной строки.
+   *
+   * @param directory каталог файлов журнала или отдельный файл
+   */
+  public static void read(Path directory, ObjectMapper objectMapper,
+      Consumer<CapturedSearch> consumer) {
+    try {
+      var files = Files.isDirectory(directory) ? listFiles(directory) : List.of(directory);
+      for (var file : files) {
+        readFile(file, objectMapper, consumer);
+      }
+    } catch (IOException ex) {
+      throw new ProcessingException("Ошибка чтения журнала захвата " + directory, ex);
+    }
+  }
+
+  /**
+   * @return файлы журнала каталога от старых к новым
+   */
+  public static List<Path> listFiles(Path directory) throws IOException {
+    try (var paths = Files.list(directory)) {
+      return paths
+          .filter(path -> {
+            var name = path.getFileName().toString();
+            return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+          })
+          .sorted()
+          .toList();
+    }
+  }
+
+  private static void readFile(Path file, ObjectMapper objectMapper,
+      Consumer<CapturedSearch> consumer) throws IOException {
+    try (var reader = new BufferedReader(new InputStreamReader(
+        new GZIPInputStream(Files.newInputStream(file)), UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (isNotBlank(line)) {
+          consumer.accept(objectMapper.readValue(line, CapturedSearch.class));
+        }
+      }
+    } catch (EOFException ex) {
+      log.warn("Файл журнала захвата {} не завершён, прочитан до последней сброшенной строки",
+          file);
+    }
+  }
+
+}
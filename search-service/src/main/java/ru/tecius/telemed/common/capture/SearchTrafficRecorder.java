@@ -0,0 +1,248 @@
+package ru.tecius.telemed.common.capture;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import ru.tecius.telemed.common.observation.SearchEngine;
+import ru.tecius.telemed.dto.request.SearchRequestDto;
+import ru.tecius.telemed.exception.ProcessingException;
+
+/**
+ * Журнал захвата поисковых запросов для последующего воспроизведения. Каждый вызов поиска
+ * дописывается строкой JSON {@link CapturedSearch} в сжатый gzip файл локального каталога.
+ *
+ * <p>Запись не задерживает поиск: вызовы передаются через ограниченную очередь отдельному потоку
+ * записи, при переполнении очереди вызов не записывается и только подсчитывается. Файл
+ * сменяется, когда объём несжатых строк превышает предел; старые файлы сверх заданного количества
+ * удаляются. Текущий файл сбрасывается на диск при простое записи и читается
+ * {@link SearchTrafficReader} до последней сброшенной строки.
+ */
+@Slf4j
+public class SearchTrafficRecorder implements AutoCloseable {
+
+  public static final String FILE_PREFIX = "search-capture-";
+  public static final String FILE_SUFFIX = ".jsonl.gz";
+  public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+
+  private static final DateTimeFormatter FILE_TIMESTAMP_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+  private static final long POLL_TIMEOUT_MILLIS = 1000L;
+  private static final long CLOSE_TIMEOUT_MILLIS = 10_000L;
+  private static final byte LINE_SEPARATOR = '\n';
+
+  private final Path directory;
+  private final ObjectMapper objectMapper;
+  private final long maxFileBytes;
+  private final int maxFiles;
+  private final double sampleRate;
+  private final CaptureValueMasker masker;
+  private final BlockingQueue<CapturedSearch> queue;
+  private final Thread writer;
+  private final LongAdder recorded = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private volatile boolean closed;
+
+  // Состояние текущего файла, используется только потоком записи
+  private OutputStream output;
+  private long fileBytes;
+  private int fileSequence;
+
+  private SearchTrafficRecorder() {
+    this.directory = null;
+    this.objectMapper = null;
+    this.maxFileBytes = 0L;
+    this.maxFiles = 0;
+    this.sampleRate = 0.0;
+    this.masker = null;
+    this.queue = null;
+    this.writer = null;
+  }
+
+  public SearchTrafficRecorder(Path directory, ObjectMapper objectMapper, long maxFileBytes,
+      int maxFiles) {
+    this(directory, objectMapper, maxFileBytes, maxFiles, 1.0, null);
+  }
+
+  /**
+   * @param directory    каталог файлов журнала
+   * @param maxFileBytes объём несжатых строк, после которого файл сменяется
+   * @param maxFiles     количество хранимых файлов
+   * @param sampleRate   доля записываемых вызовов от 0 до 1
+   * @param masker       маскирование значений фильтров, null - значения записываются как есть
+   */
+  public SearchTrafficRecorder(Path directory, ObjectMapper objectMapper, long maxFileBytes,
+      int maxFiles, double sampleRate, CaptureValueMasker masker) {
+    this.directory = directory;
+    this.objectMapper = objectMapper;
+    this.maxFileBytes = maxFileBytes;
+    this.maxFiles = maxFiles;
+    this.sampleRate = sampleRate;
+    this.masker = masker;
+    this.queue = new ArrayBlockingQueue<>(DEFAULT_QUEUE_CAPACITY);
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException ex) {
+      throw new ProcessingException("Ошибка создания каталога журнала захвата " + directory, ex);
+    }
+
+    this.writer = Thread.ofPlatform()
+        .name("search-capture-writer")
+        .daemon()
+        .start(this::writeLoop);
+  }
+
+  /**
+   * Журнал, который ничего не записывает: поиск выполняется без накладных расходов.
+   */
+  public static SearchTrafficRecorder disabled() {
+    return new SearchTrafficRecorder();
+  }
+
+  /**
+   * Выполняет поиск и записывает его в журнал, в том числе при ошибке.
+   *
+   * @param entityType тип сущности, по которой выполняется поиск
+   * @param count      запрашивается ли подсчёт общего количества
+   */
+  public <T> T record(Class<?> entityType, SearchEngine engine, SearchRequestDto request,
+      boolean count, Supplier<T> search) {
+    if (isNull(writer) || closed || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+      return search.get();
+    }
+
+    var timestamp = System.currentTimeMillis();
+    var start = System.nanoTime();
+    var failed = true;
+    try {
+      var result = search.get();
+      failed = false;
+      return result;
+    } finally {
+      var entry = new CapturedSearch(timestamp, entityType.getName(), engine, count,
+          System.nanoTime() - start, failed, request);
+      if (queue.offer(entry)) {
+        recorded.increment();
+      } else {
+        dropped.increment();
+      }
+    }
+  }
+
+  public boolean isEnabled() {
+    return nonNull(writer);
+  }
+
+  public long getRecorded() {
+    return recorded.sum();
+  }
+
+  /**
+   * Количество вызовов, не записанных из-за переполнения очереди.
+   */
+  public long getDropped() {
+    return dropped.sum();
+  }
+
+  @Override
+  public void close() {
+    if (isNull(writer) || closed) {
+      return;
+    }
+
+    closed = true;
+    try {
+      writer.join(CLOSE_TIMEOUT_MILLIS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void writeLoop() {
+    try {
+      while (!closed || !queue.isEmpty()) {
+        var entry = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        if (isNull(entry)) {
+          // Простой: строки текущего файла становятся доступны для чтения
+          if (nonNull(output)) {
+            output.flush();
+          }
+
+          continue;
+        }
+
+        write(entry);
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (IOException ex) {
+      log.error("Ошибка записи журнала захвата, запись остановлена", ex);
+      closed = true;
+    } finally {
+      closeFile();
+    }
+  }
+
+  private void write(CapturedSearch entry) throws IOException {
+    if (isNull(output) || fileBytes >= maxFileBytes) {
+      closeFile();
+      openFile();
+    }
+
+    var line = objectMapper.writeValueAsBytes(isNull(masker)
+        ? entry
+        : new CapturedSearch(entry.timestamp(), entry.entity(), entry.engine(), entry.count(),
+            entry.elapsedNanos(), entry.failed(), masker.mask(entry.entity(), entry.request())));
+    output.write(line);
+    output.write(LINE_SEPARATOR);
+    fileBytes += line.length + 1L;
+  }
+
+  private void openFile() throws IOException {
+    // Имя из времени UTC и номера: лексикографический порядок файлов совпадает с порядком записи
+    var name = "%s%s-%04d%s".formatted(FILE_PREFIX,
+        FILE_TIMESTAMP_FORMATTER.format(Instant.now()), fileSequence++, FILE_SUFFIX);
+    output = new BufferedOutputStream(
+        new GZIPOutputStream(Files.newOutputStream(directory.resolve(name)), true));
+    fileBytes = 0L;
+    deleteOldFiles();
+  }
+
+  private void closeFile() {
+    if (isNull(output)) {
+      return;
+    }
+
+    try {
+      output.close();
+    } catch (IOException ex) {
+      log.warn("Ошибка закрытия файла журнала захвата", ex);
+    }
+
+    output = null;
+  }
+
+  private void deleteOldFiles() throws IOException {
+    var files = SearchTrafficReader.listFiles(directory);
+    for (var i = 0; i < files.size() - maxFiles; i++) {
+      Files.deleteIfExists(files.get(i));
+    }
+  }
+
+}
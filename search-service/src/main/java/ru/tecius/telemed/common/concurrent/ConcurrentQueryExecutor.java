@@ -0,0 +1,84 @@
+package ru.tecius.telemed.common.concurrent;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.dao.QueryTimeoutException;
+import ru.tecius.telemed.exception.ProcessingException;
+
+/**
+ * Одновременное выполнение запроса подсчёта и основного запроса. Подсчёт выполняется на
+ * виртуальном потоке со своим соединением из пула, основной запрос - в вызывающем потоке, чтобы
+ * загруженные сущности остались в его контексте персистентности и транзакции. Время ответа
+ * определяется более медленным из запросов, а не их суммой.
+ */
+public class ConcurrentQueryExecutor implements AutoCloseable {
+
+  private final ExecutorService executorService;
+  private final Duration timeout;
+
+  public ConcurrentQueryExecutor(Duration timeout) {
+    this(Executors.newVirtualThreadPerTaskExecutor(), timeout);
+  }
+
+  public ConcurrentQueryExecutor(ExecutorService executorService, Duration timeout) {
+    this.executorService = executorService;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Выполняет оба запроса одновременно. Ошибка любого из запросов пробрасывается вызывающему коду
+   * как есть, фоновый запрос при этом отменяется.
+   *
+   * @param background запрос, выполняемый на виртуальном потоке
+   * @param foreground запрос, выполняемый в вызывающем потоке
+   * @return результаты обоих запросов
+   * @throws QueryTimeoutException если фоновый запрос не завершился за отведённое время
+   */
+  public <B, F> ConcurrentResults<B, F> invokeBoth(Supplier<B> background,
+      Supplier<F> foreground) {
+    var deadline = System.nanoTime() + timeout.toNanos();
+    Callable<B> task = background::get;
+    var future = executorService.submit(task);
+    try {
+      var foregroundResult = foreground.get();
+      var backgroundResult = future.get(Math.max(0L, deadline - System.nanoTime()),
+          NANOSECONDS);
+      return new ConcurrentResults<>(backgroundResult, foregroundResult);
+    } catch (ExecutionException ex) {
+      throw propagate(ex.getCause());
+    } catch (TimeoutException ex) {
+      throw new QueryTimeoutException(
+          "Запрос не выполнен за отведённое время %s".formatted(timeout), ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new ProcessingException("Выполнение поискового запроса прервано", ex);
+    } finally {
+      future.cancel(true);
+    }
+  }
+
+  @Override
+  public void close() {
+    executorService.close();
+  }
+
+  private RuntimeException propagate(Throwable cause) {
+    if (cause instanceof RuntimeException runtimeException) {
+      return runtimeException;
+    }
+
+    if (cause instanceof Error error) {
+      throw error;
+    }
+
+    return new ProcessingException("Ошибка выполнения поискового запроса", cause);
+  }
+
+}
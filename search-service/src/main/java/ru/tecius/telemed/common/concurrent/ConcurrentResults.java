@@ -0,0 +1,12 @@
+package ru.tecius.telemed.common.concurrent;
+
+/**
+ * Результаты двух одновременно выполненных запросов.
+ *
+ * @param background результат запроса, выполненного в отдельном потоке
+ * @param foreground результат запроса, выполненного в вызывающем потоке
+ */
+public record ConcurrentResults<B, F>(B background,
+                                      F foreground) {
+
+}
@@ -0,0 +1,21 @@
+package ru.tecius.telemed.common.count;
+
+import java.time.Duration;
+
+/**
+ * Точный COUNT с ограничением времени выполнения. При превышении бюджета используется оценка
+ * количества записей по правилам {@link EstimatedCountStrategy}. Тайм-аут JDBC задаётся в
+ * секундах, поэтому бюджет округляется вверх до целой секунды.
+ *
+ * @param budget ограничение времени выполнения точного подсчёта
+ */
+public record BudgetedCountStrategy(Duration budget) implements CountStrategy {
+
+  @Override
+  public CountResult count(CountQueryExecutor executor) {
+    return executor.exactCount(budget)
+        .map(CountResult::exact)
+        .orElseGet(() -> new EstimatedCountStrategy().count(executor));
+  }
+
+}
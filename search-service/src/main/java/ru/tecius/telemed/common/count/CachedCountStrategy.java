@@ -0,0 +1,20 @@
+package ru.tecius.telemed.common.count;
+
+import java.util.List;
+
+/**
+ * Подсчёт через кэш: результат стратегии delegate переиспользуется для запросов с тем же фильтром,
+ * пока не истечёт время жизни записи кэша.
+ *
+ * @param delegate стратегия, выполняющая подсчёт при отсутствии результата в кэше
+ * @param cache    кэш результатов подсчёта
+ */
+public record CachedCountStrategy(CountStrategy delegate,
+                                  CountResultCache cache) implements CountStrategy {
+
+  @Override
+  public CountResult count(CountQueryExecutor executor) {
+    return cache.get(List.of(executor.filterKey(), delegate), () -> delegate.count(executor));
+  }
+
+}
@@ -0,0 +1,19 @@
+package ru.tecius.telemed.common.count;
+
+import static ru.tecius.telemed.dto.response.TotalElementsType.CAPPED;
+
+/**
+ * Подсчёт не более cap + 1 записей. Если записей больше cap, в ответ попадает cap с видом
+ * {@code CAPPED} ("1000+"), иначе точное значение.
+ *
+ * @param cap максимальное точно сообщаемое количество
+ */
+public record CappedCountStrategy(long cap) implements CountStrategy {
+
+  @Override
+  public CountResult count(CountQueryExecutor executor) {
+    var rows = executor.cappedCount(cap + 1);
+    return rows > cap ? new CountResult(cap, CAPPED) : CountResult.exact(rows);
+  }
+
+}
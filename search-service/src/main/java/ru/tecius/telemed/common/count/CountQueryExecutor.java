@@ -0,0 +1,43 @@
+package ru.tecius.telemed.common.count;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Выполнение запросов подсчёта для текущего поискового запроса. Реализуется каждым движком
+ * поиска, стратегии подсчёта выбирают, какие из запросов выполнить.
+ */
+public interface CountQueryExecutor {
+
+  /**
+   * Точное количество записей.
+   */
+  long exactCount();
+
+  /**
+   * Точное количество записей, если запрос уложился в отведённое время.
+   *
+   * @param timeout ограничение времени выполнения запроса
+   * @return количество или пустое значение при превышении времени
+   */
+  Optional<Long> exactCount(Duration timeout);
+
+  /**
+   * Количество записей, но не больше limit.
+   */
+  long cappedCount(long limit);
+
+  /**
+   * Оценка количества записей планировщиком с учётом условий поиска.
+   *
+   * @return оценка или пустое значение, если движок не может оценить количество с учётом условий
+   */
+  Optional<Long> estimatedCount();
+
+  /**
+   * Ключ фильтра запроса: сущность и условия поиска. Совпадает у запросов, отличающихся только
+   * сортировкой и пагинацией.
+   */
+  Object filterKey();
+
+}
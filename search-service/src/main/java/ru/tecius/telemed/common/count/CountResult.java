@@ -0,0 +1,24 @@
+package ru.tecius.telemed.common.count;
+
+import static ru.tecius.telemed.dto.response.TotalElementsType.EXACT;
+
+import ru.tecius.telemed.dto.response.TotalElementsType;
+
+/**
+ * Результат подсчёта количества записей.
+ *
+ * @param totalElements количество записей
+ * @param type          вид значения, null если количество не вычислялось
+ */
+public record CountResult(Long totalElements,
+                          TotalElementsType type) {
+
+  public static CountResult exact(Long totalElements) {
+    return new CountResult(totalElements, EXACT);
+  }
+
+  public static CountResult notCalculated() {
+    return new CountResult(0L, null);
+  }
+
+}
@@ -0,0 +1,84 @@
+package ru.tecius.telemed.common.count;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Кэш результатов подсчёта с коротким временем жизни. Ключ - фильтр запроса без сортировки и
+ * пагинации, поэтому при переходе по страницам одного фильтра подсчёт выполняется один раз.
+ * При переполнении вытесняются самые старые записи (FIFO).
+ */
+public class CountResultCache {
+
+  public static final int DEFAULT_MAX_SIZE = 1024;
+
+  private final Duration ttl;
+  private final int maxSize;
+  private final Map<Object, Entry> results = new ConcurrentHashMap<>();
+  private final Queue<Object> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public CountResultCache(Duration ttl) {
+    this(ttl, DEFAULT_MAX_SIZE);
+  }
+
+  public CountResultCache(Duration ttl, int maxSize) {
+    this.ttl = ttl;
+    this.maxSize = maxSize;
+  }
+
+  public CountResult get(Object key, Supplier<CountResult> counter) {
+    var now = System.nanoTime();
+    var entry = results.get(key);
+    if (nonNull(entry) && now - entry.expiresAt() < 0) {
+      hits.increment();
+      return entry.result();
+    }
+
+    misses.increment();
+    var result = counter.get();
+    // Невычисленное количество не кэшируется, следующая страница попробует посчитать снова
+    if (nonNull(result.type())
+        && isNull(results.put(key, new Entry(result, now + ttl.toNanos())))) {
+      insertionOrder.add(key);
+      evictOverflow();
+    }
+
+    return result;
+  }
+
+  public void clear() {
+    results.clear();
+    insertionOrder.clear();
+  }
+
+  public CountResultCacheStats getStats() {
+    return new CountResultCacheStats(hits.sum(), misses.sum(), results.size());
+  }
+
+  private void evictOverflow() {
+    while (results.size() > maxSize) {
+      var eldest = insertionOrder.poll();
+      if (isNull(eldest)) {
+        return;
+      }
+
+      results.remove(eldest);
+    }
+  }
+
+  private record Entry(CountResult result,
+                       long expiresAt) {
+
+  }
+
+}
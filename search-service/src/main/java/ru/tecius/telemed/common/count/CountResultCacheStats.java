@@ -0,0 +1,7 @@
+package ru.tecius.telemed.common.count;
+
+public record CountResultCacheStats(long hits,
+                                    long misses,
+                                    long size) {
+
+}
@@ -0,0 +1,32 @@
+package ru.tecius.telemed.common.count;
+
+import java.time.Duration;
+
+/**
+ * Стратегия подсчёта общего количества записей.
+ */
+public interface CountStrategy {
+
+  CountResult count(CountQueryExecutor executor);
+
+  static CountStrategy exact() {
+    return new ExactCountStrategy();
+  }
+
+  static CountStrategy capped(long cap) {
+    return new CappedCountStrategy(cap);
+  }
+
+  static CountStrategy estimated() {
+    return new EstimatedCountStrategy();
+  }
+
+  static CountStrategy budgeted(Duration budget) {
+    return new BudgetedCountStrategy(budget);
+  }
+
+  static CountStrategy cached(CountStrategy delegate, CountResultCache cache) {
+    return new CachedCountStrategy(delegate, cache);
+  }
+
+}
@@ -0,0 +1,21 @@
+package ru.tecius.telemed.common.count;
+
+import static ru.tecius.telemed.dto.response.TotalElementsType.ESTIMATED;
+
+/**
+ * Оценка количества записей без выполнения подсчёта. Если движок не может оценить количество с
+ * учётом условий поиска, выполняется подсчёт не более {@link #FALLBACK_CAP} записей: размер всей
+ * таблицы не выдаётся за количество найденных записей.
+ */
+public record EstimatedCountStrategy() implements CountStrategy {
+
+  public static final long FALLBACK_CAP = 1000L;
+
+  @Override
+  public CountResult count(CountQueryExecutor executor) {
+    return executor.estimatedCount()
+        .map(estimate -> new CountResult(estimate, ESTIMATED))
+        .orElseGet(() -> new CappedCountStrategy(FALLBACK_CAP).count(executor));
+  }
+
+}
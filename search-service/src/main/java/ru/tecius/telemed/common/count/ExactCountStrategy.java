@@ -0,0 +1,13 @@
+package ru.tecius.telemed.common.count;
+
+/**
+ * Точный COUNT по всем условиям поиска.
+ */
+public record ExactCountStrategy() implements CountStrategy {
+
+  @Override
+  public CountResult count(CountQueryExecutor executor) {
+    return CountResult.exact(executor.exactCount());
+  }
+
+}
@@ -0,0 +1,30 @@
+package ru.tecius.telemed.common.count;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import lombok.experimental.UtilityClass;
+import ru.tecius.telemed.exception.ProcessingException;
+
+@UtilityClass
+public class PlanEstimates {
+
+  public static final String EXPLAIN_JSON_PREFIX = "EXPLAIN (FORMAT JSON) ";
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  /**
+   * Возвращает оценку количества строк верхнего узла плана из вывода EXPLAIN (FORMAT JSON).
+   */
+  public static long parsePlanRows(String explainJson) {
+    try {
+      return OBJECT_MAPPER.readTree(explainJson)
+          .path(0)
+          .path("Plan")
+          .path("Plan Rows")
+          .asLong();
+    } catch (IOException ex) {
+      throw new ProcessingException("Не удалось разобрать план запроса", ex);
+    }
+  }
+
+}
@@ -0,0 +1,59 @@
+package ru.tecius.telemed.common.count;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.QueryTimeoutException;
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.util.Optional;
+import lombok.experimental.UtilityClass;
+import org.hibernate.Session;
+
+/**
+ * Выполнение запросов подсчёта с ограничением времени. Отменённый по тайм-ауту запрос в
+ * PostgreSQL прерывает всю транзакцию, поэтому внутри транзакции запрос выполняется под
+ * точкой сохранения, к которой выполняется откат при отмене.
+ */
+@UtilityClass
+public class QueryTimeouts {
+
+  public static final String QUERY_CANCELED_SQL_STATE = "57014";
+  public static final String QUERY_TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+
+  public static int toJdbcSeconds(Duration timeout) {
+    return Math.max(1, Math.toIntExact((timeout.toMillis() + 999) / 1000));
+  }
+
+  public static Optional<Long> countWithTimeout(EntityManager entityManager, Query query,
+      Duration timeout) {
+    // Hibernate переводит тайм-аут в целые секунды JDBC с округлением вниз, и значения меньше
+    // 500 мс превратились бы в 0 (без ограничения). Округляем вверх так же, как в движке JDBC
+    query.setHint(QUERY_TIMEOUT_HINT, toJdbcSeconds(timeout) * 1000L);
+
+    var session = entityManager.isJoinedToTransaction()
+        ? entityManager.unwrap(Session.class)
+        : null;
+    Savepoint savepoint = isNull(session)
+        ? null
+        : session.doReturningWork(Connection::setSavepoint);
+    try {
+      var count = ((Number) query.getSingleResult()).longValue();
+      if (nonNull(savepoint)) {
+        session.doWork(connection -> connection.releaseSavepoint(savepoint));
+      }
+
+      return Optional.of(count);
+    } catch (QueryTimeoutException ex) {
+      if (nonNull(savepoint)) {
+        session.doWork(connection -> connection.rollback(savepoint));
+      }
+
+      return Optional.empty();
+    }
+  }
+
+}
@@ -0,0 +1,42 @@
+package ru.tecius.telemed.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Событие JDK Flight Recorder применения entity graph к Criteria-запросу.
+ */
+@Name("ru.tecius.telemed.EntityGraphApply")
+@Label("Entity Graph Apply")
+@Description("Построение entity graph и установка подсказки запроса")
+@Category({"Telemed", "Search"})
+@StackTrace(false)
+@Threshold("10 ms")
+public class EntityGraphApplyEvent extends Event {
+
+  @Label("Entity")
+  String entity;
+
+  @Label("Shape Hash")
+  int shapeHash;
+
+  @Label("Hint")
+  String hint;
+
+  @Label("Graphs")
+  @Description("Пути entity graph через запятую")
+  String graphs;
+
+  public void set(String entity, int shapeHash, String hint, String graphs) {
+    this.entity = entity;
+    this.shapeHash = shapeHash;
+    this.hint = hint;
+    this.graphs = graphs;
+  }
+
+}
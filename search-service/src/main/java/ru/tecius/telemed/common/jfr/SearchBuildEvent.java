@@ -0,0 +1,12 @@
+package ru.tecius.telemed.common.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("ru.tecius.telemed.SearchBuild")
+@Label("Search Build")
+@Description("Проверка значений и построение запроса поиска")
+public class SearchBuildEvent extends SearchPhaseEvent {
+
+}
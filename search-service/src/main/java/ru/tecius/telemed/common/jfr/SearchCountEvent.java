@@ -0,0 +1,12 @@
+package ru.tecius.telemed.common.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("ru.tecius.telemed.SearchCount")
+@Label("Search Count")
+@Description("Подсчёт общего количества записей поиска")
+public class SearchCountEvent extends SearchPhaseEvent {
+
+}
@@ -0,0 +1,12 @@
+package ru.tecius.telemed.common.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("ru.tecius.telemed.SearchExecute")
+@Label("Search Execute")
+@Description("Выполнение основного запроса поиска")
+public class SearchExecuteEvent extends SearchPhaseEvent {
+
+}
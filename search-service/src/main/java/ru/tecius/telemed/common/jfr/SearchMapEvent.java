@@ -0,0 +1,12 @@
+package ru.tecius.telemed.common.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("ru.tecius.telemed.SearchMap")
+@Label("Search Map")
+@Description("Преобразование строк результата поиска")
+public class SearchMapEvent extends SearchPhaseEvent {
+
+}
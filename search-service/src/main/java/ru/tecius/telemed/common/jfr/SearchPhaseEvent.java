@@ -0,0 +1,53 @@
+package ru.tecius.telemed.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import ru.tecius.telemed.common.observation.SearchPhase;
+
+/**
+ * Событие JDK Flight Recorder фазы поиска. Выключенное событие не записывается и почти ничего не
+ * стоит. Пороги и включение задаются файлом настроек jfr/search.jfc из ресурсов модуля, например
+ * {@code -XX:StartFlightRecording:settings=default,settings=search.jfc}.
+ */
+@Category({"Telemed", "Search"})
+@StackTrace(false)
+@Threshold("10 ms")
+public abstract class SearchPhaseEvent extends Event {
+
+  @Label("Entity")
+  @Description("Имя класса сущности")
+  String entity;
+
+  @Label("Shape Hash")
+  @Description("Хеш формы запроса: атрибутов и операторов фильтров и сортировки")
+  int shapeHash;
+
+  @Label("Rows")
+  @Description("Количество строк основного запроса, 0 - строки ещё не получены")
+  int rows;
+
+  @Label("SQL Length")
+  @Description("Длина текста основного запроса, 0 - текст недоступен")
+  int sqlLength;
+
+  public static SearchPhaseEvent of(SearchPhase phase) {
+    return switch (phase) {
+      case VALIDATION, BUILD -> new SearchBuildEvent();
+      case COUNT -> new SearchCountEvent();
+      case CONTENT -> new SearchExecuteEvent();
+      case MAPPING -> new SearchMapEvent();
+    };
+  }
+
+  public void set(String entity, int shapeHash, int rows, int sqlLength) {
+    this.entity = entity;
+    this.shapeHash = shapeHash;
+    this.rows = rows;
+    this.sqlLength = sqlLength;
+  }
+
+}
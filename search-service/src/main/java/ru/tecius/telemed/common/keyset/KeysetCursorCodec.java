@@ -0,0 +1,52 @@
+package ru.tecius.telemed.common.keyset;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import lombok.experimental.UtilityClass;
+import ru.tecius.telemed.exception.ValidationException;
+
+/**
+ * Кодирование курсора keyset-пагинации. Курсор содержит значения ключей сортировки последней
+ * строки страницы и значение уникального ключа (id), кодированные в base64url.
+ */
+@UtilityClass
+public class KeysetCursorCodec {
+
+  public static final String INVALID_CURSOR_ERROR = "Некорректный курсор пагинации";
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final TypeReference<List<String>> VALUES_TYPE = new TypeReference<>() {
+  };
+
+  public static String encode(List<?> keys) {
+    var values = keys.stream()
+        .map(key -> Objects.toString(key, null))
+        .toList();
+    try {
+      return Base64.getUrlEncoder().withoutPadding()
+          .encodeToString(OBJECT_MAPPER.writeValueAsBytes(values));
+    } catch (IOException ex) {
+      throw new ValidationException(INVALID_CURSOR_ERROR, ex);
+    }
+  }
+
+  public static List<String> decode(String cursor, int expectedSize) {
+    List<String> values;
+    try {
+      values = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), VALUES_TYPE);
+    } catch (IllegalArgumentException | IOException ex) {
+      throw new ValidationException(INVALID_CURSOR_ERROR, ex);
+    }
+
+    if (!Objects.equals(values.size(), expectedSize)) {
+      throw new ValidationException(INVALID_CURSOR_ERROR);
+    }
+
+    return values;
+  }
+
+}
@@ -0,0 +1,147 @@
+package ru.tecius.telemed.common.metrics;
+
+import static java.util.Objects.isNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.stream.Collectors.joining;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import ru.tecius.telemed.common.observation.SearchEngine;
+import ru.tecius.telemed.common.observation.SearchExecution;
+import ru.tecius.telemed.common.observation.SearchObserver;
+import ru.tecius.telemed.common.observation.SearchPhase;
+import ru.tecius.telemed.common.workload.SearchShape;
+
+/**
+ * Метрики Micrometer поиска:
+ * <ul>
+ *   <li>search.duration - время поиска целиком, тег outcome - success или failure;</li>
+ *   <li>search.phase - время фаз поиска, тег phase - {@link SearchPhase};</li>
+ *   <li>search.rows и search.joins - количество строк и джойнов основного запроса.</li>
+ * </ul>
+ * Общие теги - entity, engine и filters: отсортированные пары атрибут:оператор фильтров. Атрибуты
+ * приходят из запроса, поэтому количество значений filters ограничено, сверх него формы получают
+ * значение {@link #OTHER_FILTERS}.
+ */
+public class SearchMetrics implements SearchObserver {
+
+  public static final int DEFAULT_MAX_FILTER_TAG_VALUES = 100;
+  public static final String NO_FILTERS = "none";
+  public static final String OTHER_FILTERS = "other";
+
+  private static final String SUCCESS = "success";
+  private static final String FAILURE = "failure";
+
+  private final MeterRegistry registry;
+  private final int maxFilterTagValues;
+  private final Set<String> filterTagValues = ConcurrentHashMap.newKeySet();
+  private final Map<MeterKey, SearchMeters> meters = new ConcurrentHashMap<>();
+
+  public SearchMetrics(MeterRegistry registry) {
+    this(registry, DEFAULT_MAX_FILTER_TAG_VALUES);
+  }
+
+  /**
+   * @param maxFilterTagValues количество различных значений тега filters
+   */
+  public SearchMetrics(MeterRegistry registry, int maxFilterTagValues) {
+    this.registry = registry;
+    this.maxFilterTagValues = maxFilterTagValues;
+  }
+
+  @Override
+  public void onSearch(SearchExecution execution) {
+    var key = new MeterKey(execution.shape().entity(), execution.engine(),
+        getFilterTag(execution.shape()));
+    var searchMeters = meters.computeIfAbsent(key, this::createMeters);
+
+    var success = isNull(execution.failure());
+    (success ? searchMeters.success() : searchMeters.failure())
+        .record(execution.elapsedNanos(), NANOSECONDS);
+    execution.phaseNanos().forEach((phase, nanos) ->
+        searchMeters.phases().get(phase).record(nanos, NANOSECONDS));
+    if (success) {
+      searchMeters.rows().record(execution.rows());
+      searchMeters.joins().record(execution.joins());
+    }
+  }
+
+  private String getFilterTag(SearchShape shape) {
+    if (shape.filters().isEmpty()) {
+      return NO_FILTERS;
+    }
+
+    var value = shape.filters().stream()
+        .map(filter -> "%s:%s".formatted(filter.attribute(), filter.operator()))
+        .distinct()
+        .collect(joining(","));
+    if (filterTagValues.contains(value)) {
+      return value;
+    }
+
+    // Предел может быть немного превышен при одновременной регистрации, это допустимо
+    if (filterTagValues.size() >= maxFilterTagValues) {
+      return OTHER_FILTERS;
+    }
+
+    filterTagValues.add(value);
+    return value;
+  }
+
+  private SearchMeters createMeters(MeterKey key) {
+    var tags = Tags.of("entity", key.entity(), "engine", key.engine().name().toLowerCase(),
+        "filters", key.filters());
+    var phases = new EnumMap<SearchPhase, Timer>(SearchPhase.class);
+    for (var phase : SearchPhase.values()) {
+      phases.put(phase, Timer.builder("search.phase")
+          .description("Время фазы поиска")
+          .tags(tags)
+          .tag("phase", phase.name().toLowerCase())
+          .register(registry));
+    }
+
+    return new SearchMeters(
+        createDurationTimer(tags, SUCCESS),
+        createDurationTimer(tags, FAILURE),
+        phases,
+        DistributionSummary.builder("search.rows")
+            .description("Количество строк основного запроса поиска")
+            .baseUnit("rows")
+            .tags(tags)
+            .register(registry),
+        DistributionSummary.builder("search.joins")
+            .description("Количество джойнов основного запроса поиска")
+            .baseUnit("joins")
+            .tags(tags)
+            .register(registry));
+  }
+
+  private Timer createDurationTimer(Tags tags, String outcome) {
+    return Timer.builder("search.duration")
+        .description("Время поиска")
+        .tags(tags)
+        .tag("outcome", outcome)
+        .register(registry);
+  }
+
+  private record MeterKey(String entity,
+                          SearchEngine engine,
+                          String filters) {
+
+  }
+
+  private record SearchMeters(Timer success,
+                              Timer failure,
+                              Map<SearchPhase, Timer> phases,
+                              DistributionSummary rows,
+                              DistributionSummary joins) {
+
+  }
+
+}
@@ -0,0 +1,9 @@
+package ru.tecius.telemed.common.observation;
+
+public enum SearchEngine {
+
+  JDBC,
+  JPA,
+  CRITERIA
+
+}
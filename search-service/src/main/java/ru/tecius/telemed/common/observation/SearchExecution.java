@@ -0,0 +1,33 @@
+package ru.tecius.telemed.common.observation;
+
+import java.util.List;
+import java.util.Map;
+import ru.tecius.telemed.common.workload.SearchShape;
+
+/**
+ * Выполненный поиск.
+ *
+ * @param engine         движок поиска
+ * @param shape          форма запроса; сущность формы - имя класса сущности для всех движков
+ * @param sql            текст основного запроса, null - текст недоступен
+ * @param parameterTypes типы параметров основного запроса без значений
+ * @param elapsedNanos   время поиска, включая построение запроса и подсчёт
+ * @param phaseNanos     время выполненных фаз поиска в наносекундах
+ * @param rows           количество строк основного запроса
+ * @param joins          количество джойнов основного запроса
+ * @param failure        ошибка поиска, null - поиск выполнен успешно
+ * @param plan           получение плана основного запроса. Выполняет запрос к БД, поэтому
+ *                       вызывается только при необходимости, null - план недоступен
+ */
+public record SearchExecution(SearchEngine engine,
+                              SearchShape shape,
+                              String sql,
+                              List<String> parameterTypes,
+                              long elapsedNanos,
+                              Map<SearchPhase, Long> phaseNanos,
+                              int rows,
+                              int joins,
+                              Throwable failure,
+                              SearchPlan plan) {
+
+}
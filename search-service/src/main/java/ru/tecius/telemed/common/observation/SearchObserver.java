@@ -0,0 +1,21 @@
+package ru.tecius.telemed.common.observation;
+
+import java.util.List;
+
+/**
+ * Наблюдатель поиска, которого вызывают сервисы поиска (нативные и Criteria) после каждого
+ * поиска в потоке вызывающего кода.
+ */
+public interface SearchObserver {
+
+  SearchObserver NOOP = execution -> {
+  };
+
+  void onSearch(SearchExecution execution);
+
+  static SearchObserver composite(SearchObserver... observers) {
+    var list = List.of(observers);
+    return execution -> list.forEach(observer -> observer.onSearch(execution));
+  }
+
+}
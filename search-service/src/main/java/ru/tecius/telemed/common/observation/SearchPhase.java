@@ -0,0 +1,29 @@
+package ru.tecius.telemed.common.observation;
+
+/**
+ * Фаза поиска, время которой измеряют сервисы поиска.
+ */
+public enum SearchPhase {
+
+  /**
+   * Проверка и преобразование значений фильтров запроса.
+   */
+  VALIDATION,
+  /**
+   * Построение текста SQL или Criteria-запроса.
+   */
+  BUILD,
+  /**
+   * Подсчёт общего количества записей.
+   */
+  COUNT,
+  /**
+   * Выполнение основного запроса без преобразования строк.
+   */
+  CONTENT,
+  /**
+   * Преобразование строк результата в сущности или значения атрибутов.
+   */
+  MAPPING
+
+}
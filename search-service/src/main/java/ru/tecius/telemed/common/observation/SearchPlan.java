@@ -0,0 +1,20 @@
+package ru.tecius.telemed.common.observation;
+
+import java.time.Duration;
+
+/**
+ * Получение плана основного запроса поиска в формате JSON. Выполняет запрос к БД на отдельном
+ * соединении, поэтому может вызываться из другого потока после завершения поиска.
+ */
+@FunctionalInterface
+public interface SearchPlan {
+
+  /**
+   * @param analyze выполнить запрос и собрать фактические показатели (EXPLAIN ANALYZE). Движки,
+   *                которые не знают значений параметров, его игнорируют
+   * @param timeout тайм-аут запроса плана
+   * @return план в формате JSON
+   */
+  String explain(boolean analyze, Duration timeout);
+
+}
@@ -0,0 +1,147 @@
+package ru.tecius.telemed.common.observation;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import ru.tecius.telemed.common.jfr.SearchPhaseEvent;
+
+/**
+ * Измерения одного поиска: время фаз, количество строк и джойнов. Создаётся сервисом на каждый
+ * поиск; время подсчёта может добавляться из другого потока. Измеряемые фазы также записываются
+ * событиями JFR {@link SearchPhaseEvent}.
+ */
+public class SearchTrace {
+
+  private static final long NOT_RECORDED = -1L;
+
+  private final String entity;
+  private final int shapeHash;
+  private final AtomicLongArray phaseNanos = new AtomicLongArray(SearchPhase.values().length);
+  private volatile int rows;
+  private volatile int joins;
+  private volatile int sqlLength;
+
+  public SearchTrace() {
+    this(null, 0);
+  }
+
+  /**
+   * @param entity    сущность формы запроса для событий JFR
+   * @param shapeHash хеш формы запроса для событий JFR
+   */
+  public SearchTrace(String entity, int shapeHash) {
+    this.entity = entity;
+    this.shapeHash = shapeHash;
+    for (var i = 0; i < phaseNanos.length(); i++) {
+      phaseNanos.set(i, NOT_RECORDED);
+    }
+  }
+
+  public <T> T time(SearchPhase phase, Supplier<T> action) {
+    var span = start(phase);
+    try {
+      return action.get();
+    } finally {
+      span.end();
+    }
+  }
+
+  /**
+   * Начинает измерение фазы, которое нельзя выразить одним {@link #time} (например, когда
+   * количество строк становится известно до окончания фазы).
+   */
+  public Span start(SearchPhase phase) {
+    return new Span(phase);
+  }
+
+  public void add(SearchPhase phase, long nanos) {
+    phaseNanos.accumulateAndGet(phase.ordinal(), nanos,
+        (current, delta) -> Math.max(current, 0L) + delta);
+  }
+
+  /**
+   * Начинает событие JFR фазы без измерения её времени: для фаз, время которых суммируется по
+   * частям через {@link #add}.
+   */
+  public SearchPhaseEvent beginEvent(SearchPhase phase) {
+    var event = SearchPhaseEvent.of(phase);
+    event.begin();
+    return event;
+  }
+
+  public void commitEvent(SearchPhaseEvent event) {
+    event.end();
+    // Поля заполняются только для записываемого события
+    if (event.shouldCommit()) {
+      event.set(entity, shapeHash, rows, sqlLength);
+      event.commit();
+    }
+  }
+
+  public void setRows(int rows) {
+    this.rows = rows;
+  }
+
+  public void setJoins(int joins) {
+    this.joins = joins;
+  }
+
+  public void setSqlLength(int sqlLength) {
+    this.sqlLength = sqlLength;
+  }
+
+  /**
+   * Время выполненных фаз в наносекундах. Фазы, которые поиск не выполнял, отсутствуют.
+   */
+  public Map<SearchPhase, Long> getPhaseNanos() {
+    var result = new EnumMap<SearchPhase, Long>(SearchPhase.class);
+    for (var phase : SearchPhase.values()) {
+      var nanos = phaseNanos.get(phase.ordinal());
+      if (nanos != NOT_RECORDED) {
+        result.put(phase, nanos);
+      }
+    }
+
+    return result;
+  }
+
+  public String getEntity() {
+    return entity;
+  }
+
+  public int getShapeHash() {
+    return shapeHash;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int getJoins() {
+    return joins;
+  }
+
+  /**
+   * Измерение фазы, начатое {@link #start}.
+   */
+  public final class Span {
+
+    private final SearchPhase phase;
+    private final SearchPhaseEvent event;
+    private final long start;
+
+    private Span(SearchPhase phase) {
+      this.phase = phase;
+      this.event = beginEvent(phase);
+      this.start = System.nanoTime();
+    }
+
+    public void end() {
+      add(phase, System.nanoTime() - start);
+      commitEvent(event);
+    }
+
+  }
+
+}
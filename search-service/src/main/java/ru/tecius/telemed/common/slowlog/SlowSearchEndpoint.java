@@ -0,0 +1,30 @@
+package ru.tecius.telemed.common.slowlog;
+
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Actuator-эндпоинт slowsearches: последние медленные поиски из буфера {@link SlowSearchLog}.
+ */
+@Endpoint(id = "slowsearches")
+public class SlowSearchEndpoint {
+
+  private final SlowSearchLog slowSearchLog;
+
+  public SlowSearchEndpoint(SlowSearchLog slowSearchLog) {
+    this.slowSearchLog = slowSearchLog;
+  }
+
+  @ReadOperation
+  public List<SlowSearchEntry> slowSearches() {
+    return slowSearchLog.getEntries();
+  }
+
+  @DeleteOperation
+  public void clear() {
+    slowSearchLog.clear();
+  }
+
+}
@@ -0,0 +1,26 @@
+package ru.tecius.telemed.common.slowlog;
+
+import java.time.Instant;
+import java.util.List;
+import ru.tecius.telemed.common.observation.SearchEngine;
+import ru.tecius.telemed.common.workload.SearchShape;
+
+/**
+ * Медленный поиск.
+ *
+ * @param sql            текст основного запроса, null - текст недоступен
+ * @param parameterTypes типы параметров основного запроса, значения не сохраняются
+ * @param plan           план основного запроса в формате JSON, null - план не получен
+ * @param planError      причина, по которой план не получен
+ */
+public record SlowSearchEntry(Instant timestamp,
+                              SearchEngine engine,
+                              SearchShape shape,
+                              double elapsedMillis,
+                              boolean failed,
+                              String sql,
+                              List<String> parameterTypes,
+                              String plan,
+                              String planError) {
+
+}
@@ -0,0 +1,174 @@
+package ru.tecius.telemed.common.slowlog;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import lombok.extern.slf4j.Slf4j;
+import ru.tecius.telemed.common.observation.SearchExecution;
+import ru.tecius.telemed.common.observation.SearchObserver;
+
+/**
+ * Журнал медленных поисков: поиски дольше порога попадают в кольцевой буфер последних записей и в
+ * структурированный лог (поля записи - пары ключ-значение события лога). Значения параметров не
+ * сохраняются, только их типы.
+ *
+ * <p>План получает сервис поиска: нативный - EXPLAIN (FORMAT JSON) того же запроса с теми же
+ * параметрами, Criteria API - EXPLAIN (GENERIC_PLAN, FORMAT JSON) текста, перехваченного
+ * StatementInspector. План запрашивается на отдельном соединении в фоновом потоке журнала уже
+ * после возврата ответа, а запись с планом попадает в буфер и лог по его получении. Очередь
+ * запросов плана ограничена: при её переполнении запись сохраняется без плана. Медленные поиски
+ * отбираются с заданной вероятностью, планы запрашиваются не чаще одного за интервал и
+ * отменяются по тайм-ауту. EXPLAIN ANALYZE включается отдельно: он повторно выполняет медленный
+ * запрос и нагружает БД ещё на столько же.
+ */
+@Slf4j
+public class SlowSearchLog implements SearchObserver, AutoCloseable {
+
+  public static final String EXPLAIN_ANALYZE_PREFIX = "EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) ";
+  public static final String EXPLAIN_GENERIC_PREFIX = "EXPLAIN (GENERIC_PLAN, FORMAT JSON) ";
+  public static final double DEFAULT_SAMPLE_RATE = 1.0;
+  public static final Duration DEFAULT_EXPLAIN_INTERVAL = Duration.ofMinutes(1);
+  public static final Duration DEFAULT_EXPLAIN_TIMEOUT = Duration.ofSeconds(5);
+  public static final int EXPLAIN_QUEUE_CAPACITY = 16;
+
+  private final long thresholdNanos;
+  private final double sampleRate;
+  private final long explainIntervalNanos;
+  private final Duration explainTimeout;
+  private final boolean explainAnalyze;
+  private final AtomicReferenceArray<SlowSearchEntry> entries;
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong nextExplainNanos;
+  private final ExecutorService explainExecutor;
+
+  public SlowSearchLog(Duration threshold, int capacity) {
+    this(threshold, capacity, DEFAULT_SAMPLE_RATE, DEFAULT_EXPLAIN_INTERVAL,
+        DEFAULT_EXPLAIN_TIMEOUT, false);
+  }
+
+  /**
+   * @param threshold       время поиска, начиная с которого он считается медленным
+   * @param capacity        количество последних записей в буфере
+   * @param sampleRate      доля записываемых медленных поисков от 0 до 1
+   * @param explainInterval минимальный интервал между запросами плана
+   * @param explainTimeout  тайм-аут запроса плана
+   * @param explainAnalyze  запрашивать план с выполнением запроса (EXPLAIN ANALYZE, BUFFERS)
+   */
+  public SlowSearchLog(Duration threshold, int capacity, double sampleRate,
+      Duration explainInterval, Duration explainTimeout, boolean explainAnalyze) {
+    this.thresholdNanos = threshold.toNanos();
+    this.sampleRate = sampleRate;
+    this.explainIntervalNanos = explainInterval.toNanos();
+    this.explainTimeout = explainTimeout;
+    this.explainAnalyze = explainAnalyze;
+    this.entries = new AtomicReferenceArray<>(capacity);
+    this.nextExplainNanos = new AtomicLong(System.nanoTime());
+    this.explainExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(EXPLAIN_QUEUE_CAPACITY),
+        Thread.ofPlatform().name("slow-search-explain").daemon().factory());
+  }
+
+  @Override
+  public void onSearch(SearchExecution execution) {
+    if (execution.elapsedNanos() < thresholdNanos
+        || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+      return;
+    }
+
+    var timestamp = Instant.now();
+    if (isNull(execution.sql()) || isNull(execution.plan())) {
+      write(timestamp, execution, null, "Текст запроса недоступен");
+      return;
+    }
+    if (!tryAcquireExplain()) {
+      write(timestamp, execution, null, "Превышена частота запросов плана");
+      return;
+    }
+
+    try {
+      explainExecutor.execute(() -> explain(timestamp, execution));
+    } catch (RejectedExecutionException ex) {
+      write(timestamp, execution, null, "Очередь запросов плана переполнена");
+    }
+  }
+
+  /**
+   * Записи буфера, начиная с последней.
+   */
+  public List<SlowSearchEntry> getEntries() {
+    var last = written.get();
+    var count = (int) Math.min(last, entries.length());
+    var result = new ArrayList<SlowSearchEntry>(count);
+    for (var i = 1; i <= count; i++) {
+      var entry = entries.get((int) ((last - i) % entries.length()));
+      if (nonNull(entry)) {
+        result.add(entry);
+      }
+    }
+
+    return result;
+  }
+
+  public void clear() {
+    for (var i = 0; i < entries.length(); i++) {
+      entries.set(i, null);
+    }
+  }
+
+  @Override
+  public void close() {
+    explainExecutor.shutdownNow();
+  }
+
+  private void explain(Instant timestamp, SearchExecution execution) {
+    String plan = null;
+    String planError = null;
+    try {
+      plan = execution.plan().explain(explainAnalyze, explainTimeout);
+    } catch (RuntimeException ex) {
+      planError = ex.getMessage();
+    }
+    write(timestamp, execution, plan, planError);
+  }
+
+  private void write(Instant timestamp, SearchExecution execution, String plan,
+      String planError) {
+    var entry = new SlowSearchEntry(timestamp, execution.engine(), execution.shape(),
+        (double) execution.elapsedNanos() / TimeUnit.MILLISECONDS.toNanos(1),
+        nonNull(execution.failure()), execution.sql(), execution.parameterTypes(), plan,
+        planError);
+    entries.set((int) (written.getAndIncrement() % entries.length()), entry);
+
+    log.atWarn()
+        .addKeyValue("engine", entry.engine())
+        .addKeyValue("entity", entry.shape().entity())
+        .addKeyValue("filters", entry.shape().filters())
+        .addKeyValue("sort", entry.shape().sort())
+        .addKeyValue("elapsedMillis", entry.elapsedMillis())
+        .addKeyValue("failed", entry.failed())
+        .addKeyValue("sql", entry.sql())
+        .addKeyValue("parameterTypes", entry.parameterTypes())
+        .addKeyValue("plan", entry.plan())
+        .addKeyValue("planError", entry.planError())
+        .log("Медленный поиск: {} мс", entry.elapsedMillis());
+  }
+
+  private boolean tryAcquireExplain() {
+    var now = System.nanoTime();
+    var next = nextExplainNanos.get();
+    return now - next >= 0 && nextExplainNanos.compareAndSet(next, now + explainIntervalNanos);
+  }
+
+}
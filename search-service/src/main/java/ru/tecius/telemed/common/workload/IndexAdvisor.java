@@ -0,0 +1,343 @@
+package ru.tecius.telemed.common.workload;
+
+import static java.util.Comparator.comparingDouble;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static ru.tecius.telemed.configuration.common.AttributeType.MULTIPLE;
+import static ru.tecius.telemed.dto.request.Direction.DESC;
+import static ru.tecius.telemed.dto.request.Direction.RELEVANCE;
+import static ru.tecius.telemed.dto.request.Operator.BETWEEN;
+import static ru.tecius.telemed.dto.request.Operator.CONTAIN;
+import static ru.tecius.telemed.dto.request.Operator.END;
+import static ru.tecius.telemed.dto.request.Operator.EQUAL;
+import static ru.tecius.telemed.dto.request.Operator.FULL_TEXT;
+import static ru.tecius.telemed.dto.request.Operator.IBEGIN;
+import static ru.tecius.telemed.dto.request.Operator.ICONTAIN;
+import static ru.tecius.telemed.dto.request.Operator.IN;
+import static ru.tecius.telemed.dto.request.Operator.LESS_OR_EQUAL;
+import static ru.tecius.telemed.dto.request.Operator.MORE_OR_EQUAL;
+import static ru.tecius.telemed.dto.request.Operator.SIMILAR;
+import static ru.tecius.telemed.util.Constants.DATE_CLASSES;
+import static ru.tecius.telemed.util.Constants.DEFAULT_TEXT_SEARCH_CONFIG;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Table;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.springframework.util.ReflectionUtils;
+import ru.tecius.telemed.common.criteria.CriteriaInfoInterface;
+import ru.tecius.telemed.common.nativ.SearchInfoInterface;
+import ru.tecius.telemed.configuration.common.TextSearchData;
+import ru.tecius.telemed.configuration.nativ.NativeSearchAttribute;
+import ru.tecius.telemed.dto.request.Operator;
+import ru.tecius.telemed.util.TextSearchSql;
+
+/**
+ * Предлагает индексы по статистике форм запросов и конфигурации атрибутов сущностей.
+ *
+ * <ul>
+ *   <li>составной B-tree по таблице: колонки равенства, затем сортировки, затем первая колонка
+ *   диапазона; логические фильтры с постоянным значением становятся условием частичного индекса
+ *   (например, WHERE is_active = true);</li>
+ *   <li>BRIN для диапазона по дате без других условий и сортировки по таблице: подходит для
+ *   колонок, порядок значений которых совпадает с порядком вставки (create_date);</li>
+ *   <li>GIN по to_tsvector (или колонке tsvector) для FULL_TEXT и GIN gin_trgm_ops для поиска
+ *   подстроки и сходства;</li>
+ *   <li>B-tree по колонкам связей таблиц, через которые фильтруются атрибуты MULTIPLE.</li>
+ * </ul>
+ *
+ * <p>Экономия оценивается сверху суммарным временем вызовов форм, которым помогает индекс:
+ * индекс, нужный частым и медленным запросам, оказывается выше. Атрибуты Criteria API
+ * учитываются только простые, колонки которых определяются по аннотациям сущности.
+ */
+public class IndexAdvisor {
+
+  private static final int MAX_IDENTIFIER_LENGTH = 63;
+  private static final Set<Operator> EQUALITY_OPERATORS = EnumSet.of(EQUAL, IN);
+  private static final Set<Operator> RANGE_OPERATORS =
+      EnumSet.of(BETWEEN, MORE_OR_EQUAL, LESS_OR_EQUAL);
+  private static final Set<Operator> TRIGRAM_OPERATORS =
+      EnumSet.of(CONTAIN, END, ICONTAIN, IBEGIN, SIMILAR);
+
+  private final Map<String, Map<String, IndexColumn>> entityColumns = new ConcurrentHashMap<>();
+
+  public <E> IndexAdvisor register(Class<E> entityType, SearchInfoInterface<E> searchInfo) {
+    var columns = getColumns(entityType);
+    Stream.concat(searchInfo.getSimpleAttributes().stream(),
+            searchInfo.getMultipleAttributes().stream())
+        .forEach(attr -> columns.put(attr.json().key(), toIndexColumn(searchInfo, attr)));
+    return this;
+  }
+
+  /**
+   * Атрибуты, уже зарегистрированные нативной конфигурацией сущности, не заменяются.
+   */
+  public <E> IndexAdvisor register(CriteriaInfoInterface<E> criteriaInfo) {
+    var entityClass = criteriaInfo.getEntityClass();
+    var columns = getColumns(entityClass);
+    var table = getTableName(entityClass);
+    criteriaInfo.getSimpleAttributes().forEach(attr -> {
+      var textSearch = attr.db().textSearch();
+      columns.putIfAbsent(attr.json().key(), new IndexColumn(table,
+          getColumnName(entityClass, attr.db().column()), attr.db().type(),
+          nonNull(textSearch) ? new TextSearchData(textSearch.config(), null) : null,
+          List.of()));
+    });
+    return this;
+  }
+
+  /**
+   * Предложения индексов по убыванию оценки экономии.
+   */
+  public List<IndexProposal> advise(List<SearchShapeStats> shapes) {
+    var proposals = new LinkedHashMap<String, ProposalTotals>();
+    for (var stats : shapes) {
+      var columns = entityColumns.get(stats.shape().entity());
+      if (isNull(columns)) {
+        continue;
+      }
+
+      // Одна форма учитывается индексом один раз, даже если он нужен нескольким её фильтрам
+      var statements = new LinkedHashSet<String>();
+      for (var candidate : buildCandidates(stats.shape(), columns)) {
+        if (statements.add(candidate.statement())) {
+          proposals.computeIfAbsent(candidate.statement(),
+                  key -> new ProposalTotals(candidate.reason()))
+              .add(stats);
+        }
+      }
+    }
+
+    return proposals.entrySet().stream()
+        .map(entry -> new IndexProposal(entry.getKey(), entry.getValue().reason,
+            entry.getValue().calls, entry.getValue().savedMillis))
+        .sorted(comparingDouble(IndexProposal::estimatedSavedMillis).reversed())
+        .toList();
+  }
+
+  private Map<String, IndexColumn> getColumns(Class<?> entityType) {
+    return entityColumns.computeIfAbsent(entityType.getName(),
+        key -> new ConcurrentHashMap<>());
+  }
+
+  private IndexColumn toIndexColumn(SearchInfoInterface<?> searchInfo,
+      NativeSearchAttribute attr) {
+    var db = attr.db();
+    var schema = searchInfo.getSchemaName();
+    if (!Objects.equals(attr.type(), MULTIPLE)) {
+      return new IndexColumn("%s.%s".formatted(schema, searchInfo.getTablaName()), db.column(),
+          db.type(), db.textSearch(), List.of());
+    }
+
+    var joins = db.joinInfo().stream()
+        .map(join -> new JoinColumn("%s.%s".formatted(schema, join.join().table()),
+            join.join().column()))
+        .toList();
+    return new IndexColumn(joins.getLast().table(), db.column(), db.type(), db.textSearch(),
+        joins);
+  }
+
+  private List<Candidate> buildCandidates(SearchShape shape, Map<String, IndexColumn> columns) {
+    var candidates = new ArrayList<Candidate>();
+    var usages = new LinkedHashMap<String, TableUsage>();
+
+    for (var filter : shape.filters()) {
+      var column = columns.get(filter.attribute());
+      if (isNull(column)) {
+        continue;
+      }
+
+      column.joins().forEach(join -> candidates.add(new Candidate(
+          createIndex(join.table(), "btree", List.of(join.column()), List.of(join.column()),
+              List.of()),
+          "B-tree: связь по %s".formatted(join.column()))));
+
+      var usage = usages.computeIfAbsent(column.table(), key -> new TableUsage());
+      var operator = filter.operator();
+      if (Objects.equals(operator, FULL_TEXT)) {
+        candidates.add(buildTextSearchCandidate(column));
+      } else if (TRIGRAM_OPERATORS.contains(operator)) {
+        candidates.add(new Candidate(createIndex(column.table(), "gin",
+            List.of(column.column() + " gin_trgm_ops"), List.of(column.column(), "trgm"),
+            List.of()), "GIN pg_trgm: поиск подстроки по %s".formatted(column.column())));
+      } else if (Objects.equals(operator, EQUAL) && nonNull(filter.constant())) {
+        usage.predicates.add("%s = %s".formatted(column.column(), filter.constant()));
+      } else if (EQUALITY_OPERATORS.contains(operator)) {
+        usage.equality.add(column.column());
+      } else if (RANGE_OPERATORS.contains(operator)) {
+        usage.ranges.add(column);
+      }
+    }
+
+    for (var sort : shape.sort()) {
+      var column = columns.get(sort.attribute());
+      if (nonNull(column) && !Objects.equals(sort.direction(), RELEVANCE)) {
+        usages.computeIfAbsent(column.table(), key -> new TableUsage()).sort
+            .add(Objects.equals(sort.direction(), DESC)
+                ? column.column() + " DESC"
+                : column.column());
+      }
+    }
+
+    usages.forEach((table, usage) -> buildTableCandidate(table, usage)
+        .ifPresent(candidates::add));
+    return candidates;
+  }
+
+  private Optional<Candidate> buildTableCandidate(String table, TableUsage usage) {
+    var predicates = List.copyOf(usage.predicates);
+    if (usage.equality.isEmpty() && usage.sort.isEmpty() && Objects.equals(usage.ranges.size(), 1)
+        && DATE_CLASSES.contains(usage.ranges.getFirst().type())) {
+      var column = usage.ranges.getFirst().column();
+      return Optional.of(new Candidate(
+          createIndex(table, "brin", List.of(column), List.of(column, "brin"), predicates),
+          "BRIN: диапазон по дате %s".formatted(column)));
+    }
+
+    var keys = new ArrayList<String>(usage.equality);
+    usage.sort.stream()
+        .filter(key -> !keys.contains(key))
+        .forEach(keys::add);
+    if (!usage.ranges.isEmpty()) {
+      var range = usage.ranges.getFirst().column();
+      if (!keys.contains(range)) {
+        keys.add(range);
+      }
+    }
+
+    if (keys.isEmpty()) {
+      return Optional.empty();
+    }
+
+    var reason = new StringBuilder("B-tree: ");
+    appendReason(reason, "равенство", usage.equality);
+    appendReason(reason, "сортировка", usage.sort);
+    appendReason(reason, "диапазон", usage.ranges.isEmpty()
+        ? List.of()
+        : List.of(usage.ranges.getFirst().column()));
+    appendReason(reason, "частичный", predicates);
+
+    var nameParts = keys.stream()
+        .map(key -> key.replace(" DESC", "_desc"))
+        .toList();
+    return Optional.of(new Candidate(
+        createIndex(table, "btree", keys, nameParts, predicates), reason.toString()));
+  }
+
+  private Candidate buildTextSearchCandidate(IndexColumn column) {
+    var textSearch = column.textSearch();
+    if (nonNull(textSearch) && nonNull(textSearch.vectorColumn())) {
+      return new Candidate(createIndex(column.table(), "gin",
+          List.of(textSearch.vectorColumn()), List.of(textSearch.vectorColumn()), List.of()),
+          "GIN: полнотекстовый поиск по %s".formatted(textSearch.vectorColumn()));
+    }
+
+    var config = nonNull(textSearch) ? textSearch.config() : DEFAULT_TEXT_SEARCH_CONFIG;
+    return new Candidate(createIndex(column.table(), "gin",
+        List.of(TextSearchSql.buildDocumentVector(column.column(), config)),
+        List.of(column.column(), "fts"), List.of()),
+        "GIN: полнотекстовый поиск по %s".formatted(column.column()));
+  }
+
+  private void appendReason(StringBuilder reason, String title, Iterable<String> columns) {
+    var joined = String.join(", ", columns);
+    if (!joined.isEmpty()) {
+      if (reason.charAt(reason.length() - 1) != ' ') {
+        reason.append("; ");
+      }
+
+      reason.append(title).append(" (").append(joined).append(")");
+    }
+  }
+
+  private String createIndex(String table, String method, List<String> keys,
+      List<String> nameParts, List<String> predicates) {
+    var tableName = table.substring(table.lastIndexOf('.') + 1);
+    var name = ("idx_" + tableName + "_" + String.join("_", nameParts))
+        .toLowerCase()
+        .replaceAll("[^a-z0-9_]", "_");
+    if (name.length() > MAX_IDENTIFIER_LENGTH) {
+      name = name.substring(0, MAX_IDENTIFIER_LENGTH);
+    }
+
+    var statement = "CREATE INDEX CONCURRENTLY IF NOT EXISTS %s ON %s USING %s (%s)"
+        .formatted(name, table, method, String.join(", ", keys));
+    return predicates.isEmpty()
+        ? statement
+        : statement + " WHERE " + String.join(" AND ", predicates);
+  }
+
+  private String getTableName(Class<?> entityClass) {
+    var table = entityClass.getAnnotation(Table.class);
+    var tableName = nonNull(table) && !isBlank(table.name())
+        ? table.name()
+        : toSnakeCase(entityClass.getSimpleName());
+    return nonNull(table) && !isBlank(table.schema())
+        ? "%s.%s".formatted(table.schema(), tableName)
+        : tableName;
+  }
+
+  private String getColumnName(Class<?> entityClass, String property) {
+    var field = ReflectionUtils.findField(entityClass, property);
+    var column = nonNull(field) ? field.getAnnotation(Column.class) : null;
+    return nonNull(column) && !isBlank(column.name()) ? column.name() : toSnakeCase(property);
+  }
+
+  // Имена по умолчанию, как у CamelCaseToUnderscoresNamingStrategy Spring Boot
+  private String toSnakeCase(String name) {
+    return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase();
+  }
+
+  private record IndexColumn(String table,
+                             String column,
+                             Class<?> type,
+                             TextSearchData textSearch,
+                             List<JoinColumn> joins) {
+
+  }
+
+  private record JoinColumn(String table, String column) {
+
+  }
+
+  private record Candidate(String statement, String reason) {
+
+  }
+
+  private static final class TableUsage {
+
+    private final Set<String> equality = new LinkedHashSet<>();
+    private final List<IndexColumn> ranges = new ArrayList<>();
+    private final List<String> sort = new ArrayList<>();
+    private final Set<String> predicates = new LinkedHashSet<>();
+
+  }
+
+  private static final class ProposalTotals {
+
+    private final String reason;
+    private long calls;
+    private double savedMillis;
+
+    private ProposalTotals(String reason) {
+      this.reason = reason;
+    }
+
+    private void add(SearchShapeStats stats) {
+      calls += stats.calls();
+      savedMillis += stats.totalMillis();
+    }
+
+  }
+
+}
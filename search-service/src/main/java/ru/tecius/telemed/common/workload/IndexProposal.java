@@ -0,0 +1,16 @@
+package ru.tecius.telemed.common.workload;
+
+/**
+ * Предложение индекса.
+ *
+ * @param statement           команда создания индекса
+ * @param reason              условия, которые покрывает индекс
+ * @param calls               количество вызовов форм запросов, которым помогает индекс
+ * @param estimatedSavedMillis оценка экономии времени этих вызовов
+ */
+public record IndexProposal(String statement,
+                            String reason,
+                            long calls,
+                            double estimatedSavedMillis) {
+
+}
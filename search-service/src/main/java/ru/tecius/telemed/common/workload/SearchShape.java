@@ -0,0 +1,80 @@
+package ru.tecius.telemed.common.workload;
+
+import static java.util.Comparator.comparing;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.stream.Collectors.joining;
+import static org.apache.commons.collections4.CollectionUtils.size;
+import static ru.tecius.telemed.dto.request.Operator.EQUAL;
+
+import java.util.List;
+import java.util.Objects;
+import ru.tecius.telemed.dto.request.Operator;
+import ru.tecius.telemed.dto.request.SearchDataDto;
+import ru.tecius.telemed.dto.request.SearchRequestDto;
+import ru.tecius.telemed.dto.request.SortDto;
+
+/**
+ * Форма вызова поиска для статистики нагрузки: атрибуты и операторы фильтров и сортировка без
+ * значений. Фильтры объединяются через AND, поэтому упорядочиваются и не зависят от порядка в
+ * запросе.
+ */
+public record SearchShape(String entity,
+                          List<FilterShape> filters,
+                          List<SortDto> sort) {
+
+  public static SearchShape of(Class<?> entityType, SearchRequestDto request) {
+    return of(entityType.getName(), request.searchData(), request.sort());
+  }
+
+  public static SearchShape of(String entity, List<SearchDataDto> searchData,
+      List<SortDto> sort) {
+    var filters = isNull(searchData)
+        ? List.<FilterShape>of()
+        : searchData.stream()
+            .map(FilterShape::of)
+            .sorted(comparing(FilterShape::toString))
+            .toList();
+    return new SearchShape(entity, filters, isNull(sort) ? List.of() : List.copyOf(sort));
+  }
+
+  /**
+   * Хеш фильтров и сортировки формы, одинаковый в разных запусках JVM, для событий JFR. Хеш
+   * записи для этого не подходит: он включает хеши перечислений, зависящие от адреса объекта.
+   */
+  public int stableHash() {
+    var filterPart = filters.stream()
+        .map(filter -> nonNull(filter.constant())
+            ? "%s:%s:%s".formatted(filter.attribute(), filter.operator(), filter.constant())
+            : "%s:%s".formatted(filter.attribute(), filter.operator()))
+        .collect(joining(","));
+    var sortPart = sort.stream()
+        .map(order -> "%s:%s".formatted(order.attribute(), order.direction()))
+        .collect(joining(","));
+    return (filterPart + "|" + sortPart).hashCode();
+  }
+
+  /**
+   * @param constant значение логического фильтра EQUAL (true/false). Только такое значение
+   *                 входит в форму: оно определяет условие частичного индекса
+   */
+  public record FilterShape(String attribute,
+                            Operator operator,
+                            String constant) {
+
+    static FilterShape of(SearchDataDto data) {
+      String constant = null;
+      if (Objects.equals(data.operator(), EQUAL) && Objects.equals(size(data.value()), 1)) {
+        var value = data.value().getFirst();
+        if (Boolean.TRUE.toString().equalsIgnoreCase(value)
+            || Boolean.FALSE.toString().equalsIgnoreCase(value)) {
+          constant = value.toLowerCase();
+        }
+      }
+
+      return new FilterShape(data.attribute(), data.operator(), constant);
+    }
+
+  }
+
+}
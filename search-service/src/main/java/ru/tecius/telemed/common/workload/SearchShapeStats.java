@@ -0,0 +1,9 @@
+package ru.tecius.telemed.common.workload;
+
+public record SearchShapeStats(SearchShape shape,
+                               long calls,
+                               double totalMillis,
+                               double meanMillis,
+                               double maxMillis) {
+
+}
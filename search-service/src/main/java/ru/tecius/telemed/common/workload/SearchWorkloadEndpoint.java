@@ -0,0 +1,34 @@
+package ru.tecius.telemed.common.workload;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Actuator-эндпоинт searchworkload: статистика форм запросов поиска и предложения индексов.
+ * Регистрируется бином приложения и включается в management.endpoints.web.exposure.include.
+ */
+@Endpoint(id = "searchworkload")
+public class SearchWorkloadEndpoint {
+
+  private final SearchWorkloadRecorder recorder;
+  private final IndexAdvisor indexAdvisor;
+
+  public SearchWorkloadEndpoint(SearchWorkloadRecorder recorder, IndexAdvisor indexAdvisor) {
+    this.recorder = recorder;
+    this.indexAdvisor = indexAdvisor;
+  }
+
+  @ReadOperation
+  public SearchWorkloadReport workload() {
+    var shapes = recorder.getShapes();
+    return new SearchWorkloadReport(shapes, recorder.getDroppedCalls(),
+        indexAdvisor.advise(shapes));
+  }
+
+  @DeleteOperation
+  public void reset() {
+    recorder.reset();
+  }
+
+}
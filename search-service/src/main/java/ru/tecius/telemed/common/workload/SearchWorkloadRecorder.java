@@ -0,0 +1,106 @@
+package ru.tecius.telemed.common.workload;
+
+import static java.util.Comparator.comparingDouble;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import ru.tecius.telemed.common.observation.SearchExecution;
+import ru.tecius.telemed.common.observation.SearchObserver;
+
+/**
+ * Статистика нагрузки поиска по формам запросов: количество вызовов, суммарное и максимальное
+ * время. Регистрируется наблюдателем сервисов поиска (нативных и Criteria) вместе с журналом
+ * медленных запросов и метриками, поэтому учитывает каждый поиск, в том числе завершившийся
+ * ошибкой. Сущность формы - имя класса сущности для всех движков.
+ *
+ * <p>Счётчики - LongAdder и LongAccumulator: запись не блокируется и распределяется по ячейкам,
+ * поэтому потоки, выполняющие одну форму, не конкурируют за одну переменную. Количество форм
+ * ограничено, вызовы новых форм сверх предела только подсчитываются.
+ */
+public class SearchWorkloadRecorder implements SearchObserver {
+
+  public static final int DEFAULT_MAX_SHAPES = 1000;
+
+  private final int maxShapes;
+  private final Map<SearchShape, ShapeCounters> shapes = new ConcurrentHashMap<>();
+  private final LongAdder droppedCalls = new LongAdder();
+
+  public SearchWorkloadRecorder() {
+    this(DEFAULT_MAX_SHAPES);
+  }
+
+  /**
+   * @param maxShapes предельное количество форм запросов
+   */
+  public SearchWorkloadRecorder(int maxShapes) {
+    this.maxShapes = maxShapes;
+  }
+
+  @Override
+  public void onSearch(SearchExecution execution) {
+    record(execution.shape(), execution.elapsedNanos());
+  }
+
+  public void record(SearchShape shape, long elapsedNanos) {
+    var counters = shapes.get(shape);
+    if (counters == null) {
+      if (shapes.size() >= maxShapes) {
+        droppedCalls.increment();
+        return;
+      }
+
+      counters = shapes.computeIfAbsent(shape, key -> new ShapeCounters());
+    }
+
+    counters.calls.increment();
+    counters.totalNanos.add(elapsedNanos);
+    counters.maxNanos.accumulate(elapsedNanos);
+  }
+
+  /**
+   * Формы запросов по убыванию суммарного времени.
+   */
+  public List<SearchShapeStats> getShapes() {
+    return shapes.entrySet().stream()
+        .map(entry -> entry.getValue().snapshot(entry.getKey()))
+        .filter(stats -> stats.calls() > 0)
+        .sorted(comparingDouble(SearchShapeStats::totalMillis).reversed())
+        .toList();
+  }
+
+  /**
+   * Вызовы, не учтённые из-за предела количества форм.
+   */
+  public long getDroppedCalls() {
+    return droppedCalls.sum();
+  }
+
+  public void reset() {
+    shapes.clear();
+    droppedCalls.reset();
+  }
+
+  private static final class ShapeCounters {
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+
+    private SearchShapeStats snapshot(SearchShape shape) {
+      var count = calls.sum();
+      var totalMillis = toMillis(totalNanos.sum());
+      return new SearchShapeStats(shape, count, totalMillis,
+          count > 0 ? totalMillis / count : 0.0, toMillis(maxNanos.get()));
+    }
+
+    private static double toMillis(long nanos) {
+      return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+  }
+
+}
@@ -0,0 +1,9 @@
+package ru.tecius.telemed.common.workload;
+
+import java.util.List;
+
+public record SearchWorkloadReport(List<SearchShapeStats> shapes,
+                                   long droppedCalls,
+                                   List<IndexProposal> proposals) {
+
+}
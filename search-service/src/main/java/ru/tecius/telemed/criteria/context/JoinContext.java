@@ -33,5 +33,9 @@ public class JoinContext {
     return !collectionJoins.isEmpty();
   }
 
+  public int getJoinCount() {
+    return joins.size();
+  }
+
 
 }
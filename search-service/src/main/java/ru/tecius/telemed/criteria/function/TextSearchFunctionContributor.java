@@ -0,0 +1,40 @@
+package ru.tecius.telemed.criteria.function;
+
+import static ru.tecius.telemed.util.Constants.TEXT_SEARCH_CONFIGS;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+import ru.tecius.telemed.util.TextSearchSql;
+
+/**
+ * Регистрирует функции полнотекстового поиска для Criteria API. Конфигурация текстового поиска
+ * входит в шаблон функции константой, поэтому на каждую конфигурацию регистрируется своя пара
+ * функций: fts_match_&lt;config&gt;(column, query) и fts_rank_&lt;config&gt;(column, query).
+ */
+public class TextSearchFunctionContributor implements FunctionContributor {
+
+  @Override
+  public void contributeFunctions(FunctionContributions functionContributions) {
+    var functionRegistry = functionContributions.getFunctionRegistry();
+    var typeRegistry = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+    for (var config : TEXT_SEARCH_CONFIGS) {
+      var vector = TextSearchSql.buildDocumentVector("?1", config);
+      var query = TextSearchSql.buildQuery("?2", config);
+
+      functionRegistry.patternDescriptorBuilder(TextSearchSql.getMatchFunctionName(config),
+              "%s @@ %s".formatted(vector, query))
+          .setInvariantType(typeRegistry.resolve(StandardBasicTypes.BOOLEAN))
+          .setExactArgumentCount(2)
+          .register();
+
+      functionRegistry.patternDescriptorBuilder(TextSearchSql.getRankFunctionName(config),
+              "ts_rank(%s, %s)".formatted(vector, query))
+          .setInvariantType(typeRegistry.resolve(StandardBasicTypes.FLOAT))
+          .setExactArgumentCount(2)
+          .register();
+    }
+  }
+
+}
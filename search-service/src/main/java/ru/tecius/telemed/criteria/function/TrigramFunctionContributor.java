@@ -0,0 +1,32 @@
+package ru.tecius.telemed.criteria.function;
+
+import static ru.tecius.telemed.util.TrigramSql.SIMILARITY_FUNCTION_NAME;
+import static ru.tecius.telemed.util.TrigramSql.SIMILAR_FUNCTION_NAME;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Регистрирует для Criteria API функции расширения pg_trgm: trgm_similar(column, value) - оператор
+ * %, использующий GIN-индекс gin_trgm_ops, и trgm_similarity(column, value) - функцию similarity.
+ */
+public class TrigramFunctionContributor implements FunctionContributor {
+
+  @Override
+  public void contributeFunctions(FunctionContributions functionContributions) {
+    var functionRegistry = functionContributions.getFunctionRegistry();
+    var typeRegistry = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+    functionRegistry.patternDescriptorBuilder(SIMILAR_FUNCTION_NAME, "?1 % ?2")
+        .setInvariantType(typeRegistry.resolve(StandardBasicTypes.BOOLEAN))
+        .setExactArgumentCount(2)
+        .register();
+
+    functionRegistry.patternDescriptorBuilder(SIMILARITY_FUNCTION_NAME, "similarity(?1, ?2)")
+        .setInvariantType(typeRegistry.resolve(StandardBasicTypes.FLOAT))
+        .setExactArgumentCount(2)
+        .register();
+  }
+
+}
@@ -0,0 +1,112 @@
+package ru.tecius.telemed.criteria.inspector;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Запоминает текст первого SQL-запроса, выполненного в текущем потоке между {@link #begin()} и
+ * {@link #end()}. Подключается свойством hibernate.session_factory.statement_inspector. Текст
+ * запроса изменяется только внутри {@link #withPrefix(String, Supplier)}.
+ */
+public class SearchSqlInspector implements StatementInspector {
+
+  private static final ThreadLocal<AtomicReference<String>> CAPTURED = new ThreadLocal<>();
+  private static final ThreadLocal<String> PREFIX = new ThreadLocal<>();
+
+  @Override
+  public String inspect(String sql) {
+    var prefix = PREFIX.get();
+    if (nonNull(prefix)) {
+      PREFIX.remove();
+      return prefix + sql;
+    }
+
+    var captured = CAPTURED.get();
+    if (nonNull(captured)) {
+      captured.compareAndSet(null, sql);
+    }
+
+    return sql;
+  }
+
+  /**
+   * Подключён ли инспектор к фабрике EntityManager.
+   */
+  public static boolean isInstalled(EntityManagerFactory entityManagerFactory) {
+    return entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+        .getSessionFactoryOptions()
+        .getStatementInspector() instanceof SearchSqlInspector;
+  }
+
+  /**
+   * Выполняет действие, добавляя prefix к тексту первого запроса действия в текущем потоке.
+   * Используется для EXPLAIN Criteria-запроса с его параметрами: Hibernate связывает значения
+   * как обычно, а результат EXPLAIN читает как единственную колонку выборки. Работает, только
+   * если инспектор подключён.
+   */
+  public static <T> T withPrefix(String prefix, Supplier<T> action) {
+    PREFIX.set(prefix);
+    try {
+      return action.get();
+    } finally {
+      PREFIX.remove();
+    }
+  }
+
+  public static void begin() {
+    CAPTURED.set(new AtomicReference<>());
+  }
+
+  /**
+   * Текст первого запроса после {@link #begin()} без завершения перехвата.
+   */
+  public static String current() {
+    var captured = CAPTURED.get();
+    return isNull(captured) ? null : captured.get();
+  }
+
+  /**
+   * @return текст первого запроса после {@link #begin()}, null - запрос не выполнялся или
+   *     инспектор не подключён
+   */
+  public static String end() {
+    var captured = CAPTURED.get();
+    CAPTURED.remove();
+    return isNull(captured) ? null : captured.get();
+  }
+
+  /**
+   * Заменяет позиционные параметры JDBC "?" вне строковых литералов и идентификаторов в кавычках
+   * на нумерованные параметры PostgreSQL "$n", которые принимает EXPLAIN (GENERIC_PLAN).
+   */
+  public static String toNumberedParameters(String sql) {
+    var result = new StringBuilder(sql.length() + 16);
+    var number = 0;
+    char quote = 0;
+    for (var i = 0; i < sql.length(); i++) {
+      var ch = sql.charAt(i);
+      if (quote != 0) {
+        if (ch == quote) {
+          quote = 0;
+        }
+        result.append(ch);
+      } else if (ch == '\'' || ch == '"') {
+        quote = ch;
+        result.append(ch);
+      } else if (ch == '?') {
+        result.append('$').append(++number);
+      } else {
+        result.append(ch);
+      }
+    }
+
+    return result.toString();
+  }
+
+}
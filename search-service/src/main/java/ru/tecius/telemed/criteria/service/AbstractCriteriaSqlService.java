@@ -1,18 +1,34 @@
 package ru.tecius.telemed.criteria.service;
 
+import static java.util.Comparator.comparing;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static org.apache.commons.collections4.CollectionUtils.emptyIfNull;
+import static org.apache.commons.collections4.CollectionUtils.isEmpty;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.hibernate.jpa.SpecHints.HINT_SPEC_FETCH_GRAPH;
+import static ru.tecius.telemed.common.count.PlanEstimates.EXPLAIN_JSON_PREFIX;
+import static ru.tecius.telemed.common.observation.SearchPhase.BUILD;
+import static ru.tecius.telemed.common.observation.SearchPhase.CONTENT;
+import static ru.tecius.telemed.common.slowlog.SlowSearchLog.EXPLAIN_GENERIC_PREFIX;
 import static ru.tecius.telemed.configuration.common.AttributeType.SIMPLE;
+import static ru.tecius.telemed.dto.request.Direction.ASC;
 import static ru.tecius.telemed.dto.request.Direction.DESC;
+import static ru.tecius.telemed.dto.request.Direction.RELEVANCE;
+import static ru.tecius.telemed.dto.request.Operator.FULL_TEXT;
+import static ru.tecius.telemed.dto.request.Operator.IN;
+import static ru.tecius.telemed.util.Constants.DATE_CLASSES;
+import static ru.tecius.telemed.util.Constants.DEFAULT_TEXT_SEARCH_CONFIG;
+import static ru.tecius.telemed.util.Constants.TEXT_SEARCH_CONFIGS;
 
 import jakarta.persistence.EntityGraph;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.Subgraph;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.FetchParent;
 import jakarta.persistence.criteria.From;
 import jakarta.persistence.criteria.Join;
@@ -21,41 +37,170 @@ import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import java.lang.reflect.Array;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.NullValueInNestedPathException;
+import org.springframework.beans.PropertyAccessorFactory;
+import ru.tecius.telemed.common.count.CountQueryExecutor;
+import ru.tecius.telemed.common.count.CountResult;
+import ru.tecius.telemed.common.count.CountStrategy;
+import ru.tecius.telemed.common.count.PlanEstimates;
+import ru.tecius.telemed.common.count.QueryTimeouts;
 import ru.tecius.telemed.common.criteria.CriteriaInfoInterface;
 import ru.tecius.telemed.common.criteria.HintName;
 import ru.tecius.telemed.common.criteria.PathWithValue;
+import ru.tecius.telemed.common.jfr.EntityGraphApplyEvent;
+import ru.tecius.telemed.common.keyset.KeysetCursorCodec;
+import ru.tecius.telemed.common.observation.SearchEngine;
+import ru.tecius.telemed.common.observation.SearchExecution;
+import ru.tecius.telemed.common.observation.SearchObserver;
+import ru.tecius.telemed.common.observation.SearchPlan;
+import ru.tecius.telemed.common.observation.SearchTrace;
+import ru.tecius.telemed.common.workload.SearchShape;
 import ru.tecius.telemed.configuration.criteria.CriteriaSearchAttribute;
 import ru.tecius.telemed.configuration.criteria.JoinInfo;
 import ru.tecius.telemed.criteria.context.JoinContext;
+import ru.tecius.telemed.criteria.inspector.SearchSqlInspector;
+import ru.tecius.telemed.dto.request.Direction;
 import ru.tecius.telemed.dto.request.Operator;
 import ru.tecius.telemed.dto.request.PaginationDto;
 import ru.tecius.telemed.dto.request.SearchDataDto;
 import ru.tecius.telemed.dto.request.SortDto;
+import ru.tecius.telemed.dto.response.SearchResponseDto;
 import ru.tecius.telemed.exception.ValidationException;
+import ru.tecius.telemed.nativ.service.JpaNativeStatementExecutor;
+import ru.tecius.telemed.util.TextSearchSql;
+import ru.tecius.telemed.util.criteria.CriteriaValueConverter;
 
 public abstract class AbstractCriteriaSqlService<E> {
 
+  /**
+   * Уникальный атрибут сущности, завершающий порядок keyset-пагинации. Должен быть NOT NULL и иметь
+   * тип Long.
+   */
+  private static final String KEYSET_TIEBREAKER_ATTRIBUTE = "id";
+  // Типы, значения которых CriteriaValueConverter приводит к типу атрибута
+  private static final Set<Class<?>> ARRAY_BOUND_TYPES =
+      Set.of(Long.class, Integer.class, Double.class, Float.class);
+
   protected final EntityManager entityManager;
   private final CriteriaInfoInterface<E> criteriaInfoInterface;
   private final Long defaultPageSize;
+  private final int inArrayThreshold;
+  private final SearchObserver observer;
 
   protected AbstractCriteriaSqlService(
       EntityManager entityManager,
       CriteriaInfoInterface<E> criteriaInfoInterface,
       Long defaultPageSize
+  ) {
+    this(entityManager, criteriaInfoInterface, defaultPageSize, CriteriaSearchOptions.defaults());
+  }
+
+  protected AbstractCriteriaSqlService(
+      EntityManager entityManager,
+      CriteriaInfoInterface<E> criteriaInfoInterface,
+      Long defaultPageSize,
+      CriteriaSearchOptions options
   ) {
     this.entityManager = entityManager;
     this.criteriaInfoInterface = criteriaInfoInterface;
     this.defaultPageSize = defaultPageSize;
+    this.inArrayThreshold = options.inArrayThreshold();
+    this.observer = options.observer();
+  }
+
+  /**
+   * Передаёт поиск наблюдателю. Значения параметров Hibernate не раскрывает, поэтому план -
+   * EXPLAIN (GENERIC_PLAN) текста запроса без выполнения, требующий PostgreSQL 16 и выше;
+   * ANALYZE для него недоступен.
+   *
+   * @param sql текст основного запроса, null - текст не перехвачен
+   */
+  protected void observe(SearchShape shape, String sql, SearchTrace trace, long elapsedNanos,
+      Throwable failure) {
+    // План может запрашиваться в другом потоке, где EntityManager вызывающего кода недоступен
+    var planExecutor = new JpaNativeStatementExecutor(entityManager.getEntityManagerFactory());
+    SearchPlan plan = isNull(sql)
+        ? null
+        : (analyze, timeout) -> planExecutor.queryForStringIsolated(
+            EXPLAIN_GENERIC_PREFIX + SearchSqlInspector.toNumberedParameters(sql), List.of(),
+            timeout);
+    observer.onSearch(new SearchExecution(SearchEngine.CRITERIA, shape, sql, List.of(),
+        elapsedNanos, trace.getPhaseNanos(), trace.getRows(), trace.getJoins(), failure, plan));
   }
 
   protected Long executeCountQuery(CriteriaBuilder cb, List<SearchDataDto> searchData) {
+    return createCountQuery(entityManager, cb, searchData).getSingleResult();
+  }
+
+  protected CountQueryExecutor createCountQueryExecutor(CriteriaBuilder cb,
+      List<SearchDataDto> searchData) {
+    return createCountQueryExecutor(entityManager, cb, searchData);
+  }
+
+  /**
+   * Выполняет подсчёт в собственном EntityManager. EntityManager не потокобезопасен, поэтому
+   * подсчёт, выполняемый одновременно с основным запросом, не может использовать общий.
+   */
+  protected CountResult countInSeparateEntityManager(List<SearchDataDto> searchData,
+      CountStrategy countStrategy) {
+    var em = entityManager.getEntityManagerFactory().createEntityManager();
+    try {
+      return countStrategy.count(
+          createCountQueryExecutor(em, em.getCriteriaBuilder(), searchData));
+    } finally {
+      em.close();
+    }
+  }
+
+  private CountQueryExecutor createCountQueryExecutor(EntityManager em, CriteriaBuilder cb,
+      List<SearchDataDto> searchData) {
+    return new CountQueryExecutor() {
+
+      @Override
+      public long exactCount() {
+        return createCountQuery(em, cb, searchData).getSingleResult();
+      }
+
+      @Override
+      public Optional<Long> exactCount(Duration timeout) {
+        return QueryTimeouts.countWithTimeout(em, createCountQuery(em, cb, searchData), timeout);
+      }
+
+      @Override
+      public long cappedCount(long limit) {
+        return executeCappedCountQuery(em, cb, searchData, limit);
+      }
+
+      @Override
+      public Optional<Long> estimatedCount() {
+        return executeEstimatedCountQuery(em, cb, searchData);
+      }
+
+      @Override
+      public Object filterKey() {
+        // Условия объединяются через AND, поэтому их порядок не влияет на количество
+        var filters = isNull(searchData)
+            ? List.<SearchDataDto>of()
+            : searchData.stream()
+                .sorted(comparing(SearchDataDto::toString))
+                .toList();
+        return List.of(criteriaInfoInterface.getEntityClass(), filters);
+      }
+    };
+  }
+
+  private TypedQuery<Long> createCountQuery(EntityManager em, CriteriaBuilder cb,
+      List<SearchDataDto> searchData) {
     var criteriaQuery = cb.createQuery(Long.class);
     var root = criteriaQuery.from(criteriaInfoInterface.getEntityClass());
     var joinContext = new JoinContext();
@@ -71,7 +216,61 @@ public abstract class AbstractCriteriaSqlService<E> {
       criteriaQuery.where(predicates.toArray(new Predicate[0]));
     }
 
-    return entityManager.createQuery(criteriaQuery).getSingleResult();
+    return em.createQuery(criteriaQuery);
+  }
+
+  private long executeCappedCountQuery(EntityManager em, CriteriaBuilder cb,
+      List<SearchDataDto> searchData, long limit) {
+    // Criteria API не поддерживает подзапрос во FROM, поэтому выбираем не больше limit
+    // идентификаторов и считаем их на стороне приложения
+    var criteriaQuery = cb.createQuery(Object.class);
+    var root = criteriaQuery.from(criteriaInfoInterface.getEntityClass());
+    var joinContext = new JoinContext();
+
+    addJoinsForSearch(root, searchData, joinContext);
+
+    criteriaQuery.distinct(joinContext.hasCollectionJoins());
+    criteriaQuery.select(root.get(KEYSET_TIEBREAKER_ATTRIBUTE));
+
+    var predicates = buildPredicates(cb, root, searchData, joinContext);
+    if (!predicates.isEmpty()) {
+      criteriaQuery.where(predicates.toArray(new Predicate[0]));
+    }
+
+    return em.createQuery(criteriaQuery)
+        .setMaxResults(Math.toIntExact(limit))
+        .getResultList()
+        .size();
+  }
+
+  private Optional<Long> executeEstimatedCountQuery(EntityManager em, CriteriaBuilder cb,
+      List<SearchDataDto> searchData) {
+    // Оценка - "Plan Rows" EXPLAIN запроса с теми же джойнами и условиями, что и у подсчёта.
+    // Текст Criteria-запроса строит Hibernate, поэтому EXPLAIN добавляет инспектор, а запрос
+    // выбирает одну строковую колонку, в которую попадает план. Без инспектора оценки с учётом
+    // условий нет
+    if (!SearchSqlInspector.isInstalled(em.getEntityManagerFactory())) {
+      return Optional.empty();
+    }
+
+    var criteriaQuery = cb.createQuery(String.class);
+    var root = criteriaQuery.from(criteriaInfoInterface.getEntityClass());
+    var joinContext = new JoinContext();
+
+    addJoinsForSearch(root, searchData, joinContext);
+
+    criteriaQuery.select(cb.literal(EMPTY));
+
+    var predicates = buildPredicates(cb, root, searchData, joinContext);
+    if (!predicates.isEmpty()) {
+      criteriaQuery.where(predicates.toArray(new Predicate[0]));
+    }
+
+    var plan = SearchSqlInspector.withPrefix(EXPLAIN_JSON_PREFIX,
+        () -> em.createQuery(criteriaQuery).getResultList());
+    return plan.isEmpty()
+        ? Optional.empty()
+        : Optional.of(Math.max(0L, PlanEstimates.parsePlanRows(plan.getFirst())));
   }
 
   protected List<E> executeSearchQuery(
@@ -82,6 +281,53 @@ public abstract class AbstractCriteriaSqlService<E> {
       HintName hintName,
       Set<String> entityGraphs
   ) {
+    return executeSearchQuery(cb, searchData, sort, pagination, hintName, entityGraphs,
+        new SearchTrace());
+  }
+
+  /**
+   * @param trace измерения поиска: построение запроса (вместе с проверкой атрибутов и значений,
+   *              которые Criteria API выполняет при построении предикатов), выполнение запроса с
+   *              загрузкой сущностей, количество строк и джойнов
+   */
+  protected List<E> executeSearchQuery(
+      CriteriaBuilder cb,
+      List<SearchDataDto> searchData,
+      LinkedList<SortDto> sort,
+      PaginationDto pagination,
+      HintName hintName,
+      Set<String> entityGraphs,
+      SearchTrace trace
+  ) {
+    var query = createSearchQuery(cb, searchData, sort, pagination, hintName, entityGraphs,
+        trace);
+
+    var contentSpan = trace.start(CONTENT);
+    var content = query.getResultList();
+    trace.setRows(content.size());
+    var sql = SearchSqlInspector.current();
+    if (nonNull(sql)) {
+      trace.setSqlLength(sql.length());
+    }
+
+    contentSpan.end();
+    return content;
+  }
+
+  /**
+   * Построение запроса поиска без его выполнения: джойны, условия, сортировка, entity graph и
+   * пагинация. Время построения записывается в фазу BUILD.
+   */
+  protected TypedQuery<E> createSearchQuery(
+      CriteriaBuilder cb,
+      List<SearchDataDto> searchData,
+      LinkedList<SortDto> sort,
+      PaginationDto pagination,
+      HintName hintName,
+      Set<String> entityGraphs,
+      SearchTrace trace
+  ) {
+    var buildSpan = trace.start(BUILD);
     var criteriaQuery = cb.createQuery(criteriaInfoInterface.getEntityClass());
     var root = criteriaQuery.from(criteriaInfoInterface.getEntityClass());
     var joinContext = new JoinContext();
@@ -98,13 +344,19 @@ public abstract class AbstractCriteriaSqlService<E> {
 
     // Добавляем условия поиска
     var predicates = buildPredicates(cb, root, searchData, joinContext);
+    if (isKeyset(pagination) && nonNull(pagination.cursor())) {
+      predicates.add(buildSeekPredicate(cb, root, sort, pagination.cursor(), joinContext));
+    }
+
     if (!predicates.isEmpty()) {
       criteriaQuery.where(predicates.toArray(new Predicate[0]));
     }
 
     // Добавляем сортировку
-    if (isNotEmpty(sort)) {
-      var orders = buildOrders(cb, root, sort, joinContext);
+    if (isKeyset(pagination)) {
+      criteriaQuery.orderBy(buildKeysetOrders(cb, root, sort, joinContext));
+    } else if (isNotEmpty(sort)) {
+      var orders = buildOrders(cb, root, searchData, sort, joinContext);
       if (!orders.isEmpty()) {
         criteriaQuery.orderBy(orders);
       }
@@ -114,17 +366,47 @@ public abstract class AbstractCriteriaSqlService<E> {
     var query = entityManager.createQuery(criteriaQuery);
 
     // Применяем entity graph для загрузки связанных сущностей
-    applyEntityGraph(query, hintName, entityGraphs, joinContext);
+    applyEntityGraph(query, hintName, entityGraphs, joinContext, trace);
 
     // Добавляем пагинацию
     addPagination(query, pagination);
-    return query.getResultList();
+    buildSpan.end();
+    trace.setJoins(joinContext.getJoinCount());
+    return query;
+  }
+
+  /**
+   * Поиск в форме запроса для наблюдателя и событий JFR.
+   */
+  protected SearchShape createShape(List<SearchDataDto> searchData, LinkedList<SortDto> sort) {
+    return SearchShape.of(criteriaInfoInterface.getEntityClass().getName(), searchData, sort);
   }
 
   protected Long getPageSize(PaginationDto pagination) {
+    if (isKeyset(pagination)) {
+      return nonNull(pagination.size()) ? pagination.size() : defaultPageSize;
+    }
+
     return nonNull(pagination) && nonNull(pagination.page()) ? pagination.size() : defaultPageSize;
   }
 
+  protected boolean isKeyset(PaginationDto pagination) {
+    return nonNull(pagination) && pagination.isKeyset();
+  }
+
+  protected SearchResponseDto<E> buildKeysetResponse(CountResult countResult, Long pageSize,
+      List<E> rows, LinkedList<SortDto> sort) {
+    var moreRows = rows.size() > pageSize;
+    List<E> content = moreRows ? new ArrayList<>(rows.subList(0, pageSize.intValue())) : rows;
+    var nextCursor = moreRows
+        ? KeysetCursorCodec.encode(extractKeysetValues(content.getLast(), sort))
+        : null;
+
+    return new SearchResponseDto<>(countResult.totalElements(),
+        calculateTotalPages(countResult.totalElements(), pageSize), moreRows, content, nextCursor,
+        countResult.type());
+  }
+
   protected Long calculateTotalPages(Long totalElements, Long pageSize) {
     return nonNull(totalElements)
         ? (long) Math.ceil((double) totalElements / pageSize)
@@ -246,8 +528,34 @@ public abstract class AbstractCriteriaSqlService<E> {
 
     var path = buildPathFromAttribute(root, attr, joinContext);
 
+    var trigram = attr.db().trigram();
+    if (searchData.operator().isTrigram() && isNull(trigram)) {
+      throw new ValidationException(
+          "Оператор %s недоступен для атрибута %s без триграммного индекса"
+              .formatted(searchData.operator(), attribute));
+    }
+
+    var textSearchConfig = Objects.equals(searchData.operator(), FULL_TEXT)
+        ? getTextSearchConfig(attr)
+        : null;
     return buildPredicateForOperator(cb, path, searchData.operator(), searchData.value(),
-        attr.db().type());
+        attr.db().type(), textSearchConfig,
+        nonNull(trigram) ? trigram.similarityThreshold() : null);
+  }
+
+  /**
+   * Конфигурация текстового поиска атрибута. Criteria API использует функции, которые
+   * регистрирует TextSearchFunctionContributor, поэтому доступны только их конфигурации.
+   */
+  private String getTextSearchConfig(CriteriaSearchAttribute attr) {
+    var textSearch = attr.db().textSearch();
+    var config = nonNull(textSearch) ? textSearch.config() : DEFAULT_TEXT_SEARCH_CONFIG;
+    if (!TEXT_SEARCH_CONFIGS.contains(config)) {
+      throw new ValidationException("Конфигурация текстового поиска %s не поддерживается"
+          .formatted(config));
+    }
+
+    return config;
   }
 
   private Path<?> buildPathFromAttribute(Root<E> root, CriteriaSearchAttribute attribute,
@@ -261,16 +569,32 @@ public abstract class AbstractCriteriaSqlService<E> {
   }
 
   private Predicate buildPredicateForOperator(CriteriaBuilder cb, Path<?> path, Operator operator,
-      List<String> values, Class<?> fieldType) {
+      List<String> values, Class<?> fieldType, String textSearchConfig,
+      Double similarityThreshold) {
     operator.checkValue(values);
 
-    var pathWithValue = new PathWithValue(path, values, fieldType);
+    if (Objects.equals(operator, IN) && values.size() > inArrayThreshold
+        && ARRAY_BOUND_TYPES.contains(fieldType)) {
+      // col = any(?) с массивом вместо списка параметров: SQL и план Hibernate не зависят от
+      // количества значений. Массив связывается параметром, литерал попал бы в текст SQL
+      var array = (Object[]) Array.newInstance(fieldType, values.size());
+      for (var i = 0; i < values.size(); i++) {
+        array[i] = CriteriaValueConverter.convertValue(values.get(i), fieldType);
+      }
+
+      return cb.equal(path,
+          cb.function("any", fieldType, CriteriaValueConverter.bindValue(cb, array)));
+    }
+
+    var pathWithValue = new PathWithValue(path, values, fieldType, textSearchConfig,
+        similarityThreshold);
     return (Predicate) operator.getCriteriaPredicateFunction().apply(cb, pathWithValue);
   }
 
   private List<Order> buildOrders(
       CriteriaBuilder cb,
       Root<E> root,
+      List<SearchDataDto> searchData,
       LinkedList<SortDto> sort,
       JoinContext joinContext
   ) {
@@ -283,9 +607,14 @@ public abstract class AbstractCriteriaSqlService<E> {
 
       var path = buildPathFromAttribute(root, attr, joinContext);
 
-      var order = Objects.equals(sortDto.direction(), DESC)
-          ? cb.desc(path)
-          : cb.asc(path);
+      Order order;
+      if (Objects.equals(sortDto.direction(), RELEVANCE)) {
+        order = cb.desc(buildRank(cb, path, attr, searchData, joinContext));
+      } else {
+        order = Objects.equals(sortDto.direction(), DESC)
+            ? cb.desc(path)
+            : cb.asc(path);
+      }
 
       orders.add(order);
     }
@@ -293,8 +622,32 @@ public abstract class AbstractCriteriaSqlService<E> {
     return orders;
   }
 
+  private Expression<Float> buildRank(CriteriaBuilder cb, Path<?> path,
+      CriteriaSearchAttribute attr, List<SearchDataDto> searchData, JoinContext joinContext) {
+    // PostgreSQL требует, чтобы выражения ORDER BY запроса с DISTINCT входили в выборку
+    if (joinContext.hasCollectionJoins()) {
+      throw new ValidationException(
+          "Сортировка по релевантности недоступна при фильтрации по коллекциям");
+    }
+
+    var query = emptyIfNull(searchData).stream()
+        .filter(data -> Objects.equals(data.operator(), FULL_TEXT)
+            && Objects.equals(data.attribute(), attr.json().key()))
+        .map(data -> data.value().getFirst())
+        .findFirst()
+        .orElseThrow(() -> new ValidationException(
+            "Сортировка по релевантности атрибута %s требует фильтра %s по этому атрибуту"
+                .formatted(attr.json().key(), FULL_TEXT)));
+
+    return cb.function(TextSearchSql.getRankFunctionName(getTextSearchConfig(attr)),
+        Float.class, path, CriteriaValueConverter.bindValue(cb, query));
+  }
+
   private void addPagination(TypedQuery<E> query, PaginationDto pagination) {
-    if (nonNull(pagination) && nonNull(pagination.page())) {
+    if (isKeyset(pagination)) {
+      // Лишняя строка нужна только для определения наличия следующей страницы
+      query.setMaxResults(Math.toIntExact(getPageSize(pagination) + 1));
+    } else if (nonNull(pagination) && nonNull(pagination.page())) {
       var pageSize = pagination.size();
       var offset = pagination.page() * pageSize;
 
@@ -303,6 +656,125 @@ public abstract class AbstractCriteriaSqlService<E> {
     }
   }
 
+  private List<Order> buildKeysetOrders(CriteriaBuilder cb, Root<E> root,
+      LinkedList<SortDto> sort, JoinContext joinContext) {
+    return collectKeysetKeys(root, sort, joinContext).stream()
+        .map(key -> Objects.equals(key.direction(), DESC)
+            ? cb.desc(key.path())
+            : cb.asc(key.path()))
+        .toList();
+  }
+
+  /**
+   * Условие продолжения после строки курсора. Порядок NULL в PostgreSQL по умолчанию: в конце при
+   * ASC и в начале при DESC, то есть NULL больше любого значения. Сравнение с NULL даёт NULL,
+   * поэтому ключи со значением NULL сравниваются через IS NULL / IS NOT NULL.
+   */
+  @SuppressWarnings("unchecked,rawtypes")
+  private Predicate buildSeekPredicate(CriteriaBuilder cb, Root<E> root,
+      LinkedList<SortDto> sort, String cursor, JoinContext joinContext) {
+    var keys = collectKeysetKeys(root, sort, joinContext);
+    var cursorValues = KeysetCursorCodec.decode(cursor, keys.size());
+    var values = new ArrayList<Comparable>();
+    for (var i = 0; i < keys.size(); i++) {
+      values.add((Comparable) convertKeysetValue(cursorValues.get(i), keys.get(i).type()));
+    }
+
+    // (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ... с учётом направления каждого ключа
+    var alternatives = new ArrayList<Predicate>();
+    for (var i = 0; i < keys.size(); i++) {
+      var key = keys.get(i);
+      var value = values.get(i);
+      if (isNull(value) && Objects.equals(key.direction(), ASC)) {
+        // После NULL при ASC значений этого ключа нет
+        continue;
+      }
+
+      var parts = new ArrayList<Predicate>();
+      for (var j = 0; j < i; j++) {
+        parts.add(isNull(values.get(j))
+            ? cb.isNull(keys.get(j).path())
+            : cb.equal(keys.get(j).path(), values.get(j)));
+      }
+
+      if (isNull(value)) {
+        parts.add(cb.isNotNull(key.path()));
+      } else if (Objects.equals(key.direction(), DESC)) {
+        parts.add(cb.lessThan((Expression) key.path(), value));
+      } else if (key.nullable()) {
+        parts.add(cb.or(cb.greaterThan((Expression) key.path(), value),
+            cb.isNull(key.path())));
+      } else {
+        parts.add(cb.greaterThan((Expression) key.path(), value));
+      }
+
+      alternatives.add(cb.and(parts.toArray(new Predicate[0])));
+    }
+
+    return cb.or(alternatives.toArray(new Predicate[0]));
+  }
+
+  private List<KeysetKey> collectKeysetKeys(Root<E> root, LinkedList<SortDto> sort,
+      JoinContext joinContext) {
+    var keys = new ArrayList<KeysetKey>();
+    var tiebreakerDirection = ASC;
+    if (isNotEmpty(sort)) {
+      for (var dto : sort) {
+        var attr = criteriaInfoInterface.getAttributeByJsonKey(dto.attribute(),
+            "Сортировка по атрибуту %s запрещена".formatted(dto.attribute()));
+        if (Objects.equals(dto.direction(), RELEVANCE)) {
+          throw new ValidationException(
+              "Сортировка по релевантности не поддерживается keyset-пагинацией");
+        }
+
+        var direction = Objects.equals(dto.direction(), DESC) ? DESC : ASC;
+        keys.add(new KeysetKey(buildPathFromAttribute(root, attr, joinContext),
+            attr.db().type(), direction, true));
+        tiebreakerDirection = direction;
+      }
+    }
+
+    keys.add(new KeysetKey(root.get(KEYSET_TIEBREAKER_ATTRIBUTE), Long.class,
+        tiebreakerDirection, false));
+    return keys;
+  }
+
+  private List<Object> extractKeysetValues(E entity, LinkedList<SortDto> sort) {
+    var wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+    var properties = new ArrayList<String>();
+    if (isNotEmpty(sort)) {
+      for (var dto : sort) {
+        var attr = criteriaInfoInterface.getAttributeByJsonKey(dto.attribute(),
+            "Сортировка по атрибуту %s запрещена".formatted(dto.attribute()));
+        properties.add(Objects.equals(attr.type(), SIMPLE)
+            ? attr.db().column()
+            : createCurrentPath(attr.db().joinInfo()) + "." + attr.db().column());
+      }
+    }
+
+    properties.add(KEYSET_TIEBREAKER_ATTRIBUTE);
+    return properties.stream()
+        .map(property -> readProperty(wrapper, property))
+        .toList();
+  }
+
+  private Object readProperty(BeanWrapper wrapper, String property) {
+    try {
+      return wrapper.getPropertyValue(property);
+    } catch (NullValueInNestedPathException ex) {
+      // Связь по LEFT JOIN отсутствует
+      return null;
+    }
+  }
+
+  private Object convertKeysetValue(String value, Class<?> type) {
+    if (nonNull(value) && DATE_CLASSES.contains(type)) {
+      return CriteriaValueConverter.parseDateValue(value, type);
+    }
+
+    return CriteriaValueConverter.convertValue(value, type);
+  }
+
   private String createCurrentPath(LinkedHashSet<JoinInfo> joinInfo) {
     var currentPath = EMPTY;
     for (var join : joinInfo) {
@@ -316,6 +788,24 @@ public abstract class AbstractCriteriaSqlService<E> {
     return isBlank(currentPath) ? join.path() : currentPath + "." + join.path();
   }
 
+  private void applyEntityGraph(TypedQuery<E> query, HintName hintName,
+      Set<String> entityGraphs, JoinContext joinContext, SearchTrace trace) {
+    if (isEmpty(entityGraphs)) {
+      return;
+    }
+
+    var event = new EntityGraphApplyEvent();
+    event.begin();
+    applyEntityGraph(query, hintName, entityGraphs, joinContext);
+    event.end();
+    if (event.shouldCommit()) {
+      event.set(trace.getEntity(), trace.getShapeHash(),
+          nonNull(hintName) ? hintName.getValue() : HINT_SPEC_FETCH_GRAPH,
+          String.join(",", entityGraphs));
+      event.commit();
+    }
+  }
+
   protected void applyEntityGraph(TypedQuery<E> query, HintName hintName,
       Set<String> entityGraphs,
       JoinContext joinContext) {
@@ -356,4 +846,11 @@ public abstract class AbstractCriteriaSqlService<E> {
       }
     }
   }
+
+  /**
+   * @param nullable может ли значение ключа быть NULL
+   */
+  private record KeysetKey(Path<?> path, Class<?> type, Direction direction, boolean nullable) {
+
+  }
 }
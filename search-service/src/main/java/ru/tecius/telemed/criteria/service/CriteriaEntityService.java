@@ -1,13 +1,21 @@
 package ru.tecius.telemed.criteria.service;
 
 import static java.util.Collections.emptySet;
+import static java.util.Objects.nonNull;
+import static ru.tecius.telemed.common.observation.SearchPhase.COUNT;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import ru.tecius.telemed.common.concurrent.ConcurrentQueryExecutor;
+import ru.tecius.telemed.common.count.CountResult;
+import ru.tecius.telemed.common.count.CountStrategy;
 import ru.tecius.telemed.common.criteria.CriteriaInfoInterface;
 import ru.tecius.telemed.common.criteria.HintName;
+import ru.tecius.telemed.common.observation.SearchTrace;
+import ru.tecius.telemed.criteria.inspector.SearchSqlInspector;
 import ru.tecius.telemed.dto.request.PaginationDto;
 import ru.tecius.telemed.dto.request.SearchDataDto;
 import ru.tecius.telemed.dto.request.SortDto;
@@ -15,12 +23,29 @@ import ru.tecius.telemed.dto.response.SearchResponseDto;
 
 public class CriteriaEntityService<E> extends AbstractCriteriaSqlService<E> {
 
+  private final ConcurrentQueryExecutor concurrentQueryExecutor;
+
   public CriteriaEntityService(
       EntityManager entityManager,
       CriteriaInfoInterface<E> criteriaInfo,
       Long defaultPageSize
   ) {
-    super(entityManager, criteriaInfo, defaultPageSize);
+    this(entityManager, criteriaInfo, defaultPageSize, CriteriaSearchOptions.defaults());
+  }
+
+  /**
+   * @param options настройки сервиса. При заданном исполнителе одновременных запросов подсчёт
+   *                выполняется в собственном EntityManager на отдельном соединении и не видит
+   *                незафиксированных изменений транзакции вызывающего кода
+   */
+  public CriteriaEntityService(
+      EntityManager entityManager,
+      CriteriaInfoInterface<E> criteriaInfo,
+      Long defaultPageSize,
+      CriteriaSearchOptions options
+  ) {
+    super(entityManager, criteriaInfo, defaultPageSize, options);
+    this.concurrentQueryExecutor = options.concurrentQueryExecutor();
   }
 
   public SearchResponseDto<E> search(
@@ -32,6 +57,15 @@ public class CriteriaEntityService<E> extends AbstractCriteriaSqlService<E> {
     return search(searchData, sort, pagination, null, emptySet(), needCalculateCount);
   }
 
+  public SearchResponseDto<E> search(
+      List<SearchDataDto> searchData,
+      LinkedList<SortDto> sort,
+      PaginationDto pagination,
+      CountStrategy countStrategy
+  ) {
+    return search(searchData, sort, pagination, null, emptySet(), countStrategy);
+  }
+
   public SearchResponseDto<E> search(
       List<SearchDataDto> searchData,
       LinkedList<SortDto> sort,
@@ -40,23 +74,75 @@ public class CriteriaEntityService<E> extends AbstractCriteriaSqlService<E> {
       Set<String> entityGraphs,
       boolean needCalculateCount
   ) {
+    return search(searchData, sort, pagination, hintName, entityGraphs,
+        needCalculateCount ? CountStrategy.exact() : null);
+  }
+
+  public SearchResponseDto<E> search(
+      List<SearchDataDto> searchData,
+      LinkedList<SortDto> sort,
+      PaginationDto pagination,
+      HintName hintName,
+      Set<String> entityGraphs,
+      CountStrategy countStrategy
+  ) {
+    var start = System.nanoTime();
     var cb = entityManager.getCriteriaBuilder();
+    var sql = new String[1];
+    var shape = createShape(searchData, sort);
+    var trace = new SearchTrace(shape.entity(), shape.stableHash());
+    Throwable failure = null;
+    try {
+      var countResult = CountResult.notCalculated();
+      List<E> content;
+      if (nonNull(countStrategy) && nonNull(concurrentQueryExecutor)) {
+        // Подсчёт в отдельном потоке одновременно с основным запросом
+        var results = concurrentQueryExecutor.invokeBoth(
+            () -> trace.time(COUNT, () -> countInSeparateEntityManager(searchData, countStrategy)),
+            () -> inspectSearchQuery(cb, searchData, sort, pagination, hintName, entityGraphs,
+                trace, sql));
+        countResult = results.background();
+        content = results.foreground();
+      } else {
+        // Сначала считаем общее количество
+        if (nonNull(countStrategy)) {
+          countResult = trace.time(COUNT,
+              () -> countStrategy.count(createCountQueryExecutor(cb, searchData)));
+        }
 
+        // Затем выполняем основной запрос с entity graph
+        content = inspectSearchQuery(cb, searchData, sort, pagination, hintName, entityGraphs,
+            trace, sql);
+      }
 
-    // Сначала считаем общее количество
-    var totalElements = 0L;
-    if (needCalculateCount) {
-      totalElements = executeCountQuery(cb, searchData);
-    }
+      var pageSize = getPageSize(pagination);
+      if (isKeyset(pagination)) {
+        return buildKeysetResponse(countResult, pageSize, content, sort);
+      }
 
-    // Затем выполняем основной запрос с entity graph
-    var content = executeSearchQuery(cb, searchData, sort, pagination, hintName, entityGraphs);
+      var totalPages = calculateTotalPages(countResult.totalElements(), pageSize);
+      Boolean moreRows = calculateMoreRows(pagination, totalPages);
 
-    var pageSize = getPageSize(pagination);
-    var totalPages = calculateTotalPages(totalElements, pageSize);
-    Boolean moreRows = calculateMoreRows(pagination, totalPages);
+      return new SearchResponseDto<>(countResult.totalElements(), totalPages, moreRows, content,
+          null, countResult.type());
+    } catch (RuntimeException | Error ex) {
+      failure = ex;
+      throw ex;
+    } finally {
+      observe(shape, sql[0], trace, System.nanoTime() - start, failure);
+    }
+  }
 
-    return new SearchResponseDto<>(totalElements, totalPages, moreRows, content);
+  private List<E> inspectSearchQuery(CriteriaBuilder cb, List<SearchDataDto> searchData,
+      LinkedList<SortDto> sort, PaginationDto pagination, HintName hintName,
+      Set<String> entityGraphs, SearchTrace trace, String[] sql) {
+    // Основной запрос выполняется в потоке вызывающего кода, подсчёт - до него или в другом потоке
+    SearchSqlInspector.begin();
+    try {
+      return executeSearchQuery(cb, searchData, sort, pagination, hintName, entityGraphs, trace);
+    } finally {
+      sql[0] = SearchSqlInspector.end();
+    }
   }
 
 }
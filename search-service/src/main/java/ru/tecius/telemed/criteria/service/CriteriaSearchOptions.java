@@ -0,0 +1,36 @@
+package ru.tecius.telemed.criteria.service;
+
+import static java.util.Objects.requireNonNullElse;
+import static ru.tecius.telemed.util.Constants.DEFAULT_IN_ARRAY_THRESHOLD;
+
+import lombok.Builder;
+import ru.tecius.telemed.common.concurrent.ConcurrentQueryExecutor;
+import ru.tecius.telemed.common.observation.SearchObserver;
+import ru.tecius.telemed.criteria.inspector.SearchSqlInspector;
+
+/**
+ * Настройки сервисов поиска Criteria API. Не заданные в построителе настройки получают значения
+ * по умолчанию.
+ *
+ * @param concurrentQueryExecutor исполнитель для одновременного выполнения подсчёта и основного
+ *                                запроса, null - запросы выполняются последовательно
+ * @param inArrayThreshold        количество значений IN, больше которого они связываются одним
+ *                                параметром-массивом
+ * @param observer                наблюдатель, вызываемый после каждого поиска. Текст запроса
+ *                                доступен ему, только если подключён {@link SearchSqlInspector}
+ */
+@Builder
+public record CriteriaSearchOptions(ConcurrentQueryExecutor concurrentQueryExecutor,
+                                    Integer inArrayThreshold,
+                                    SearchObserver observer) {
+
+  public CriteriaSearchOptions {
+    inArrayThreshold = requireNonNullElse(inArrayThreshold, DEFAULT_IN_ARRAY_THRESHOLD);
+    observer = requireNonNullElse(observer, SearchObserver.NOOP);
+  }
+
+  public static CriteriaSearchOptions defaults() {
+    return builder().build();
+  }
+
+}
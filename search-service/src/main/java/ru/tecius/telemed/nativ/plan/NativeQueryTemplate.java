@@ -0,0 +1,34 @@
+package ru.tecius.telemed.nativ.plan;
+
+import java.util.List;
+
+/**
+ * Скомпилированный шаблон запроса для конкретной {@link QueryShape}.
+ *
+ * @param statementName имя формы в {@link PreparedStatementRegistry}
+ * @param countSql    запрос подсчёта общего количества записей
+ * @param countFilterSql FROM, JOIN и WHERE запроса подсчёта без метки формы: не зависит от
+ *                       сортировки, выборки и пагинации, поэтому определяет ключ кэша подсчёта
+ * @param cappedCountSql запрос подсчёта не более заданного количества записей (последний
+ *                       параметр - лимит)
+ * @param estimateSql EXPLAIN запроса для оценки количества записей планировщиком
+ * @param contentSql  запрос получения страницы (с ORDER BY и LIMIT/OFFSET, если нужны)
+ * @param projection  колонки выборки с явным списком атрибутов, пусто при выборке сущности
+ * @param filterTypes типы атрибутов фильтров в порядке следования searchData
+ * @param keysetTypes типы ключей keyset-пагинации (ключи сортировки и id), пусто для OFFSET
+ * @param seekParameterOrder индексы значений курсора в порядке плейсхолдеров условия продолжения
+ * @param joinCount   количество джойнов основного запроса
+ */
+public record NativeQueryTemplate(String statementName,
+                                  String countSql,
+                                  String countFilterSql,
+                                  String cappedCountSql,
+                                  String estimateSql,
+                                  String contentSql,
+                                  List<ProjectedColumn> projection,
+                                  List<Class<?>> filterTypes,
+                                  List<Class<?>> keysetTypes,
+                                  List<Integer> seekParameterOrder,
+                                  int joinCount) {
+
+}
@@ -0,0 +1,26 @@
+package ru.tecius.telemed.nativ.plan;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Значение параметра PostgreSQL plan_cache_mode для подготовленных запросов формы: общий план
+ * избавляет от планирования при каждом выполнении, индивидуальный учитывает значения параметров.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum PlanCacheMode {
+
+  AUTO("auto"),
+  FORCE_GENERIC_PLAN("force_generic_plan"),
+  FORCE_CUSTOM_PLAN("force_custom_plan");
+
+  /**
+   * Установка режима; второй параметр is_local: true - до конца текущей транзакции.
+   */
+  public static final String SET_SQL = "SELECT set_config('plan_cache_mode', ?, ?)";
+  public static final String RESET_SQL = "RESET plan_cache_mode";
+
+  private final String settingValue;
+
+}
@@ -0,0 +1,107 @@
+package ru.tecius.telemed.nativ.plan;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static ru.tecius.telemed.util.Constants.DEFAULT_IN_ARRAY_THRESHOLD;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import ru.tecius.telemed.exception.ProcessingException;
+
+/**
+ * Реестр имён форм запросов нативного движка. Имя выводится из хеша SHA-256 текста SQL формы,
+ * поэтому совпадает на всех экземплярах приложения и после перезапуска. Реестр помнит текст
+ * каждого имени: если усечённые хеши разных форм совпадут, вторая форма получит имя с полным
+ * хешем, и формы не разделят plan_cache_mode. Имя добавляется в SQL комментарием, и один и
+ * тот же текст позволяет драйверу PostgreSQL держать запрос подготовленным на сервере для каждого
+ * соединения (см. prepareThreshold и preparedStatementCacheQueries драйвера). Для отдельных форм
+ * можно задать plan_cache_mode. Оператор IN с количеством значений больше порога связывается одним
+ * параметром-массивом, чтобы длина списка не порождала новые формы.
+ */
+public class PreparedStatementRegistry {
+
+  public static final String DEFAULT_NAME_PREFIX = "search";
+
+  private static final Pattern NAME_PATTERN = Pattern.compile("\\w+");
+  private static final String HASH_ALGORITHM = "SHA-256";
+  private static final int NAME_HASH_LENGTH = 16;
+
+  private final String namePrefix;
+  private final PlanCacheMode defaultPlanCacheMode;
+  private final int inArrayThreshold;
+  private final Map<String, PlanCacheMode> planCacheModes = new ConcurrentHashMap<>();
+  private final Map<String, String> statementSql = new ConcurrentHashMap<>();
+
+  public PreparedStatementRegistry() {
+    this(DEFAULT_NAME_PREFIX, PlanCacheMode.AUTO);
+  }
+
+  /**
+   * @param namePrefix           префикс имён форм (буквы, цифры и подчёркивание)
+   * @param defaultPlanCacheMode режим форм, для которых он не задан явно
+   */
+  public PreparedStatementRegistry(String namePrefix, PlanCacheMode defaultPlanCacheMode) {
+    this(namePrefix, defaultPlanCacheMode, DEFAULT_IN_ARRAY_THRESHOLD);
+  }
+
+  /**
+   * @param inArrayThreshold количество значений IN, больше которого они связываются массивом
+   */
+  public PreparedStatementRegistry(String namePrefix, PlanCacheMode defaultPlanCacheMode,
+      int inArrayThreshold) {
+    if (!NAME_PATTERN.matcher(namePrefix).matches()) {
+      throw new IllegalArgumentException("Недопустимый префикс имени запроса: " + namePrefix);
+    }
+
+    this.namePrefix = namePrefix;
+    this.defaultPlanCacheMode = defaultPlanCacheMode;
+    this.inArrayThreshold = inArrayThreshold;
+  }
+
+  public int getInArrayThreshold() {
+    return inArrayThreshold;
+  }
+
+  public String getStatementName(String sql) {
+    var hash = hash(sql);
+    var name = "%s_%s".formatted(namePrefix, hash.substring(0, NAME_HASH_LENGTH));
+    var registeredSql = statementSql.putIfAbsent(name, sql);
+    if (isNull(registeredSql) || registeredSql.equals(sql)) {
+      return name;
+    }
+
+    var fullName = "%s_%s".formatted(namePrefix, hash);
+    statementSql.putIfAbsent(fullName, sql);
+    return fullName;
+  }
+
+  public String label(String statementName, String sql) {
+    return "/* %s */ %s".formatted(statementName, sql);
+  }
+
+  public void setPlanCacheMode(String statementName, PlanCacheMode planCacheMode) {
+    planCacheModes.put(statementName, planCacheMode);
+  }
+
+  public PlanCacheMode getPlanCacheMode(String statementName) {
+    return planCacheModes.getOrDefault(statementName, defaultPlanCacheMode);
+  }
+
+  public Map<String, PlanCacheMode> getPlanCacheModes() {
+    return Map.copyOf(planCacheModes);
+  }
+
+  private String hash(String sql) {
+    try {
+      var digest = MessageDigest.getInstance(HASH_ALGORITHM);
+      return HexFormat.of().formatHex(digest.digest(sql.getBytes(UTF_8)));
+    } catch (NoSuchAlgorithmException ex) {
+      throw new ProcessingException("Алгоритм %s недоступен".formatted(HASH_ALGORITHM), ex);
+    }
+  }
+
+}
@@ -0,0 +1,12 @@
+package ru.tecius.telemed.nativ.plan;
+
+/**
+ * Колонка выборки с явным списком атрибутов.
+ *
+ * @param alias псевдоним колонки в запросе, совпадает с JSON-ключом атрибута
+ * @param type  тип значения атрибута
+ */
+public record ProjectedColumn(String alias,
+                              Class<?> type) {
+
+}
@@ -0,0 +1,64 @@
+package ru.tecius.telemed.nativ.plan;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.collections4.CollectionUtils.size;
+
+import java.util.List;
+import java.util.function.Predicate;
+import ru.tecius.telemed.dto.request.Operator;
+import ru.tecius.telemed.dto.request.PaginationDto;
+import ru.tecius.telemed.dto.request.SearchDataDto;
+import ru.tecius.telemed.dto.request.SortDto;
+
+/**
+ * Форма поискового запроса: всё, что влияет на текст SQL, но не на значения параметров. Включает
+ * таблицу и выбираемые колонки, поэтому один {@link QueryTemplateCache} может использоваться
+ * несколькими сервисами.
+ *
+ * @param entity        схема и таблица корневой сущности
+ * @param selectColumns колонки корневой таблицы, выбираемые вместо alias.*
+ * @param seekNullKeys  номера ключей курсора keyset-пагинации со значением NULL
+ */
+public record QueryShape(String entity,
+                         List<String> selectColumns,
+                         List<String> fields,
+                         List<FilterShape> filters,
+                         List<SortDto> sort,
+                         boolean paginated,
+                         boolean keyset,
+                         boolean seek,
+                         List<Integer> seekNullKeys,
+                         boolean windowCount) {
+
+  /**
+   * @param arrayBound фильтры, значения которых связываются одним параметром-массивом: текст SQL
+   *                   для них не зависит от количества значений
+   */
+  public static QueryShape of(String entity, List<String> selectColumns, List<String> fields,
+      List<SearchDataDto> searchData, List<SortDto> sort, PaginationDto pagination,
+      List<Integer> seekNullKeys, boolean windowCount, Predicate<SearchDataDto> arrayBound) {
+    var selectColumnsShape = isNull(selectColumns) ? List.<String>of() : List.copyOf(selectColumns);
+    var fieldsShape = isNull(fields) ? List.<String>of() : List.copyOf(fields);
+    var filters = isNull(searchData)
+        ? List.<FilterShape>of()
+        : searchData.stream()
+            .map(data -> new FilterShape(data.attribute(), data.operator(),
+                arrayBound.test(data) ? FilterShape.ARRAY_ARITY : size(data.value())))
+            .toList();
+    var sortShape = isNull(sort) ? List.<SortDto>of() : List.copyOf(sort);
+    var keyset = nonNull(pagination) && pagination.isKeyset();
+    var seek = keyset && nonNull(pagination.cursor());
+    return new QueryShape(entity, selectColumnsShape, fieldsShape, filters, sortShape,
+        nonNull(pagination), keyset, seek, List.copyOf(seekNullKeys), windowCount);
+  }
+
+  public record FilterShape(String attribute,
+                            Operator operator,
+                            int arity) {
+
+    public static final int ARRAY_ARITY = -1;
+
+  }
+
+}
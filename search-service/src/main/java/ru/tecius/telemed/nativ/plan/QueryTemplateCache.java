@@ -0,0 +1,76 @@
+package ru.tecius.telemed.nativ.plan;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Ограниченный по размеру потокобезопасный кэш шаблонов запросов. При переполнении вытесняются
+ * самые старые формы запросов (FIFO).
+ */
+public class QueryTemplateCache {
+
+  public static final int DEFAULT_MAX_SIZE = 256;
+
+  private final int maxSize;
+  private final Map<QueryShape, NativeQueryTemplate> templates = new ConcurrentHashMap<>();
+  private final Queue<QueryShape> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public QueryTemplateCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  public QueryTemplateCache(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public NativeQueryTemplate get(QueryShape shape, Supplier<NativeQueryTemplate> compiler) {
+    var template = templates.get(shape);
+    if (nonNull(template)) {
+      hits.increment();
+      return template;
+    }
+
+    misses.increment();
+    var compiled = compiler.get();
+    if (isNull(templates.putIfAbsent(shape, compiled))) {
+      insertionOrder.add(shape);
+      evictOverflow();
+    }
+
+    return compiled;
+  }
+
+  public void clear() {
+    templates.clear();
+    insertionOrder.clear();
+  }
+
+  public QueryTemplateCacheStats getStats() {
+    return new QueryTemplateCacheStats(hits.sum(), misses.sum(), evictions.sum(),
+        templates.size());
+  }
+
+  private void evictOverflow() {
+    while (templates.size() > maxSize) {
+      var eldest = insertionOrder.poll();
+      if (isNull(eldest)) {
+        return;
+      }
+
+      if (nonNull(templates.remove(eldest))) {
+        evictions.increment();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,8 @@
+package ru.tecius.telemed.nativ.plan;
+
+public record QueryTemplateCacheStats(long hits,
+                                      long misses,
+                                      long evictions,
+                                      long size) {
+
+}
@@ -1,77 +1,519 @@
 package ru.tecius.telemed.nativ.service;
 
 import static java.lang.String.join;
+import static java.util.Collections.nCopies;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.stream.Collectors.joining;
+import static org.apache.commons.collections4.CollectionUtils.emptyIfNull;
+import static org.apache.commons.collections4.CollectionUtils.isEmpty;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
+import static org.apache.commons.collections4.CollectionUtils.size;
 import static org.apache.commons.lang3.StringUtils.LF;
+import static ru.tecius.telemed.common.observation.SearchPhase.BUILD;
+import static ru.tecius.telemed.common.observation.SearchPhase.CONTENT;
+import static ru.tecius.telemed.common.observation.SearchPhase.COUNT;
+import static ru.tecius.telemed.common.observation.SearchPhase.MAPPING;
+import static ru.tecius.telemed.common.observation.SearchPhase.VALIDATION;
+import static ru.tecius.telemed.configuration.nativ.JoinTypeEnum.INNER_JOIN;
+import static ru.tecius.telemed.configuration.nativ.JoinTypeEnum.LEFT_JOIN;
+import static ru.tecius.telemed.dto.request.Direction.ASC;
+import static ru.tecius.telemed.dto.request.Direction.DESC;
+import static ru.tecius.telemed.dto.request.Direction.RELEVANCE;
+import static ru.tecius.telemed.dto.request.Operator.FULL_TEXT;
+import static ru.tecius.telemed.dto.request.Operator.IN;
+import static ru.tecius.telemed.dto.request.Operator.IS_NULL;
+import static ru.tecius.telemed.dto.request.Operator.SIMILAR;
+import static ru.tecius.telemed.util.Constants.ARRAY_ELEMENT_TYPES;
+import static ru.tecius.telemed.util.Constants.DEFAULT_TEXT_SEARCH_CONFIG;
+import static ru.tecius.telemed.util.nativ.NativeValueConverter.convertIsoValue;
 
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import ru.tecius.telemed.common.concurrent.ConcurrentQueryExecutor;
+import ru.tecius.telemed.common.count.CountResult;
+import ru.tecius.telemed.common.count.CountStrategy;
+import ru.tecius.telemed.common.count.ExactCountStrategy;
+import ru.tecius.telemed.common.count.PlanEstimates;
+import ru.tecius.telemed.common.keyset.KeysetCursorCodec;
 import ru.tecius.telemed.common.nativ.SearchInfoInterface;
+import ru.tecius.telemed.common.observation.SearchEngine;
+import ru.tecius.telemed.common.observation.SearchExecution;
+import ru.tecius.telemed.common.observation.SearchObserver;
+import ru.tecius.telemed.common.observation.SearchTrace;
+import ru.tecius.telemed.common.slowlog.SlowSearchLog;
+import ru.tecius.telemed.common.workload.SearchShape;
+import ru.tecius.telemed.configuration.common.TrigramData;
+import ru.tecius.telemed.configuration.nativ.DbData;
 import ru.tecius.telemed.configuration.nativ.JoinInfo;
+import ru.tecius.telemed.configuration.nativ.NativeSearchAttribute;
+import ru.tecius.telemed.dto.request.Direction;
 import ru.tecius.telemed.dto.request.Operator;
 import ru.tecius.telemed.dto.request.PaginationDto;
 import ru.tecius.telemed.dto.request.SearchDataDto;
 import ru.tecius.telemed.dto.request.SortDto;
 import ru.tecius.telemed.dto.response.SearchResponseDto;
+import ru.tecius.telemed.exception.ValidationException;
+import ru.tecius.telemed.nativ.plan.NativeQueryTemplate;
+import ru.tecius.telemed.nativ.plan.PlanCacheMode;
+import ru.tecius.telemed.nativ.plan.PreparedStatementRegistry;
+import ru.tecius.telemed.nativ.plan.ProjectedColumn;
+import ru.tecius.telemed.nativ.plan.QueryShape;
+import ru.tecius.telemed.nativ.plan.QueryTemplateCache;
+import ru.tecius.telemed.nativ.plan.QueryTemplateCacheStats;
+import ru.tecius.telemed.util.TextSearchSql;
+import ru.tecius.telemed.util.TrigramSql;
 
 public abstract class AbstractNativeSqlService<E> {
 
+  /**
+   * Уникальная колонка корневой таблицы, завершающая порядок keyset-пагинации. Должна быть NOT
+   * NULL и иметь тип bigint.
+   */
+  private static final String KEYSET_TIEBREAKER_COLUMN = "id";
+
   private final SearchInfoInterface<E> searchInfoInterface;
   private final Long defaultPageSize;
+  private final QueryTemplateCache queryTemplateCache;
+  private final ConcurrentQueryExecutor concurrentQueryExecutor;
+  private final List<String> selectColumns;
+  private final PreparedStatementRegistry statementRegistry;
+  private final SearchObserver observer;
 
   protected AbstractNativeSqlService(SearchInfoInterface<E> searchInfoInterface,
       Long defaultPageSize) {
+    this(searchInfoInterface, defaultPageSize, NativeSearchOptions.defaults(), List.of());
+  }
+
+  /**
+   * @param selectColumns колонки корневой таблицы, выбираемые вместо alias.*, пусто - alias.*
+   */
+  protected AbstractNativeSqlService(SearchInfoInterface<E> searchInfoInterface,
+      Long defaultPageSize,
+      NativeSearchOptions options,
+      List<String> selectColumns) {
     this.searchInfoInterface = searchInfoInterface;
     this.defaultPageSize = defaultPageSize;
+    this.queryTemplateCache = options.queryTemplateCache();
+    this.concurrentQueryExecutor = options.concurrentQueryExecutor();
+    this.selectColumns = selectColumns;
+    this.statementRegistry = options.statementRegistry();
+    this.observer = options.observer();
   }
 
-  protected SearchResponseDto<E> search(List<SearchDataDto> searchData,
+  public QueryTemplateCacheStats getQueryTemplateCacheStats() {
+    return queryTemplateCache.getStats();
+  }
+
+  /**
+   * @return схема и таблица корневой сущности
+   */
+  protected String getEntityName() {
+    return "%s.%s".formatted(searchInfoInterface.getSchemaName(),
+        searchInfoInterface.getTablaName());
+  }
+
+  /**
+   * @param fields          JSON-ключи атрибутов выборки, null - выборка сущности целиком
+   * @param contentFunction выполнение запроса страницы, строки которой - сущности или, при
+   *                        явном списке атрибутов, значения выбранных колонок. Получает
+   *                        измерения поиска для событий JFR преобразования строк
+   */
+  protected <R> SearchResponseDto<R> search(List<String> fields,
+      List<SearchDataDto> searchData,
       LinkedList<SortDto> sort,
       PaginationDto pagination,
-      BiFunction<String, LinkedList<Object>, Long> totalElementsFunction,
-      BiFunction<String, LinkedList<Object>, List<E>> contentFunction,
-      boolean needCalculateCount) {
-    var params = new LinkedList<>();
-    var sqlBuilder = buildBaseQuery(searchData, sort, params);
+      NativeStatementExecutor statementExecutor,
+      BiFunction<NativeContentQuery, SearchTrace, NativeContent<R>> contentFunction,
+      CountStrategy countStrategy,
+      boolean windowCount) {
+    var start = System.nanoTime();
+    var shape = SearchShape.of(searchInfoInterface.getEntityClass().getName(), searchData, sort);
+    var trace = new SearchTrace(shape.entity(), shape.stableHash());
+    NativeContentQuery observedQuery = null;
+    Throwable failure = null;
+    try {
+      if (nonNull(fields) && fields.isEmpty()) {
+        throw new ValidationException("Не указаны атрибуты для выборки");
+      }
 
-    var totalElements = 0L;
-    if (needCalculateCount) {
-      var countSql = buildCountQuery(sqlBuilder.toString());
-      totalElements = totalElementsFunction.apply(countSql, params);
+      // Окно даёт только точное значение, а при продолжении keyset-пагинации посчитает лишь
+      // строки после курсора. Кэширующая стратегия поверх точной окно не использует: окно
+      // считает строки при каждом запросе в обход кэша
+      var useWindowCount = windowCount && countStrategy instanceof ExactCountStrategy
+          && !isSeek(pagination);
+
+      checkValues(searchData);
+      // Текст SQL зависит только от формы запроса, поэтому строится один раз на форму
+      var seekNullKeys = trace.time(VALIDATION, () -> getSeekNullKeys(sort, pagination));
+      var template = trace.time(BUILD, () -> queryTemplateCache.get(
+          QueryShape.of(getEntityName(), selectColumns, fields, searchData, sort, pagination,
+              seekNullKeys, useWindowCount, this::isArrayBound),
+          () -> compileTemplate(fields, searchData, sort, pagination, seekNullKeys,
+              useWindowCount)));
+      trace.setJoins(template.joinCount());
+      trace.setSqlLength(template.contentSql().length());
+      var filterParams = trace.time(VALIDATION,
+          () -> bindParameters(searchData, template.filterTypes()));
+      var countQueryExecutor = new NativeCountQueryExecutor(template, filterParams,
+          statementExecutor);
+
+      var pageSize = getPageSize(pagination);
+      var params = new LinkedList<>(filterParams);
+      params.addAll(trace.time(VALIDATION, () -> bindSortParameters(searchData, sort)));
+      if (isKeyset(pagination)) {
+        addKeysetParameters(params, pagination, template, pageSize);
+      } else {
+        addPaginationParameters(params, pagination, pageSize);
+      }
+
+      var contentQuery = new NativeContentQuery(template.contentSql(), params,
+          template.projection(), template.keysetTypes(), useWindowCount);
+      observedQuery = contentQuery;
+      var needCountQuery = nonNull(countStrategy) && !useWindowCount;
+      var planCacheMode = statementRegistry.getPlanCacheMode(template.statementName());
+      Supplier<CountResult> countFunction = () -> trace.time(COUNT,
+          () -> statementExecutor.withPlanCacheMode(planCacheMode,
+              () -> countStrategy.count(countQueryExecutor)));
+      Supplier<NativeContent<R>> queryFunction = () -> queryContent(trace,
+          () -> withPlanCacheMode(planCacheMode, () -> contentFunction.apply(contentQuery, trace)));
+
+      var countResult = CountResult.notCalculated();
+      NativeContent<R> result;
+      if (needCountQuery && nonNull(concurrentQueryExecutor)) {
+        var results = concurrentQueryExecutor.invokeBoth(countFunction, queryFunction);
+        countResult = results.background();
+        result = results.foreground();
+      } else {
+        if (needCountQuery) {
+          countResult = countFunction.get();
+        }
+
+        result = queryFunction.get();
+      }
+
+      if (useWindowCount) {
+        countResult = CountResult.exact(resolveWindowTotal(result, pagination,
+            () -> trace.time(COUNT, () -> countQueryExecutor.exactCount())));
+      }
+
+      if (isKeyset(pagination)) {
+        return buildKeysetResponse(countResult, pageSize, result);
+      }
+
+      var content = result.rows();
+      var totalPages = calculateTotalPages(countResult.totalElements(), (long) content.size());
+      Boolean moreRows = calculateMoreRows(pagination, totalPages);
+
+      return new SearchResponseDto<>(countResult.totalElements(), totalPages, moreRows, content,
+          null, countResult.type());
+    } catch (RuntimeException | Error ex) {
+      failure = ex;
+      throw ex;
+    } finally {
+      observe(shape, statementExecutor, observedQuery, trace, System.nanoTime() - start,
+          failure);
+    }
+  }
+
+  /**
+   * Выполняет основной запрос, разделяя его время на выполнение и преобразование строк.
+   */
+  private <R> NativeContent<R> queryContent(SearchTrace trace,
+      Supplier<NativeContent<R>> queryFunction) {
+    var event = trace.beginEvent(CONTENT);
+    var start = System.nanoTime();
+    var result = queryFunction.get();
+    trace.add(CONTENT, System.nanoTime() - start - result.mappingNanos());
+    if (result.mappingNanos() > 0) {
+      trace.add(MAPPING, result.mappingNanos());
     }
 
-    addOrderBy(sqlBuilder, sort);
+    trace.setRows(result.rows().size());
+    trace.commitEvent(event);
+    return result;
+  }
 
-    var pageSize = getPageSize(pagination);
-    addPagination(sqlBuilder, params, pagination, pageSize);
+  /**
+   * Движок поиска, передаваемый наблюдателю.
+   */
+  protected abstract SearchEngine getEngine();
+
+  private void observe(SearchShape shape, NativeStatementExecutor statementExecutor,
+      NativeContentQuery contentQuery, SearchTrace trace, long elapsedNanos, Throwable failure) {
+    if (isNull(contentQuery)) {
+      // Запрос не построен: ошибка в атрибутах или значениях запроса
+      observer.onSearch(new SearchExecution(getEngine(), shape, null, List.of(), elapsedNanos,
+          trace.getPhaseNanos(), 0, 0, failure, null));
+      return;
+    }
 
-    var content = contentFunction.apply(sqlBuilder.toString(), params);
+    var parameterTypes = contentQuery.params().stream()
+        .map(param -> switch (param) {
+          case null -> "null";
+          case ArrayParameter array -> array.elementType() + "[]";
+          default -> param.getClass().getSimpleName();
+        })
+        .toList();
+    observer.onSearch(new SearchExecution(getEngine(), shape, contentQuery.sql(), parameterTypes,
+        elapsedNanos, trace.getPhaseNanos(), trace.getRows(), trace.getJoins(), failure,
+        (analyze, timeout) -> statementExecutor.queryForStringIsolated(
+            (analyze ? SlowSearchLog.EXPLAIN_ANALYZE_PREFIX : PlanEstimates.EXPLAIN_JSON_PREFIX)
+                + contentQuery.sql(), contentQuery.params(), timeout)));
+  }
 
-    var totalPages = calculateTotalPages(totalElements, (long) content.size());
-    Boolean moreRows = calculateMoreRows(pagination, totalPages);
 
-    return new SearchResponseDto<>(totalElements, totalPages, moreRows, content);
+  protected NativeContentQuery buildStreamingQuery(List<SearchDataDto> searchData,
+      LinkedList<SortDto> sort) {
+    // Выборка без пагинации и подсчёта, строки читаются курсором по мере обработки
+    checkValues(searchData);
+    var template = queryTemplateCache.get(
+        QueryShape.of(getEntityName(), selectColumns, null, searchData, sort, null, List.of(),
+            false, this::isArrayBound),
+        () -> compileTemplate(null, searchData, sort, null, List.of(), false));
+    var params = bindParameters(searchData, template.filterTypes());
+    params.addAll(bindSortParameters(searchData, sort));
+    return new NativeContentQuery(template.contentSql(), params, template.projection(),
+        template.keysetTypes(), false);
+  }
+
+  /**
+   * Выполняет основной запрос с заданным plan_cache_mode. Режим устанавливается на соединении,
+   * через которое подкласс выполняет запрос страницы.
+   */
+  protected abstract <T> T withPlanCacheMode(PlanCacheMode planCacheMode, Supplier<T> action);
+
+  private NativeQueryTemplate compileTemplate(List<String> fields,
+      List<SearchDataDto> searchData, LinkedList<SortDto> sort, PaginationDto pagination,
+      List<Integer> seekNullKeys, boolean windowCount) {
+    var keysetKeys = isKeyset(pagination) ? collectKeysetKeys(sort) : List.<KeysetKey>of();
+    var projection = collectProjection(fields);
+    var sqlBuilder = buildBaseQuery(projection, searchData, sort, keysetKeys, windowCount);
+    var fromWithJoinsAndWhere = buildCountFromWithJoinsAndWhere(projection, searchData, sort);
+
+    var seekParameterOrder = new ArrayList<Integer>();
+    if (isSeek(pagination)) {
+      sqlBuilder.append(isNotEmpty(searchData) ? "AND " : "WHERE ")
+          .append(buildSeekCondition(keysetKeys, seekNullKeys, seekParameterOrder))
+          .append(LF);
+    }
+
+    if (isKeyset(pagination)) {
+      addKeysetOrderBy(sqlBuilder, keysetKeys);
+    } else {
+      addOrderBy(sqlBuilder, sort);
+    }
+
+    addPagination(sqlBuilder, pagination);
+
+    // Имя формы попадает в текст запросов, поэтому он неизменен для формы и виден в
+    // pg_stat_statements и pg_stat_activity
+    var contentSql = sqlBuilder.toString();
+    var statementName = statementRegistry.getStatementName(contentSql);
+    return new NativeQueryTemplate(statementName,
+        statementRegistry.label(statementName + "_count",
+            buildCountQuery(fromWithJoinsAndWhere)),
+        fromWithJoinsAndWhere,
+        statementRegistry.label(statementName + "_capped",
+            buildCappedCountQuery(fromWithJoinsAndWhere)),
+        statementRegistry.label(statementName + "_estimate",
+            PlanEstimates.EXPLAIN_JSON_PREFIX + "SELECT 1" + fromWithJoinsAndWhere),
+        statementRegistry.label(statementName, contentSql),
+        projection.stream()
+            .map(attr -> new ProjectedColumn(attr.json().key(), attr.db().type()))
+            .toList(),
+        collectFilterTypes(searchData),
+        keysetKeys.stream().<Class<?>>map(KeysetKey::type).toList(),
+        List.copyOf(seekParameterOrder),
+        collectContentJoins(projection, searchData, sort).size());
+  }
+
+  private Long resolveWindowTotal(NativeContent<?> result, PaginationDto pagination,
+      LongSupplier countFunction) {
+    if (nonNull(result.totalElements())) {
+      return result.totalElements();
+    }
+
+    // Пустая первая страница означает отсутствие строк, для остальных считаем отдельно
+    return isFirstPage(pagination) ? 0L : countFunction.getAsLong();
+  }
+
+  private List<NativeSearchAttribute> collectProjection(List<String> fields) {
+    if (isEmpty(fields)) {
+      return List.of();
+    }
+
+    return fields.stream()
+        .distinct()
+        .map(field -> searchInfoInterface.getAttributeByJsonKey(field,
+            "Выборка атрибута %s запрещена".formatted(field)))
+        .toList();
+  }
+
+  private List<Class<?>> collectFilterTypes(List<SearchDataDto> searchData) {
+    if (isNotEmpty(searchData)) {
+      return searchData.stream()
+          .map(data -> searchInfoInterface.getAttributeByJsonKey(data.attribute(),
+              "Фильтрация по атрибуту %s запрещена".formatted(data.attribute())))
+          .<Class<?>>map(attr -> attr.db().type())
+          .toList();
+    }
+
+    return List.of();
+  }
+
+  /**
+   * Проверка значений фильтров выполняется для каждого запроса: шаблон из кэша общий для формы, и
+   * при его компиляции видны значения только первого запроса этой формы.
+   */
+  private void checkValues(List<SearchDataDto> searchData) {
+    emptyIfNull(searchData).forEach(data -> data.operator().checkValue(data.value()));
   }
 
-  private StringBuilder buildBaseQuery(List<SearchDataDto> searchData, LinkedList<SortDto> sort,
-      LinkedList<Object> params) {
+  private LinkedList<Object> bindParameters(List<SearchDataDto> searchData,
+      List<Class<?>> filterTypes) {
+    var params = new LinkedList<>();
+    if (isNotEmpty(searchData)) {
+      for (var i = 0; i < searchData.size(); i++) {
+        var data = searchData.get(i);
+        var fieldType = filterTypes.get(i);
+        var values = data.operator().getNativeTransformValueFunction()
+            .apply(data.value(), fieldType);
+        if (isArrayBound(data, fieldType)) {
+          params.add(ArrayParameter.of(ARRAY_ELEMENT_TYPES.get(fieldType), fieldType, values));
+        } else {
+          params.addAll(values);
+        }
+      }
+    }
+
+    return params;
+  }
+
+  /**
+   * Параметры ORDER BY: запрос фильтра FULL_TEXT для каждой сортировки по релевантности. В тексте
+   * запроса они следуют за условиями WHERE и предшествуют LIMIT.
+   */
+  private List<Object> bindSortParameters(List<SearchDataDto> searchData,
+      LinkedList<SortDto> sort) {
+    if (isEmpty(sort)) {
+      return List.of();
+    }
+
+    return sort.stream()
+        .filter(dto -> Objects.equals(dto.direction(), RELEVANCE))
+        .<Object>map(dto -> getFullTextQuery(searchData, dto.attribute()))
+        .toList();
+  }
+
+  private String getFullTextQuery(List<SearchDataDto> searchData, String attribute) {
+    return emptyIfNull(searchData).stream()
+        .filter(data -> Objects.equals(data.operator(), FULL_TEXT)
+            && Objects.equals(data.attribute(), attribute))
+        .map(data -> data.value().getFirst())
+        .findFirst()
+        .orElseThrow(() -> new ValidationException(
+            "Сортировка по релевантности атрибута %s требует фильтра %s по этому атрибуту"
+                .formatted(attribute, FULL_TEXT)));
+  }
+
+  private boolean isArrayBound(SearchDataDto data) {
+    return Objects.equals(data.operator(), IN) && isArrayBound(data,
+        searchInfoInterface.getAttributeByJsonKey(data.attribute(),
+            "Фильтрация по атрибуту %s запрещена".formatted(data.attribute())).db().type());
+  }
+
+  /**
+   * Значения IN сверх порога связываются одним параметром-массивом, чтобы текст запроса не
+   * зависел от их количества.
+   */
+  private boolean isArrayBound(SearchDataDto data, Class<?> fieldType) {
+    return Objects.equals(data.operator(), IN)
+        && size(data.value()) > statementRegistry.getInArrayThreshold()
+        && ARRAY_ELEMENT_TYPES.containsKey(fieldType);
+  }
+
+  private StringBuilder buildBaseQuery(List<NativeSearchAttribute> projection,
+      List<SearchDataDto> searchData, LinkedList<SortDto> sort, List<KeysetKey> keysetKeys,
+      boolean windowCount) {
     var sqlBuilder = new StringBuilder();
 
-    sqlBuilder.append("SELECT ")
-        .append(searchInfoInterface.getTableAlias())
-        .append(".* FROM ")
+    sqlBuilder.append("SELECT ");
+    if (isEmpty(projection) && isEmpty(selectColumns)) {
+      sqlBuilder.append(searchInfoInterface.getTableAlias())
+          .append(".*");
+    } else if (isEmpty(projection)) {
+      // Только колонки, которые читает маппер строк
+      sqlBuilder.append(selectColumns.stream()
+          .map(column -> "%s.%s".formatted(searchInfoInterface.getTableAlias(), column))
+          .collect(joining(", ")));
+    } else {
+      // Только выбранные колонки: не передаём по сети и не распаковываем из TOAST остальные
+      sqlBuilder.append(projection.stream()
+          .map(attr -> "%s AS \"%s\"".formatted(
+              searchInfoInterface.getFullColumnNameByAttribute(attr), attr.json().key()))
+          .collect(joining(", ")));
+    }
+
+    for (var i = 0; i < keysetKeys.size(); i++) {
+      sqlBuilder.append(", ")
+          .append(keysetKeys.get(i).column())
+          .append(" AS ")
+          .append(NativeContentQuery.keysetColumnAlias(i));
+    }
+
+    if (windowCount) {
+      sqlBuilder.append(", COUNT(*) OVER() AS ")
+          .append(NativeContentQuery.TOTAL_COUNT_COLUMN_ALIAS);
+    }
+
+    var outerJoins = collectOuterJoins(projection, sort);
+    return appendFromWithJoinsAndWhere(sqlBuilder,
+        collectContentJoins(projection, searchData, sort), searchData, outerJoins);
+  }
+
+  /**
+   * Джойны основного запроса: фильтров, сортировки и выборки.
+   */
+  private Set<JoinInfo> collectContentJoins(List<NativeSearchAttribute> projection,
+      List<SearchDataDto> searchData, LinkedList<SortDto> sort) {
+    var outerJoins = collectOuterJoins(projection, sort);
+    var uniqueJoins = collectFilterJoins(searchData, outerJoins);
+    uniqueJoins.addAll(outerJoins);
+    return uniqueJoins;
+  }
+
+  /**
+   * FROM запросов подсчёта. Джойны сортировки и выборки остаются, только если могут изменить
+   * количество строк (см. {@link #collectCountJoins}).
+   */
+  private String buildCountFromWithJoinsAndWhere(List<NativeSearchAttribute> projection,
+      List<SearchDataDto> searchData, LinkedList<SortDto> sort) {
+    var outerJoins = collectOuterJoins(projection, sort);
+    var countJoins = collectCountJoins(collectFilterJoins(searchData, outerJoins), outerJoins);
+    return appendFromWithJoinsAndWhere(new StringBuilder(), countJoins, searchData, outerJoins)
+        .toString();
+  }
+
+  /**
+   * @param outerJoins джойны сортировки и выборки, от них зависит способ фильтрации по связям
+   *                   один ко многим, поэтому условия одинаковы в запросах страницы и подсчёта
+   */
+  private StringBuilder appendFromWithJoinsAndWhere(StringBuilder sqlBuilder,
+      Set<JoinInfo> uniqueJoins, List<SearchDataDto> searchData, Set<JoinInfo> outerJoins) {
+    sqlBuilder.append(" FROM ")
         .append(searchInfoInterface.getFullTableName())
         .append(LF);
 
-    var uniqueJoins = collectUniqueJoins(searchData, sort);
-
     if (isNotEmpty(uniqueJoins)) {
       var joinsSql = uniqueJoins.stream()
           .sorted(Comparator.comparingInt(JoinInfo::order))
@@ -83,7 +525,7 @@ public abstract class AbstractNativeSqlService<E> {
 
     var whereConditions = new ArrayList<String>();
     if (isNotEmpty(searchData)) {
-      searchData.forEach(data -> whereConditions.add(buildCondition(data, params)));
+      searchData.forEach(data -> whereConditions.add(buildCondition(data, outerJoins)));
     }
 
     if (isNotEmpty(whereConditions)) {
@@ -96,20 +538,215 @@ public abstract class AbstractNativeSqlService<E> {
     return sqlBuilder;
   }
 
-  private String buildCountQuery(String sql) {
+  private String buildCountQuery(String fromWithJoinsAndWhere) {
     return "SELECT COUNT(%s.*) %s".formatted(searchInfoInterface.getTableAlias(),
-        extractFromWithJoinsAndWhere(sql));
+        fromWithJoinsAndWhere);
+  }
+
+  private String buildCappedCountQuery(String fromWithJoinsAndWhere) {
+    return "SELECT COUNT(*) FROM (SELECT 1%sLIMIT ?) AS capped".formatted(fromWithJoinsAndWhere);
   }
 
   private Long getPageSize(PaginationDto pagination) {
+    if (isKeyset(pagination)) {
+      return nonNull(pagination.size()) ? pagination.size() : defaultPageSize;
+    }
+
     return nonNull(pagination) && nonNull(pagination.page()) ? pagination.size() : defaultPageSize;
   }
 
-  private void addPagination(StringBuilder sqlBuilder, LinkedList<Object> params,
-      PaginationDto pagination, Long limit) {
+  private boolean isKeyset(PaginationDto pagination) {
+    return nonNull(pagination) && pagination.isKeyset();
+  }
+
+  private boolean isSeek(PaginationDto pagination) {
+    return isKeyset(pagination) && nonNull(pagination.cursor());
+  }
+
+  /**
+   * Номера ключей курсора со значением NULL: для них условие продолжения строится без параметра,
+   * поэтому они входят в форму запроса.
+   */
+  private List<Integer> getSeekNullKeys(LinkedList<SortDto> sort, PaginationDto pagination) {
+    if (!isSeek(pagination)) {
+      return List.of();
+    }
+
+    var values = KeysetCursorCodec.decode(pagination.cursor(), size(sort) + 1);
+    return IntStream.range(0, values.size())
+        .filter(index -> isNull(values.get(index)))
+        .boxed()
+        .toList();
+  }
+
+  private boolean isFirstPage(PaginationDto pagination) {
+    return isNull(pagination) || isKeyset(pagination) || isNull(pagination.page())
+        || Objects.equals(pagination.page(), 0);
+  }
+
+  private void addPagination(StringBuilder sqlBuilder, PaginationDto pagination) {
+    if (isKeyset(pagination)) {
+      sqlBuilder.append("LIMIT ?");
+    } else if (nonNull(pagination)) {
+      sqlBuilder.append("LIMIT ? OFFSET ?");
+    }
+  }
+
+  private void addKeysetParameters(LinkedList<Object> params, PaginationDto pagination,
+      NativeQueryTemplate template, Long pageSize) {
+    if (nonNull(pagination.cursor())) {
+      var values = KeysetCursorCodec.decode(pagination.cursor(), template.keysetTypes().size());
+      template.seekParameterOrder().forEach(index -> params.add(
+          convertIsoValue(values.get(index), template.keysetTypes().get(index))));
+    }
+
+    // Лишняя строка нужна только для определения наличия следующей страницы
+    params.add(pageSize + 1);
+  }
+
+  private <R> SearchResponseDto<R> buildKeysetResponse(CountResult countResult, Long pageSize,
+      NativeContent<R> result) {
+    var rows = result.rows();
+    var moreRows = rows.size() > pageSize;
+    List<R> content = moreRows ? new ArrayList<>(rows.subList(0, pageSize.intValue())) : rows;
+    var nextCursor = moreRows
+        ? KeysetCursorCodec.encode(result.rowKeys().get(pageSize.intValue() - 1))
+        : null;
+
+    return new SearchResponseDto<>(countResult.totalElements(),
+        calculateTotalPages(countResult.totalElements(), pageSize), moreRows, content, nextCursor,
+        countResult.type());
+  }
+
+  private List<KeysetKey> collectKeysetKeys(LinkedList<SortDto> sort) {
+    var keys = new ArrayList<KeysetKey>();
+    var tiebreakerDirection = ASC;
+    if (isNotEmpty(sort)) {
+      for (var dto : sort) {
+        var attr = searchInfoInterface.getAttributeByJsonKey(dto.attribute(),
+            "Сортировка по атрибуту %s запрещена".formatted(dto.attribute()));
+        if (Objects.equals(dto.direction(), RELEVANCE)) {
+          throw new ValidationException(
+              "Сортировка по релевантности не поддерживается keyset-пагинацией");
+        }
+
+        var direction = Objects.equals(dto.direction(), DESC) ? DESC : ASC;
+        keys.add(new KeysetKey(searchInfoInterface.getFullColumnNameByAttribute(attr),
+            attr.db().type(), direction, true));
+        tiebreakerDirection = direction;
+      }
+    }
+
+    keys.add(new KeysetKey("%s.%s".formatted(searchInfoInterface.getTableAlias(),
+        KEYSET_TIEBREAKER_COLUMN), Long.class, tiebreakerDirection, false));
+    return keys;
+  }
+
+  /**
+   * Условие продолжения после строки курсора. Порядок NULL в PostgreSQL по умолчанию: в конце при
+   * ASC и в начале при DESC, то есть NULL больше любого значения. Сравнение с NULL даёт NULL,
+   * поэтому ключи сортировки, которые могут быть NULL, сравниваются через IS NULL / IS NOT NULL.
+   *
+   * @param nullKeys номера ключей курсора со значением NULL
+   */
+  private String buildSeekCondition(List<KeysetKey> keys, List<Integer> nullKeys,
+      List<Integer> parameterOrder) {
+    var directions = keys.stream()
+        .map(KeysetKey::direction)
+        .distinct()
+        .toList();
+
+    // При одинаковом направлении сортировки используем сравнение row-value, которое PostgreSQL
+    // умеет обслуживать составным индексом
+    if (Objects.equals(directions.size(), 1) && nullKeys.isEmpty()) {
+      for (var i = 0; i < keys.size(); i++) {
+        parameterOrder.add(i);
+      }
+
+      var rowValue = "(%s) %s (%s)".formatted(
+          keys.stream().map(KeysetKey::column).collect(joining(", ")),
+          getSeekComparison(directions.getFirst()),
+          join(", ", nCopies(keys.size(), "?")));
+      if (Objects.equals(directions.getFirst(), DESC)) {
+        // Строки с NULL при DESC идут раньше курсора
+        return rowValue;
+      }
+
+      // Строки с NULL при ASC идут после курсора, но row-value их не включает
+      var alternatives = new ArrayList<String>();
+      alternatives.add(rowValue);
+      for (var i = 0; i < keys.size(); i++) {
+        if (keys.get(i).nullable()) {
+          var parts = buildSeekEqualities(keys, i, nullKeys, parameterOrder);
+          parts.add("%s IS NULL".formatted(keys.get(i).column()));
+          alternatives.add("(%s)".formatted(join(" AND ", parts)));
+        }
+      }
+
+      return alternatives.size() == 1 ? rowValue : "(%s)".formatted(join(" OR ", alternatives));
+    }
+
+    var alternatives = new ArrayList<String>();
+    for (var i = 0; i < keys.size(); i++) {
+      var key = keys.get(i);
+      var nullValue = nullKeys.contains(i);
+      if (nullValue && Objects.equals(key.direction(), ASC)) {
+        // После NULL при ASC значений этого ключа нет
+        continue;
+      }
+
+      var parts = buildSeekEqualities(keys, i, nullKeys, parameterOrder);
+      if (nullValue) {
+        parts.add("%s IS NOT NULL".formatted(key.column()));
+      } else if (key.nullable() && Objects.equals(key.direction(), ASC)) {
+        parts.add("(%s > ? OR %s IS NULL)".formatted(key.column(), key.column()));
+        parameterOrder.add(i);
+      } else {
+        parts.add("%s %s ?".formatted(key.column(), getSeekComparison(key.direction())));
+        parameterOrder.add(i);
+      }
+
+      alternatives.add("(%s)".formatted(join(" AND ", parts)));
+    }
+
+    // Курсор указывает на последнюю строку порядка, продолжения нет
+    return alternatives.isEmpty() ? "FALSE" : "(%s)".formatted(join(" OR ", alternatives));
+  }
+
+  /**
+   * Равенство ключей, предшествующих ключу с заданным номером, значениям курсора.
+   */
+  private List<String> buildSeekEqualities(List<KeysetKey> keys, int index,
+      List<Integer> nullKeys, List<Integer> parameterOrder) {
+    var parts = new ArrayList<String>();
+    for (var j = 0; j < index; j++) {
+      if (nullKeys.contains(j)) {
+        parts.add("%s IS NULL".formatted(keys.get(j).column()));
+      } else {
+        parts.add("%s = ?".formatted(keys.get(j).column()));
+        parameterOrder.add(j);
+      }
+    }
+
+    return parts;
+  }
+
+  private String getSeekComparison(Direction direction) {
+    return Objects.equals(direction, DESC) ? "<" : ">";
+  }
+
+  private void addKeysetOrderBy(StringBuilder sqlBuilder, List<KeysetKey> keys) {
+    sqlBuilder.append("ORDER BY ")
+        .append(keys.stream()
+            .map(key -> "%s %s".formatted(key.column(), key.direction()))
+            .collect(joining(", ")))
+        .append(LF);
+  }
+
+  private void addPaginationParameters(LinkedList<Object> params, PaginationDto pagination,
+      Long limit) {
     if (nonNull(pagination)) {
       var offset = nonNull(pagination.page()) ? pagination.page() * limit : 0;
-      sqlBuilder.append("LIMIT ? OFFSET ?");
       params.add(limit);
       params.add(offset);
     }
@@ -136,14 +773,16 @@ public abstract class AbstractNativeSqlService<E> {
         && (pagination.page() + 1) < totalPages;
   }
 
-  private Set<JoinInfo> collectUniqueJoins(List<SearchDataDto> searchData,
+  /**
+   * Джойны, которые должны присутствовать во внешнем запросе независимо от фильтров: для
+   * выбираемых атрибутов и атрибутов сортировки.
+   */
+  private Set<JoinInfo> collectOuterJoins(List<NativeSearchAttribute> projection,
       LinkedList<SortDto> sort) {
     var joins = new LinkedHashSet<JoinInfo>();
-    if (isNotEmpty(searchData)) {
-      searchData.forEach(dto -> searchInfoInterface.getMultipleAttributeByJsonKey(
-              dto.attribute())
-          .ifPresent(attr -> joins.addAll(attr.db().joinInfo())));
-    }
+    projection.stream()
+        .filter(attr -> isNotEmpty(attr.db().joinInfo()))
+        .forEach(attr -> joins.addAll(attr.db().joinInfo()));
 
     if (isNotEmpty(sort)) {
       sort.forEach(dto -> searchInfoInterface.getMultipleAttributeByJsonKey(
@@ -154,22 +793,161 @@ public abstract class AbstractNativeSqlService<E> {
     return joins;
   }
 
-  private String buildCondition(SearchDataDto searchData, List<Object> params) {
+  private Set<JoinInfo> collectFilterJoins(List<SearchDataDto> searchData,
+      Set<JoinInfo> outerJoins) {
+    var joins = new LinkedHashSet<JoinInfo>();
+    if (isNotEmpty(searchData)) {
+      searchData.forEach(dto -> searchInfoInterface.getMultipleAttributeByJsonKey(
+              dto.attribute())
+          .ifPresent(attr -> joins.addAll(getOuterJoins(attr, dto.operator(), outerJoins))));
+    }
+
+    return joins;
+  }
+
+  /**
+   * Джойны запроса подсчёта: джойны фильтров и те джойны сортировки и выборки, которые могут
+   * изменить количество строк, вместе с джойнами, на которые они ссылаются. Джойн, явно
+   * объявленный связью к одной записи (cardinality: TO_ONE) и не отбрасывающий строк (LEFT JOIN
+   * или INNER JOIN с nullable: false), на количество не влияет.
+   */
+  private Set<JoinInfo> collectCountJoins(Set<JoinInfo> filterJoins, Set<JoinInfo> outerJoins) {
+    var joins = new LinkedHashSet<>(filterJoins);
+    outerJoins.stream()
+        .filter(join -> !preservesRowCount(join))
+        .forEach(joins::add);
+
+    var added = true;
+    while (added) {
+      added = false;
+      for (var join : outerJoins) {
+        if (!joins.contains(join) && joins.stream().anyMatch(kept ->
+            Objects.equals(kept.reference().alias(), join.join().alias()))) {
+          added = joins.add(join);
+        }
+      }
+    }
+
+    return joins;
+  }
+
+  private boolean preservesRowCount(JoinInfo join) {
+    // Без явного cardinality: TO_ONE джойн может размножать строки так же, как в запросе страницы
+    if (!join.isToOne()) {
+      return false;
+    }
+
+    return Objects.equals(join.type(), LEFT_JOIN)
+        || Objects.equals(join.type(), INNER_JOIN) && join.isMandatory();
+  }
+
+  /**
+   * Джойны атрибута, попадающие во внешний запрос. Для фильтра по связи один ко многим во внешний
+   * запрос попадают только джойны до этой связи, остальные уходят в подзапрос EXISTS.
+   */
+  private List<JoinInfo> getOuterJoins(NativeSearchAttribute attr, Operator operator,
+      Set<JoinInfo> outerJoins) {
+    var joins = getOrderedJoins(attr);
+    var toManyIndex = getSemiJoinIndex(joins, operator, outerJoins);
+    return toManyIndex < 0 ? joins : joins.subList(0, toManyIndex);
+  }
+
+  /**
+   * Индекс первой связи один ко многим, начиная с которой фильтр выполняется подзапросом EXISTS,
+   * или -1, если фильтр выполняется через обычные джойны. Джойны остаются, если по связи
+   * выполняется сортировка или выборка, а также для IS_NULL, которому нужно отсутствие связанной строки.
+   */
+  private int getSemiJoinIndex(List<JoinInfo> joins, Operator operator,
+      Set<JoinInfo> outerJoins) {
+    if (Objects.equals(operator, IS_NULL)) {
+      return -1;
+    }
+
+    for (var i = 0; i < joins.size(); i++) {
+      var join = joins.get(i);
+      if (join.isToMany()) {
+        return outerJoins.contains(join) ? -1 : i;
+      }
+    }
+
+    return -1;
+  }
+
+  private List<JoinInfo> getOrderedJoins(NativeSearchAttribute attr) {
+    if (isEmpty(attr.db().joinInfo())) {
+      return List.of();
+    }
+
+    return attr.db().joinInfo().stream()
+        .sorted(Comparator.comparingInt(JoinInfo::order))
+        .toList();
+  }
+
+  private String buildCondition(SearchDataDto searchData, Set<JoinInfo> outerJoins) {
     var attribute = searchData.attribute();
     var attr = searchInfoInterface.getAttributeByJsonKey(attribute,
         "Фильтрация по атрибуту %s запрещена".formatted(attribute));
-    return buildCondition(
-        searchInfoInterface.getFullColumnNameByAttribute(attr),
-        searchData.operator(), searchData.value(), params, attr.db().type());
+    var dbField = searchInfoInterface.getFullColumnNameByAttribute(attr);
+    var fieldType = attr.db().type();
+    checkTrigramIndex(searchData.operator(), attr.db().trigram(), attribute);
+    String condition;
+    if (isArrayBound(searchData, fieldType)) {
+      condition = "%s = ANY(CAST(? AS %s[]))".formatted(dbField,
+          ARRAY_ELEMENT_TYPES.get(fieldType));
+    } else if (Objects.equals(searchData.operator(), FULL_TEXT)) {
+      condition = TextSearchSql.buildMatchCondition(getTextSearchVector(attr),
+          getTextSearchConfig(attr));
+    } else if (Objects.equals(searchData.operator(), SIMILAR)
+        && nonNull(attr.db().trigram().similarityThreshold())) {
+      condition = TrigramSql.buildSimilarCondition(dbField,
+          attr.db().trigram().similarityThreshold());
+    } else {
+      condition = buildCondition(dbField, searchData.operator(), searchData.value());
+    }
+
+    var joins = getOrderedJoins(attr);
+    var toManyIndex = getSemiJoinIndex(joins, searchData.operator(), outerJoins);
+    return toManyIndex < 0
+        ? condition
+        : buildSemiJoinCondition(joins.subList(toManyIndex, joins.size()), condition);
   }
 
-  private String buildCondition(String dbField, Operator operator, List<String> values,
-      List<Object> params, Class<?> fieldType) {
-    operator.checkValue(values);
+  private void checkTrigramIndex(Operator operator, TrigramData trigram, String attribute) {
+    if (operator.isTrigram() && isNull(trigram)) {
+      throw new ValidationException(
+          "Оператор %s недоступен для атрибута %s без триграммного индекса"
+              .formatted(operator, attribute));
+    }
+  }
+
+  /**
+   * Фильтр по связи один ко многим в виде коррелированного подзапроса EXISTS: строка корневой
+   * таблицы не размножается по связанным строкам, а параметры условия остаются на своих местах.
+   */
+  private String buildSemiJoinCondition(List<JoinInfo> joins, String condition) {
+    var first = joins.getFirst();
+    var sqlBuilder = new StringBuilder("EXISTS (SELECT 1 FROM ")
+        .append("%s.%s AS %s".formatted(searchInfoInterface.getSchemaName(),
+            first.join().table(), first.join().alias()));
+
+    joins.stream()
+        .skip(1)
+        .forEach(join -> sqlBuilder.append(LF)
+            .append(searchInfoInterface.createJoinString(join)));
+
+    return sqlBuilder.append(LF)
+        .append("WHERE %s.%s = %s.%s".formatted(first.join().alias(), first.join().column(),
+            first.reference().alias(), first.reference().column()))
+        .append(LF)
+        .append("AND ")
+        .append(condition)
+        .append(")")
+        .toString();
+  }
 
-    var condition = operator.buildNativeCondition(dbField, values);
-    params.addAll(operator.getNativeTransformValueFunction().apply(values, fieldType));
-    return condition;
+  private String buildCondition(String dbField, Operator operator, List<String> values) {
+    // Значения проверены checkValues до компиляции шаблона
+    return operator.buildNativeCondition(dbField, values);
   }
 
   private String buildOrder(LinkedList<SortDto> sort) {
@@ -188,25 +966,42 @@ public abstract class AbstractNativeSqlService<E> {
     var attribute = sort.attribute();
     var attr = searchInfoInterface.getAttributeByJsonKey(attribute,
         "Сортировка по атрибуту %s запрещена".formatted(attribute));
+    if (Objects.equals(sort.direction(), RELEVANCE)) {
+      return "%s DESC".formatted(TextSearchSql.buildRank(getTextSearchVector(attr),
+          getTextSearchConfig(attr)));
+    }
+
     return "%s %s".formatted(
         searchInfoInterface.getFullColumnNameByAttribute(attr),
         sort.direction());
   }
 
-  private String extractFromWithJoinsAndWhere(String sql) {
-    int fromIndex = sql.indexOf(" FROM ");
-    var orderByIndex = sql.indexOf(" ORDER BY ", fromIndex);
-    var limitIndex = sql.indexOf(" LIMIT ", fromIndex);
-
-    int endIndex = sql.length();
-    if (orderByIndex != -1) {
-      endIndex = Math.min(endIndex, orderByIndex);
+  /**
+   * Документ полнотекстового поиска: колонка tsvector из настроек атрибута либо выражение
+   * to_tsvector над его колонкой, которое может покрываться GIN-индексом по тому же выражению.
+   */
+  private String getTextSearchVector(NativeSearchAttribute attr) {
+    var textSearch = attr.db().textSearch();
+    if (nonNull(textSearch) && nonNull(textSearch.vectorColumn())) {
+      // Колонка tsvector находится в той же таблице, что и колонка атрибута
+      return searchInfoInterface.getFullColumnNameByAttribute(new NativeSearchAttribute(
+          attr.type(), attr.json(), new DbData(textSearch.vectorColumn(), Object.class,
+          attr.db().joinInfo(), null, null)));
     }
 
-    if (limitIndex != -1) {
-      endIndex = Math.min(endIndex, limitIndex);
-    }
+    return TextSearchSql.buildDocumentVector(
+        searchInfoInterface.getFullColumnNameByAttribute(attr), getTextSearchConfig(attr));
+  }
+
+  private String getTextSearchConfig(NativeSearchAttribute attr) {
+    var textSearch = attr.db().textSearch();
+    return nonNull(textSearch) ? textSearch.config() : DEFAULT_TEXT_SEARCH_CONFIG;
+  }
+
+  /**
+   * @param nullable может ли значение ключа быть NULL
+   */
+  private record KeysetKey(String column, Class<?> type, Direction direction, boolean nullable) {
 
-    return sql.substring(fromIndex, endIndex);
   }
 }
@@ -0,0 +1,19 @@
+package ru.tecius.telemed.nativ.service;
+
+import java.lang.reflect.Array;
+import java.util.List;
+
+/**
+ * Значения оператора IN, связываемые одним параметром-массивом.
+ *
+ * @param elementType имя типа элементов массива в PostgreSQL
+ * @param values      значения в массиве с типом элементов атрибута
+ */
+record ArrayParameter(String elementType, Object[] values) {
+
+  static ArrayParameter of(String elementType, Class<?> fieldType, List<Object> values) {
+    var array = (Object[]) Array.newInstance(fieldType, values.size());
+    return new ArrayParameter(elementType, values.toArray(array));
+  }
+
+}
@@ -0,0 +1,30 @@
+package ru.tecius.telemed.nativ.service;
+
+import static java.util.Objects.nonNull;
+
+import ru.tecius.telemed.common.count.CountStrategy;
+import ru.tecius.telemed.dto.request.SearchRequestDto;
+import ru.tecius.telemed.dto.response.SearchResponseDto;
+
+/**
+ * Поиск в составе пакета {@link JdbcNativeBatchSearchService}.
+ *
+ * @param service       сервис сущности, по которой выполняется поиск
+ * @param request       поисковый запрос, при заданных fields - выборка перечисленных атрибутов
+ * @param countStrategy стратегия подсчёта, null - без подсчёта
+ */
+public record BatchSearchItem<E>(JdbcNativeSqlService<E> service,
+                                 SearchRequestDto request,
+                                 CountStrategy countStrategy) {
+
+  SearchResponseDto<?> execute() {
+    if (nonNull(request.fields())) {
+      return service.searchFields(request.fields(), request.searchData(), request.sort(),
+          request.pagination(), countStrategy);
+    }
+
+    return service.search(request.searchData(), request.sort(), request.pagination(),
+        countStrategy);
+  }
+
+}
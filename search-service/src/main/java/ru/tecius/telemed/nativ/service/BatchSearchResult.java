@@ -0,0 +1,25 @@
+package ru.tecius.telemed.nativ.service;
+
+import static java.util.Objects.isNull;
+
+import ru.tecius.telemed.dto.response.SearchResponseDto;
+
+/**
+ * Результат поиска в составе пакета: ответ или ошибка, на остальные поиски пакета не влияющая.
+ */
+public record BatchSearchResult(SearchResponseDto<?> response,
+                                RuntimeException error) {
+
+  public static BatchSearchResult success(SearchResponseDto<?> response) {
+    return new BatchSearchResult(response, null);
+  }
+
+  public static BatchSearchResult failure(RuntimeException error) {
+    return new BatchSearchResult(null, error);
+  }
+
+  public boolean isSuccess() {
+    return isNull(error);
+  }
+
+}
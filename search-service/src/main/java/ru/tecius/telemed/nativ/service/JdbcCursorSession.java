@@ -0,0 +1,100 @@
+package ru.tecius.telemed.nativ.service;
+
+import static java.util.Objects.nonNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * Открытый серверный курсор для потокового чтения результата. Драйвер PostgreSQL использует
+ * курсор и читает строки порциями по fetchSize только при выключенном autocommit, поэтому вне
+ * внешней транзакции сессия сама открывает транзакцию только для чтения и завершает её при
+ * закрытии.
+ */
+final class JdbcCursorSession implements AutoCloseable {
+
+  private static final String TASK = "Streaming native search";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final DataSource dataSource;
+  private final Connection connection;
+  private final String sql;
+  private boolean ownTransaction;
+  private boolean previousReadOnly;
+  private PreparedStatement statement;
+  private ResultSet resultSet;
+
+  private JdbcCursorSession(JdbcTemplate jdbcTemplate, DataSource dataSource,
+      Connection connection, String sql) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.dataSource = dataSource;
+    this.connection = connection;
+    this.sql = sql;
+  }
+
+  static JdbcCursorSession open(JdbcTemplate jdbcTemplate, String sql, List<Object> params,
+      int fetchSize) {
+    var dataSource = jdbcTemplate.getDataSource();
+    var session = new JdbcCursorSession(jdbcTemplate, dataSource,
+        DataSourceUtils.getConnection(dataSource), sql);
+    try {
+      session.execute(params, fetchSize);
+      return session;
+    } catch (SQLException ex) {
+      session.close();
+      throw session.translate(ex);
+    }
+  }
+
+  ResultSet resultSet() {
+    return resultSet;
+  }
+
+  DataAccessException translate(SQLException ex) {
+    var translated = jdbcTemplate.getExceptionTranslator().translate(TASK, sql, ex);
+    return nonNull(translated) ? translated : new UncategorizedSQLException(TASK, sql, ex);
+  }
+
+  @Override
+  public void close() {
+    JdbcUtils.closeResultSet(resultSet);
+    JdbcUtils.closeStatement(statement);
+    try {
+      if (ownTransaction) {
+        connection.commit();
+        connection.setAutoCommit(true);
+        connection.setReadOnly(previousReadOnly);
+      }
+    } catch (SQLException ex) {
+      throw translate(ex);
+    } finally {
+      DataSourceUtils.releaseConnection(connection, dataSource);
+    }
+  }
+
+  private void execute(List<Object> params, int fetchSize) throws SQLException {
+    if (connection.getAutoCommit()) {
+      ownTransaction = true;
+      previousReadOnly = connection.isReadOnly();
+      connection.setAutoCommit(false);
+      connection.setReadOnly(true);
+    }
+
+    statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+        ResultSet.CONCUR_READ_ONLY);
+    statement.setFetchSize(fetchSize);
+    new ArgumentPreparedStatementSetter(JdbcParameters.toArgs(params)).setValues(statement);
+    resultSet = statement.executeQuery();
+  }
+
+}
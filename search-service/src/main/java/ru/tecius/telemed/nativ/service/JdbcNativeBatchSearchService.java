@@ -0,0 +1,60 @@
+package ru.tecius.telemed.nativ.service;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Пакетное выполнение поисков, в том числе по разным сущностям, в одной читающей транзакции на
+ * одном соединении: вместо получения соединения из пула на каждый запрос пакет получает его один
+ * раз. Каждый поиск выполняется под точкой сохранения, поэтому ошибка одного поиска не прерывает
+ * транзакцию и не влияет на остальные.
+ *
+ * <p>Сервисы пакета должны работать с тем же DataSource. Сервис с одновременным подсчётом
+ * выполняет подсчёт на отдельном соединении вне транзакции пакета.
+ */
+public class JdbcNativeBatchSearchService {
+
+  private final TransactionTemplate transactionTemplate;
+
+  public JdbcNativeBatchSearchService(JdbcTemplate jdbcTemplate) {
+    this(new DataSourceTransactionManager(requireNonNull(jdbcTemplate.getDataSource())));
+  }
+
+  /**
+   * @param transactionManager менеджер транзакций DataSource сервисов; при вызове внутри
+   *                           транзакции JPA - JpaTransactionManager этой транзакции
+   */
+  public JdbcNativeBatchSearchService(PlatformTransactionManager transactionManager) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+  }
+
+  /**
+   * @return результаты в порядке поисков пакета
+   */
+  public List<BatchSearchResult> search(List<BatchSearchItem<?>> items) {
+    return transactionTemplate.execute(status -> items.stream()
+        .map(item -> search(status, item))
+        .toList());
+  }
+
+  private BatchSearchResult search(TransactionStatus status, BatchSearchItem<?> item) {
+    // Ошибка запроса прерывает транзакцию PostgreSQL, откат к точке сохранения восстанавливает её
+    var savepoint = status.createSavepoint();
+    try {
+      var response = item.execute();
+      status.releaseSavepoint(savepoint);
+      return BatchSearchResult.success(response);
+    } catch (RuntimeException ex) {
+      status.rollbackToSavepoint(savepoint);
+      return BatchSearchResult.failure(ex);
+    }
+  }
+
+}
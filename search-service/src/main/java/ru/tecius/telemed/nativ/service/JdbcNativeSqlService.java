@@ -1,19 +1,49 @@
 package ru.tecius.telemed.nativ.service;
 
+import static java.util.Objects.nonNull;
+import static ru.tecius.telemed.common.observation.SearchPhase.MAPPING;
+import static ru.tecius.telemed.nativ.service.NativeCountMode.NONE;
+import static ru.tecius.telemed.nativ.service.NativeCountMode.WINDOW_FUNCTION;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import ru.tecius.telemed.common.count.CountStrategy;
+import ru.tecius.telemed.common.jfr.SearchPhaseEvent;
+import ru.tecius.telemed.common.nativ.NativeRowColumns;
 import ru.tecius.telemed.common.nativ.SearchInfoInterface;
+import ru.tecius.telemed.common.observation.SearchEngine;
+import ru.tecius.telemed.common.observation.SearchTrace;
 import ru.tecius.telemed.dto.request.PaginationDto;
 import ru.tecius.telemed.dto.request.SearchDataDto;
 import ru.tecius.telemed.dto.request.SortDto;
 import ru.tecius.telemed.dto.response.SearchResponseDto;
+import ru.tecius.telemed.nativ.plan.PlanCacheMode;
+import ru.tecius.telemed.nativ.plan.ProjectedColumn;
 
 public class JdbcNativeSqlService<E> extends AbstractNativeSqlService<E> {
 
+  public static final int DEFAULT_FETCH_SIZE = 500;
+
   private final JdbcTemplate jdbcTemplate;
   private final RowMapper<E> rowMapper;
+  private final JdbcNativeStatementExecutor statementExecutor;
 
   public JdbcNativeSqlService(
       JdbcTemplate jdbcTemplate,
@@ -22,19 +52,192 @@ public class JdbcNativeSqlService<E> extends AbstractNativeSqlService<E> {
       Long defaultPageSize
 
   ) {
-    super(searchInfoInterface, defaultPageSize);
+    this(jdbcTemplate, rowMapper, searchInfoInterface, defaultPageSize,
+        NativeSearchOptions.defaults());
+  }
+
+  /**
+   * @param options настройки сервиса. При заданном исполнителе одновременных запросов подсчёт на
+   *                виртуальном потоке получает отдельное соединение из пула и не видит
+   *                незафиксированных изменений транзакции вызывающего кода
+   */
+  public JdbcNativeSqlService(
+      JdbcTemplate jdbcTemplate,
+      RowMapper<E> rowMapper,
+      SearchInfoInterface<E> searchInfoInterface,
+      Long defaultPageSize,
+      NativeSearchOptions options
+  ) {
+    super(searchInfoInterface, defaultPageSize, options,
+        options.selectRowMapperColumns() && rowMapper instanceof NativeRowColumns rowColumns
+            ? rowColumns.getColumnNames()
+            : List.of());
     this.jdbcTemplate = jdbcTemplate;
     this.rowMapper = rowMapper;
+    this.statementExecutor = new JdbcNativeStatementExecutor(jdbcTemplate);
   }
 
   public SearchResponseDto<E> search(List<SearchDataDto> searchData, LinkedList<SortDto> sort,
       PaginationDto pagination, boolean needCalculateCount) {
     return search(searchData, sort, pagination,
-        (countSql, params) -> jdbcTemplate.queryForObject(countSql,
-            Long.class, params.toArray()),
-        (sql, params) -> jdbcTemplate.query(sql,
-            rowMapper, params.toArray()),
-        needCalculateCount);
+        needCalculateCount ? CountStrategy.exact() : null);
+  }
+
+  public SearchResponseDto<E> search(List<SearchDataDto> searchData, LinkedList<SortDto> sort,
+      PaginationDto pagination, NativeCountMode countMode) {
+    return search(null, searchData, sort, pagination, statementExecutor, this::queryContent,
+        Objects.equals(countMode, NONE) ? null : CountStrategy.exact(),
+        Objects.equals(countMode, WINDOW_FUNCTION));
+  }
+
+  public SearchResponseDto<E> search(List<SearchDataDto> searchData, LinkedList<SortDto> sort,
+      PaginationDto pagination, CountStrategy countStrategy) {
+    return search(null, searchData, sort, pagination, statementExecutor, this::queryContent,
+        countStrategy, false);
+  }
+
+  /**
+   * Поиск с выборкой только перечисленных атрибутов. Строка результата - значения атрибутов по
+   * JSON-ключам в порядке fields.
+   */
+  public SearchResponseDto<Map<String, Object>> searchFields(List<String> fields,
+      List<SearchDataDto> searchData, LinkedList<SortDto> sort, PaginationDto pagination,
+      CountStrategy countStrategy) {
+    return search(fields, searchData, sort, pagination, statementExecutor,
+        (query, trace) -> queryRows(query, trace,
+            (rs, rowNum) -> readProjection(rs, query.projection())),
+        countStrategy, false);
+  }
+
+  /**
+   * Потоковый поиск без пагинации. Строки читаются серверным курсором порциями по
+   * {@link #DEFAULT_FETCH_SIZE}, поэтому потребление памяти не зависит от размера выборки.
+   * Поток держит соединение и должен быть закрыт вызывающим кодом (try-with-resources).
+   */
+  public Stream<E> stream(List<SearchDataDto> searchData, LinkedList<SortDto> sort) {
+    return stream(searchData, sort, DEFAULT_FETCH_SIZE);
+  }
+
+  public Stream<E> stream(List<SearchDataDto> searchData, LinkedList<SortDto> sort,
+      int fetchSize) {
+    var query = buildStreamingQuery(searchData, sort);
+    var session = JdbcCursorSession.open(jdbcTemplate, query.sql(), query.params(), fetchSize);
+    var rowNum = new AtomicInteger();
+    var spliterator = new Spliterators.AbstractSpliterator<E>(Long.MAX_VALUE,
+        Spliterator.ORDERED | Spliterator.NONNULL) {
+
+      @Override
+      public boolean tryAdvance(Consumer<? super E> action) {
+        try {
+          if (!session.resultSet().next()) {
+            return false;
+          }
+
+          action.accept(rowMapper.mapRow(session.resultSet(), rowNum.getAndIncrement()));
+          return true;
+        } catch (SQLException ex) {
+          throw session.translate(ex);
+        }
+      }
+    };
+
+    return StreamSupport.stream(spliterator, false)
+        .onClose(session::close);
+  }
+
+  /**
+   * Потоковый поиск без пагинации с обработкой каждой строки обработчиком.
+   */
+  public void forEach(List<SearchDataDto> searchData, LinkedList<SortDto> sort, int fetchSize,
+      Consumer<? super E> rowHandler) {
+    try (var rows = stream(searchData, sort, fetchSize)) {
+      rows.forEach(rowHandler);
+    }
+  }
+
+  @Override
+  protected <T> T withPlanCacheMode(PlanCacheMode planCacheMode, Supplier<T> action) {
+    return statementExecutor.withPlanCacheMode(planCacheMode, action);
+  }
+
+  @Override
+  protected SearchEngine getEngine() {
+    return SearchEngine.JDBC;
+  }
+
+  private NativeContent<E> queryContent(NativeContentQuery query, SearchTrace trace) {
+    return queryRows(query, trace, rowMapper);
+  }
+
+  private <R> NativeContent<R> queryRows(NativeContentQuery query, SearchTrace trace,
+      RowMapper<R> rowMapper) {
+    // Строки преобразуются по мере чтения ResultSet, поэтому время преобразования суммируется, а
+    // событие JFR охватывает чтение и преобразование строк с первой до последней
+    var mappingNanos = new AtomicLong();
+    var mapEvent = new AtomicReference<SearchPhaseEvent>();
+    RowMapper<R> mapper = (rs, rowNum) -> {
+      if (Objects.equals(rowNum, 0)) {
+        mapEvent.set(trace.beginEvent(MAPPING));
+      }
+
+      var start = System.nanoTime();
+      try {
+        return rowMapper.mapRow(rs, rowNum);
+      } finally {
+        mappingNanos.addAndGet(System.nanoTime() - start);
+      }
+    };
+
+    var content = readRows(query, mapper);
+    if (nonNull(mapEvent.get())) {
+      trace.setRows(content.rows().size());
+      trace.commitEvent(mapEvent.get());
+    }
+
+    return new NativeContent<>(content.rows(), content.rowKeys(), content.totalElements(),
+        mappingNanos.get());
+  }
+
+  private <R> NativeContent<R> readRows(NativeContentQuery query, RowMapper<R> mapper) {
+    if (!query.hasExtraColumns()) {
+      return NativeContent.of(jdbcTemplate.query(query.sql(),
+          mapper, JdbcParameters.toArgs(query.params())));
+    }
+
+    var rowKeys = new ArrayList<List<Object>>();
+    var totalElements = new AtomicReference<Long>();
+    var rows = jdbcTemplate.query(query.sql(), (rs, rowNum) -> {
+      if (query.hasKeyset()) {
+        rowKeys.add(readKeysetColumns(rs, query.keysetTypes()));
+      }
+
+      if (query.windowCount() && Objects.equals(rowNum, 0)) {
+        totalElements.set(rs.getLong(NativeContentQuery.TOTAL_COUNT_COLUMN_ALIAS));
+      }
+
+      return mapper.mapRow(rs, rowNum);
+    }, JdbcParameters.toArgs(query.params()));
+    return new NativeContent<>(rows, rowKeys, totalElements.get());
+  }
+
+  private Map<String, Object> readProjection(ResultSet rs, List<ProjectedColumn> projection)
+      throws SQLException {
+    var row = new LinkedHashMap<String, Object>();
+    for (var column : projection) {
+      row.put(column.alias(), rs.getObject(column.alias(), column.type()));
+    }
+
+    return row;
+  }
+
+  private List<Object> readKeysetColumns(ResultSet rs, List<Class<?>> keysetTypes)
+      throws SQLException {
+    var keys = new ArrayList<>(keysetTypes.size());
+    for (var i = 0; i < keysetTypes.size(); i++) {
+      keys.add(rs.getObject(NativeContentQuery.keysetColumnAlias(i), keysetTypes.get(i)));
+    }
+
+    return keys;
   }
 
 }
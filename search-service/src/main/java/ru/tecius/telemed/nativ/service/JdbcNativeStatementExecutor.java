@@ -0,0 +1,135 @@
+package ru.tecius.telemed.nativ.service;
+
+import static java.util.Objects.nonNull;
+import static ru.tecius.telemed.common.count.QueryTimeouts.QUERY_CANCELED_SQL_STATE;
+import static ru.tecius.telemed.common.count.QueryTimeouts.toJdbcSeconds;
+import static ru.tecius.telemed.nativ.plan.PlanCacheMode.AUTO;
+import static ru.tecius.telemed.nativ.plan.PlanCacheMode.RESET_SQL;
+import static ru.tecius.telemed.nativ.plan.PlanCacheMode.SET_SQL;
+import static ru.tecius.telemed.nativ.service.JdbcParameters.toArgs;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.tecius.telemed.nativ.plan.PlanCacheMode;
+
+public class JdbcNativeStatementExecutor implements NativeStatementExecutor {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public JdbcNativeStatementExecutor(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public Long queryForLong(String sql, List<Object> params) {
+    return jdbcTemplate.queryForObject(sql, Long.class, toArgs(params));
+  }
+
+  @Override
+  public Optional<Long> queryForLong(String sql, List<Object> params, Duration timeout) {
+    return jdbcTemplate.execute((ConnectionCallback<Optional<Long>>) connection -> {
+      // Отмена запроса прерывает транзакцию, поэтому внутри неё работаем под точкой сохранения
+      var savepoint = connection.getAutoCommit() ? null : connection.setSavepoint();
+      try (var statement = connection.prepareStatement(sql)) {
+        statement.setQueryTimeout(toJdbcSeconds(timeout));
+        new ArgumentPreparedStatementSetter(toArgs(params)).setValues(statement);
+
+        try (var resultSet = statement.executeQuery()) {
+          resultSet.next();
+          var count = resultSet.getLong(1);
+          if (nonNull(savepoint)) {
+            connection.releaseSavepoint(savepoint);
+          }
+
+          return Optional.of(count);
+        }
+      } catch (SQLException ex) {
+        if (!Objects.equals(ex.getSQLState(), QUERY_CANCELED_SQL_STATE)) {
+          throw ex;
+        }
+
+        if (nonNull(savepoint)) {
+          connection.rollback(savepoint);
+        }
+
+        return Optional.empty();
+      }
+    });
+  }
+
+  @Override
+  public String queryForString(String sql, List<Object> params) {
+    return jdbcTemplate.queryForObject(sql, String.class, toArgs(params));
+  }
+
+  @Override
+  public String queryForStringIsolated(String sql, List<Object> params, Duration timeout) {
+    var dataSource = Objects.requireNonNull(jdbcTemplate.getDataSource());
+    // Соединение берётся из пула напрямую, минуя привязанное к транзакции
+    try (var connection = dataSource.getConnection();
+        var statement = connection.prepareStatement(sql)) {
+      statement.setQueryTimeout(toJdbcSeconds(timeout));
+      new ArgumentPreparedStatementSetter(toArgs(params)).setValues(statement);
+      try (var resultSet = statement.executeQuery()) {
+        return resultSet.next() ? resultSet.getString(1) : null;
+      }
+    } catch (SQLException ex) {
+      throw jdbcTemplate.getExceptionTranslator().translate("queryForStringIsolated", sql, ex);
+    }
+  }
+
+  @Override
+  public <T> T withPlanCacheMode(PlanCacheMode planCacheMode, Supplier<T> action) {
+    if (Objects.equals(planCacheMode, AUTO)) {
+      return action.get();
+    }
+
+    var dataSource = jdbcTemplate.getDataSource();
+    var connection = DataSourceUtils.getConnection(dataSource);
+    // Вне транзакции соединение привязывается к потоку, чтобы запросы действия попали на него
+    var bindConnection = !TransactionSynchronizationManager.hasResource(dataSource);
+    if (bindConnection) {
+      TransactionSynchronizationManager.bindResource(dataSource, new ConnectionHolder(connection));
+    }
+
+    try {
+      // В транзакции режим устанавливается локально: если ошибка запроса прервёт транзакцию,
+      // режим сбросится вместе с ней
+      jdbcTemplate.queryForObject(SET_SQL, String.class, planCacheMode.getSettingValue(),
+          TransactionSynchronizationManager.isActualTransactionActive());
+      T result;
+      try {
+        result = action.get();
+      } catch (RuntimeException | Error ex) {
+        // Сброс в прерванной транзакции завершится ошибкой, которая не должна скрыть исходную
+        try {
+          jdbcTemplate.execute(RESET_SQL);
+        } catch (RuntimeException resetEx) {
+          ex.addSuppressed(resetEx);
+        }
+
+        throw ex;
+      }
+
+      jdbcTemplate.execute(RESET_SQL);
+      return result;
+    } finally {
+      if (bindConnection) {
+        TransactionSynchronizationManager.unbindResource(dataSource);
+      }
+
+      DataSourceUtils.releaseConnection(connection, dataSource);
+    }
+  }
+
+}
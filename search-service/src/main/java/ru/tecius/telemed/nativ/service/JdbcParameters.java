@@ -0,0 +1,65 @@
+package ru.tecius.telemed.nativ.service;
+
+import static java.util.Map.entry;
+import static java.util.Objects.isNull;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.experimental.UtilityClass;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+
+/**
+ * Подготовка параметров запроса к JDBC: значения известных типов передаются с явным SQL-типом,
+ * строки остаются без типа, чтобы PostgreSQL сам привёл их к типу колонки (enum, jsonb и т.п.).
+ */
+@UtilityClass
+class JdbcParameters {
+
+  private static final Map<Class<?>, Integer> SQL_TYPES = Map.ofEntries(
+      entry(Long.class, Types.BIGINT),
+      entry(Integer.class, Types.INTEGER),
+      entry(Short.class, Types.SMALLINT),
+      entry(Double.class, Types.DOUBLE),
+      entry(Float.class, Types.REAL),
+      entry(BigDecimal.class, Types.NUMERIC),
+      entry(Boolean.class, Types.BOOLEAN),
+      entry(UUID.class, Types.OTHER),
+      entry(OffsetDateTime.class, Types.TIMESTAMP_WITH_TIMEZONE),
+      entry(LocalDateTime.class, Types.TIMESTAMP),
+      entry(LocalDate.class, Types.DATE)
+  );
+
+  static Object[] toArgs(List<Object> params) {
+    return params.stream()
+        .map(JdbcParameters::toArg)
+        .toArray();
+  }
+
+  private static Object toArg(Object value) {
+    if (isNull(value)) {
+      return null;
+    }
+
+    if (value instanceof ArrayParameter array) {
+      return new SqlParameterValue(Types.ARRAY, new AbstractSqlTypeValue() {
+        @Override
+        protected Object createTypeValue(Connection connection, int sqlType, String typeName)
+            throws SQLException {
+          return connection.createArrayOf(array.elementType(), array.values());
+        }
+      });
+    }
+
+    var sqlType = SQL_TYPES.get(value.getClass());
+    return isNull(sqlType) ? value : new SqlParameterValue(sqlType, value);
+  }
+}
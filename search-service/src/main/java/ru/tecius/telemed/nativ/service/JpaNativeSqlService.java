@@ -1,19 +1,38 @@
 package ru.tecius.telemed.nativ.service;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static ru.tecius.telemed.common.observation.SearchPhase.MAPPING;
+import static ru.tecius.telemed.nativ.service.NativeCountMode.NONE;
+import static ru.tecius.telemed.nativ.service.NativeCountMode.WINDOW_FUNCTION;
+
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.Query;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.hibernate.query.NativeQuery;
+import ru.tecius.telemed.common.count.CountStrategy;
 import ru.tecius.telemed.common.nativ.SearchInfoInterface;
+import ru.tecius.telemed.common.observation.SearchEngine;
+import ru.tecius.telemed.common.observation.SearchTrace;
 import ru.tecius.telemed.dto.request.PaginationDto;
 import ru.tecius.telemed.dto.request.SearchDataDto;
 import ru.tecius.telemed.dto.request.SortDto;
 import ru.tecius.telemed.dto.response.SearchResponseDto;
+import ru.tecius.telemed.nativ.plan.PlanCacheMode;
 
 public class JpaNativeSqlService<E> extends AbstractNativeSqlService<E> {
 
   private final Class<E> cls;
   private final EntityManager entityManager;
+  private final JpaNativeStatementExecutor statementExecutor;
+  private final JpaNativeStatementExecutor contentStatementExecutor;
 
   public JpaNativeSqlService(
       Class<E> cls,
@@ -21,30 +40,144 @@ public class JpaNativeSqlService<E> extends AbstractNativeSqlService<E> {
       SearchInfoInterface<E> searchInfoInterface,
       Long defaultPageSize
   ) {
-    super(searchInfoInterface, defaultPageSize);
+    this(cls, entityManager, searchInfoInterface, defaultPageSize,
+        NativeSearchOptions.defaults());
+  }
+
+  /**
+   * @param options настройки сервиса. При заданном исполнителе одновременных запросов подсчёт
+   *                выполняется в собственном EntityManager на отдельном соединении и не видит
+   *                незафиксированных изменений транзакции вызывающего кода
+   */
+  public JpaNativeSqlService(
+      Class<E> cls,
+      EntityManager entityManager,
+      SearchInfoInterface<E> searchInfoInterface,
+      Long defaultPageSize,
+      NativeSearchOptions options
+  ) {
+    super(searchInfoInterface, defaultPageSize, options, List.of());
     this.cls = cls;
     this.entityManager = entityManager;
+    // EntityManager не потокобезопасен, поэтому подсчёт в отдельном потоке открывает свой
+    this.contentStatementExecutor = new JpaNativeStatementExecutor(entityManager);
+    this.statementExecutor = nonNull(options.concurrentQueryExecutor())
+        ? new JpaNativeStatementExecutor(entityManager.getEntityManagerFactory())
+        : contentStatementExecutor;
   }
 
-  @SuppressWarnings("unchecked")
   public SearchResponseDto<E> search(List<SearchDataDto> searchData, LinkedList<SortDto> sort,
       PaginationDto pagination, boolean needCalculateCount) {
     return search(searchData, sort, pagination,
-        (countSql, params) -> {
-          var countQuery = entityManager.createNativeQuery(countSql, Long.class);
-          setQueryParameters(countQuery, params);
-          return (Long) countQuery.getSingleResult();
-        },
-        (sql, params) -> {
-          var query = entityManager.createNativeQuery(sql, cls);
-          setQueryParameters(query, params);
-          return query.getResultList();
-        }, needCalculateCount);
-  }
-
-  private void setQueryParameters(Query query, List<Object> params) {
-    for (int i = 0; i < params.size(); i++) {
-      query.setParameter(i + 1, params.get(i));
+        needCalculateCount ? CountStrategy.exact() : null);
+  }
+
+  public SearchResponseDto<E> search(List<SearchDataDto> searchData, LinkedList<SortDto> sort,
+      PaginationDto pagination, NativeCountMode countMode) {
+    return search(null, searchData, sort, pagination, statementExecutor, this::queryContent,
+        Objects.equals(countMode, NONE) ? null : CountStrategy.exact(),
+        Objects.equals(countMode, WINDOW_FUNCTION));
+  }
+
+  public SearchResponseDto<E> search(List<SearchDataDto> searchData, LinkedList<SortDto> sort,
+      PaginationDto pagination, CountStrategy countStrategy) {
+    return search(null, searchData, sort, pagination, statementExecutor, this::queryContent,
+        countStrategy, false);
+  }
+
+  /**
+   * Поиск с выборкой только перечисленных атрибутов. Строка результата - значения атрибутов по
+   * JSON-ключам в порядке fields.
+   */
+  public SearchResponseDto<Map<String, Object>> searchFields(List<String> fields,
+      List<SearchDataDto> searchData, LinkedList<SortDto> sort, PaginationDto pagination,
+      CountStrategy countStrategy) {
+    return search(fields, searchData, sort, pagination, statementExecutor,
+        this::queryProjection, countStrategy, false);
+  }
+
+  @Override
+  protected <T> T withPlanCacheMode(PlanCacheMode planCacheMode, Supplier<T> action) {
+    return contentStatementExecutor.withPlanCacheMode(planCacheMode, action);
+  }
+
+  @Override
+  protected SearchEngine getEngine() {
+    return SearchEngine.JPA;
+  }
+
+  @SuppressWarnings("unchecked")
+  private NativeContent<E> queryContent(NativeContentQuery query, SearchTrace trace) {
+    if (!query.hasExtraColumns()) {
+      var contentQuery = entityManager.createNativeQuery(query.sql(), cls);
+      JpaNativeStatementExecutor.setQueryParameters(contentQuery, query.params());
+      return NativeContent.of(contentQuery.getResultList());
     }
+
+    // Колонки keyset_N и total_count читаются как скаляры рядом с сущностью
+    NativeQuery<?> contentQuery = entityManager.createNativeQuery(query.sql())
+        .unwrap(NativeQuery.class);
+    contentQuery.addEntity(cls);
+    return readRows(contentQuery, query, trace, 1, row -> cls.cast(row[0]));
+  }
+
+  private NativeContent<Map<String, Object>> queryProjection(NativeContentQuery query,
+      SearchTrace trace) {
+    NativeQuery<?> contentQuery = entityManager.createNativeQuery(query.sql())
+        .unwrap(NativeQuery.class);
+    var projection = query.projection();
+    projection.forEach(column -> contentQuery.addScalar(column.alias(), column.type()));
+    return readRows(contentQuery, query, trace, projection.size(), row -> {
+      var values = new LinkedHashMap<String, Object>();
+      for (var i = 0; i < projection.size(); i++) {
+        values.put(projection.get(i).alias(), row[i]);
+      }
+
+      return values;
+    });
+  }
+
+  /**
+   * Читает строки, в которых за значениями строки результата шириной rowWidth следуют колонки
+   * keyset_N и total_count.
+   */
+  @SuppressWarnings("unchecked")
+  private <R> NativeContent<R> readRows(NativeQuery<?> contentQuery, NativeContentQuery query,
+      SearchTrace trace, int rowWidth, Function<Object[], R> rowFunction) {
+    var keysetSize = query.keysetTypes().size();
+    for (var i = 0; i < keysetSize; i++) {
+      contentQuery.addScalar(NativeContentQuery.keysetColumnAlias(i), query.keysetTypes().get(i));
+    }
+
+    if (query.windowCount()) {
+      contentQuery.addScalar(NativeContentQuery.TOTAL_COUNT_COLUMN_ALIAS, Long.class);
+    }
+
+    // Строка всегда массив, даже если в выборке одна колонка
+    contentQuery.setTupleTransformer((tuple, aliases) -> tuple);
+    JpaNativeStatementExecutor.setQueryParameters(contentQuery, query.params());
+
+    var rows = new ArrayList<R>();
+    var rowKeys = new ArrayList<List<Object>>();
+    Long totalElements = null;
+    var resultList = (List<Object[]>) contentQuery.getResultList();
+    // Сущности собирает Hibernate при чтении результата, здесь - только строки выборки
+    trace.setRows(resultList.size());
+    var mapEvent = trace.beginEvent(MAPPING);
+    var mappingStart = System.nanoTime();
+    for (var row : resultList) {
+      rows.add(rowFunction.apply(row));
+      if (query.hasKeyset()) {
+        rowKeys.add(Arrays.asList(Arrays.copyOfRange(row, rowWidth, rowWidth + keysetSize)));
+      }
+
+      if (query.windowCount() && isNull(totalElements)) {
+        totalElements = (Long) row[rowWidth + keysetSize];
+      }
+    }
+
+    var mappingNanos = System.nanoTime() - mappingStart;
+    trace.commitEvent(mapEvent);
+    return new NativeContent<>(rows, rowKeys, totalElements, mappingNanos);
   }
 }
@@ -0,0 +1,179 @@
+package ru.tecius.telemed.nativ.service;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static ru.tecius.telemed.common.count.QueryTimeouts.QUERY_TIMEOUT_HINT;
+import static ru.tecius.telemed.common.count.QueryTimeouts.toJdbcSeconds;
+import static ru.tecius.telemed.nativ.plan.PlanCacheMode.AUTO;
+import static ru.tecius.telemed.nativ.plan.PlanCacheMode.RESET_SQL;
+import static ru.tecius.telemed.nativ.plan.PlanCacheMode.SET_SQL;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Query;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.hibernate.Session;
+import ru.tecius.telemed.common.count.QueryTimeouts;
+import ru.tecius.telemed.nativ.plan.PlanCacheMode;
+
+public class JpaNativeStatementExecutor implements NativeStatementExecutor {
+
+  private final EntityManager entityManager;
+  private final EntityManagerFactory entityManagerFactory;
+  private final ThreadLocal<EntityManager> currentEntityManager = new ThreadLocal<>();
+
+  public JpaNativeStatementExecutor(EntityManager entityManager) {
+    this.entityManager = entityManager;
+    this.entityManagerFactory = null;
+  }
+
+  /**
+   * Исполнитель, открывающий собственный EntityManager на каждый запрос. Используется при
+   * выполнении запросов вне потока, которому принадлежит EntityManager сервиса.
+   */
+  public JpaNativeStatementExecutor(EntityManagerFactory entityManagerFactory) {
+    this.entityManager = null;
+    this.entityManagerFactory = entityManagerFactory;
+  }
+
+  @Override
+  public Long queryForLong(String sql, List<Object> params) {
+    return execute(em -> {
+      var query = em.createNativeQuery(sql, Long.class);
+      setQueryParameters(query, params);
+      return (Long) query.getSingleResult();
+    });
+  }
+
+  @Override
+  public Optional<Long> queryForLong(String sql, List<Object> params, Duration timeout) {
+    return execute(em -> {
+      var query = em.createNativeQuery(sql, Long.class);
+      setQueryParameters(query, params);
+      return QueryTimeouts.countWithTimeout(em, query, timeout);
+    });
+  }
+
+  @Override
+  public String queryForString(String sql, List<Object> params) {
+    return execute(em -> {
+      var query = em.createNativeQuery(sql, String.class);
+      setQueryParameters(query, params);
+      return (String) query.getSingleResult();
+    });
+  }
+
+  @Override
+  public String queryForStringIsolated(String sql, List<Object> params, Duration timeout) {
+    var factory = nonNull(entityManagerFactory)
+        ? entityManagerFactory
+        : entityManager.getEntityManagerFactory();
+    var em = factory.createEntityManager();
+    try {
+      var query = em.createNativeQuery(sql, String.class);
+      query.setHint(QUERY_TIMEOUT_HINT, toJdbcSeconds(timeout) * 1000L);
+      setQueryParameters(query, params);
+      return (String) query.getSingleResult();
+    } finally {
+      em.close();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Режим устанавливается через соединение сессии, поэтому для общего EntityManager действие
+   * должно выполняться в транзакции. Исполнитель с собственными EntityManager открывает один
+   * EntityManager на всё действие.
+   */
+  @Override
+  public <T> T withPlanCacheMode(PlanCacheMode planCacheMode, Supplier<T> action) {
+    if (Objects.equals(planCacheMode, AUTO)) {
+      return action.get();
+    }
+
+    if (isNull(entityManagerFactory)) {
+      return withPlanCacheMode(entityManager, planCacheMode, action);
+    }
+
+    var em = entityManagerFactory.createEntityManager();
+    currentEntityManager.set(em);
+    try {
+      return withPlanCacheMode(em, planCacheMode, action);
+    } finally {
+      currentEntityManager.remove();
+      em.close();
+    }
+  }
+
+  static void setQueryParameters(Query query, List<Object> params) {
+    for (int i = 0; i < params.size(); i++) {
+      // Массив Hibernate связывает по типу элементов
+      var param = params.get(i);
+      query.setParameter(i + 1, param instanceof ArrayParameter array ? array.values() : param);
+    }
+  }
+
+  private static <T> T withPlanCacheMode(EntityManager em, PlanCacheMode planCacheMode,
+      Supplier<T> action) {
+    var session = em.unwrap(Session.class);
+    session.doWork(connection -> {
+      try (var statement = connection.prepareStatement(SET_SQL)) {
+        // В транзакции режим устанавливается локально: если ошибка запроса прервёт транзакцию,
+        // режим сбросится вместе с ней
+        statement.setString(1, planCacheMode.getSettingValue());
+        statement.setBoolean(2, !connection.getAutoCommit());
+        statement.execute();
+      }
+    });
+
+    T result;
+    try {
+      result = action.get();
+    } catch (RuntimeException | Error ex) {
+      // Сброс в прерванной транзакции завершится ошибкой, которая не должна скрыть исходную
+      try {
+        resetPlanCacheMode(session);
+      } catch (RuntimeException resetEx) {
+        ex.addSuppressed(resetEx);
+      }
+
+      throw ex;
+    }
+
+    resetPlanCacheMode(session);
+    return result;
+  }
+
+  private static void resetPlanCacheMode(Session session) {
+    session.doWork(connection -> {
+      try (var statement = connection.createStatement()) {
+        statement.execute(RESET_SQL);
+      }
+    });
+  }
+
+  private <T> T execute(Function<EntityManager, T> action) {
+    if (isNull(entityManagerFactory)) {
+      return action.apply(entityManager);
+    }
+
+    var current = currentEntityManager.get();
+    if (nonNull(current)) {
+      return action.apply(current);
+    }
+
+    var em = entityManagerFactory.createEntityManager();
+    try {
+      return action.apply(em);
+    } finally {
+      em.close();
+    }
+  }
+
+}
@@ -0,0 +1,31 @@
+package ru.tecius.telemed.nativ.service;
+
+import java.util.List;
+
+/**
+ * Результат запроса получения страницы.
+ *
+ * @param rows          строки страницы
+ * @param rowKeys       значения колонок keyset_N для каждой строки (пусто без keyset-пагинации)
+ * @param totalElements значение total_count из первой строки (null, если колонки нет или страница
+ *                      пуста)
+ * @param mappingNanos  время преобразования строк результата, входящее во время запроса
+ */
+public record NativeContent<E>(List<E> rows,
+                               List<List<Object>> rowKeys,
+                               Long totalElements,
+                               long mappingNanos) {
+
+  public NativeContent(List<E> rows, List<List<Object>> rowKeys, Long totalElements) {
+    this(rows, rowKeys, totalElements, 0L);
+  }
+
+  public static <E> NativeContent<E> of(List<E> rows) {
+    return new NativeContent<>(rows, List.of(), null);
+  }
+
+  public static <E> NativeContent<E> of(List<E> rows, long mappingNanos) {
+    return new NativeContent<>(rows, List.of(), null, mappingNanos);
+  }
+
+}
@@ -0,0 +1,42 @@
+package ru.tecius.telemed.nativ.service;
+
+import java.util.LinkedList;
+import java.util.List;
+import ru.tecius.telemed.nativ.plan.ProjectedColumn;
+
+/**
+ * Запрос получения страницы, передаваемый в реализацию нативного сервиса.
+ *
+ * @param sql         текст запроса
+ * @param params      позиционные параметры
+ * @param projection  колонки выборки с явным списком атрибутов, пусто при выборке сущности
+ * @param keysetTypes типы дополнительных колонок keyset_N, которые нужно прочитать из каждой
+ *                    строки (пусто, если keyset-пагинация не используется)
+ * @param windowCount содержит ли запрос колонку total_count с общим количеством записей
+ */
+public record NativeContentQuery(String sql,
+                                 LinkedList<Object> params,
+                                 List<ProjectedColumn> projection,
+                                 List<Class<?>> keysetTypes,
+                                 boolean windowCount) {
+
+  public static final String KEYSET_COLUMN_ALIAS_TEMPLATE = "keyset_%d";
+  public static final String TOTAL_COUNT_COLUMN_ALIAS = "total_count";
+
+  public static String keysetColumnAlias(int index) {
+    return KEYSET_COLUMN_ALIAS_TEMPLATE.formatted(index);
+  }
+
+  public boolean isProjection() {
+    return !projection.isEmpty();
+  }
+
+  public boolean hasKeyset() {
+    return !keysetTypes.isEmpty();
+  }
+
+  public boolean hasExtraColumns() {
+    return hasKeyset() || windowCount;
+  }
+
+}
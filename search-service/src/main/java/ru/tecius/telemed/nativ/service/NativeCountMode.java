@@ -0,0 +1,30 @@
+package ru.tecius.telemed.nativ.service;
+
+import ru.tecius.telemed.common.count.CountStrategy;
+
+/**
+ * Способ получения общего количества записей в нативном движке.
+ */
+public enum NativeCountMode {
+
+  /**
+   * Количество не вычисляется.
+   */
+  NONE,
+
+  /**
+   * Отдельный запрос SELECT COUNT перед запросом страницы.
+   */
+  SEPARATE_QUERY,
+
+  /**
+   * COUNT(*) OVER() в запросе страницы: один round trip. Для пустой страницы (кроме первой) и
+   * для продолжения keyset-пагинации выполняется отдельный запрос подсчёта.
+   *
+   * <p>Применяется только со стратегией {@link CountStrategy#exact()}. Остальные стратегии, в том
+   * числе {@link CountStrategy#cached} поверх точной, выполняют отдельный запрос подсчёта: окно
+   * считает строки при каждом запросе и не может взять результат из кэша.
+   */
+  WINDOW_FUNCTION
+
+}
@@ -0,0 +1,55 @@
+package ru.tecius.telemed.nativ.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Optional;
+import ru.tecius.telemed.common.count.CountQueryExecutor;
+import ru.tecius.telemed.common.count.PlanEstimates;
+import ru.tecius.telemed.nativ.plan.NativeQueryTemplate;
+
+/**
+ * Запросы подсчёта нативного движка для скомпилированного шаблона и параметров фильтров.
+ */
+record NativeCountQueryExecutor(NativeQueryTemplate template,
+                                LinkedList<Object> params,
+                                NativeStatementExecutor statementExecutor)
+    implements CountQueryExecutor {
+
+  @Override
+  public long exactCount() {
+    return statementExecutor.queryForLong(template.countSql(), params);
+  }
+
+  @Override
+  public Optional<Long> exactCount(Duration timeout) {
+    return statementExecutor.queryForLong(template.countSql(), params, timeout);
+  }
+
+  @Override
+  public long cappedCount(long limit) {
+    var cappedParams = new LinkedList<>(params);
+    cappedParams.add(limit);
+    return statementExecutor.queryForLong(template.cappedCountSql(), cappedParams);
+  }
+
+  @Override
+  public Optional<Long> estimatedCount() {
+    return Optional.of(PlanEstimates.parsePlanRows(
+        statementExecutor.queryForString(template.estimateSql(), params)));
+  }
+
+  @Override
+  public Object filterKey() {
+    // Подсчёт определяется FROM/JOIN/WHERE и значениями фильтров. Текст countSql не подходит:
+    // метка формы в нём зависит от сортировки, выборки и пагинации основного запроса
+    var key = new ArrayList<>(params.size() + 1);
+    key.add(template.countFilterSql());
+    params.forEach(param -> key.add(param instanceof ArrayParameter array
+        ? Arrays.asList(array.values())
+        : param));
+    return key;
+  }
+
+}
@@ -0,0 +1,44 @@
+package ru.tecius.telemed.nativ.service;
+
+import static java.util.Objects.requireNonNullElse;
+import static java.util.Objects.requireNonNullElseGet;
+
+import lombok.Builder;
+import ru.tecius.telemed.common.concurrent.ConcurrentQueryExecutor;
+import ru.tecius.telemed.common.observation.SearchObserver;
+import ru.tecius.telemed.nativ.plan.PreparedStatementRegistry;
+import ru.tecius.telemed.nativ.plan.QueryTemplateCache;
+
+/**
+ * Настройки нативных сервисов поиска. Не заданные в построителе настройки получают значения по
+ * умолчанию.
+ *
+ * @param queryTemplateCache      кэш скомпилированных шаблонов запросов, по умолчанию свой у
+ *                                каждого сервиса
+ * @param concurrentQueryExecutor исполнитель для одновременного выполнения подсчёта и основного
+ *                                запроса, null - запросы выполняются последовательно
+ * @param statementRegistry       реестр имён форм запросов и их plan_cache_mode
+ * @param observer                наблюдатель, вызываемый после каждого поиска
+ * @param selectRowMapperColumns  выбирать только колонки генерированного маппера строк
+ *                                ({@link ru.tecius.telemed.common.nativ.NativeRowColumns})
+ *                                вместо alias.*. Остальные свойства сущности при этом остаются
+ *                                пустыми, поэтому по умолчанию выключено
+ */
+@Builder
+public record NativeSearchOptions(QueryTemplateCache queryTemplateCache,
+                                  ConcurrentQueryExecutor concurrentQueryExecutor,
+                                  PreparedStatementRegistry statementRegistry,
+                                  SearchObserver observer,
+                                  boolean selectRowMapperColumns) {
+
+  public NativeSearchOptions {
+    queryTemplateCache = requireNonNullElseGet(queryTemplateCache, QueryTemplateCache::new);
+    statementRegistry = requireNonNullElseGet(statementRegistry, PreparedStatementRegistry::new);
+    observer = requireNonNullElse(observer, SearchObserver.NOOP);
+  }
+
+  public static NativeSearchOptions defaults() {
+    return builder().build();
+  }
+
+}
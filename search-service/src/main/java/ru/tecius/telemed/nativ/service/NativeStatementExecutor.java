@@ -0,0 +1,39 @@
+package ru.tecius.telemed.nativ.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import ru.tecius.telemed.nativ.plan.PlanCacheMode;
+
+/**
+ * Выполнение служебных скалярных запросов (подсчёт, EXPLAIN) нативного движка.
+ */
+public interface NativeStatementExecutor {
+
+  Long queryForLong(String sql, List<Object> params);
+
+  /**
+   * Выполняет запрос с ограничением времени.
+   *
+   * @return результат или пустое значение, если запрос был отменён по тайм-ауту
+   */
+  Optional<Long> queryForLong(String sql, List<Object> params, Duration timeout);
+
+  String queryForString(String sql, List<Object> params);
+
+  /**
+   * Выполняет запрос на отдельном соединении вне транзакции вызывающего кода: ошибка запроса не
+   * прерывает её, но и незафиксированные изменения транзакции запросу не видны. Запрос
+   * отменяется по истечении тайм-аута, отмена завершается ошибкой.
+   */
+  String queryForStringIsolated(String sql, List<Object> params, Duration timeout);
+
+  /**
+   * Выполняет действие с заданным plan_cache_mode. Запросы действия, выполняемые в том же потоке,
+   * идут через соединение с установленным режимом, после действия режим сбрасывается.
+   * {@link PlanCacheMode#AUTO} считается режимом сессии по умолчанию и не устанавливается.
+   */
+  <T> T withPlanCacheMode(PlanCacheMode planCacheMode, Supplier<T> action);
+
+}
@@ -0,0 +1,50 @@
+package ru.tecius.telemed.common.keyset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import ru.tecius.telemed.exception.ValidationException;
+
+class KeysetCursorCodecTest {
+
+  @Test
+  void decodeReturnsEncodedKeysAsStrings() {
+    var cursor = KeysetCursorCodec.encode(
+        Arrays.asList(10, null, "title", LocalDate.of(2024, 1, 31), 42L));
+
+    assertThat(KeysetCursorCodec.decode(cursor, 5))
+        .containsExactly("10", null, "title", "2024-01-31", "42");
+  }
+
+  @Test
+  void cursorIsUrlSafe() {
+    var cursor = KeysetCursorCodec.encode(List.of("???>>>", "ключ"));
+
+    assertThat(cursor).doesNotContain("+", "/", "=");
+    assertThat(KeysetCursorCodec.decode(cursor, 2)).containsExactly("???>>>", "ключ");
+  }
+
+  @Test
+  void decodeRejectsCursorOfAnotherSort() {
+    var cursor = KeysetCursorCodec.encode(List.of(1, 2));
+
+    assertThatThrownBy(() -> KeysetCursorCodec.decode(cursor, 3))
+        .isInstanceOf(ValidationException.class)
+        .hasMessage(KeysetCursorCodec.INVALID_CURSOR_ERROR);
+  }
+
+  @Test
+  void decodeRejectsMalformedCursor() {
+    assertThatThrownBy(() -> KeysetCursorCodec.decode("not a cursor!", 1))
+        .isInstanceOf(ValidationException.class)
+        .hasMessage(KeysetCursorCodec.INVALID_CURSOR_ERROR);
+    assertThatThrownBy(() -> KeysetCursorCodec.decode("e30", 1))
+        .isInstanceOf(ValidationException.class)
+        .hasMessage(KeysetCursorCodec.INVALID_CURSOR_ERROR);
+  }
+
+}
@@ -0,0 +1,182 @@
+package ru.tecius.telemed.nativ.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.tecius.telemed.configuration.nativ.JoinCardinality.TO_MANY;
+import static ru.tecius.telemed.configuration.nativ.JoinCardinality.TO_ONE;
+import static ru.tecius.telemed.configuration.nativ.JoinTypeEnum.INNER_JOIN;
+import static ru.tecius.telemed.configuration.nativ.JoinTypeEnum.LEFT_JOIN;
+import static ru.tecius.telemed.dto.request.Direction.ASC;
+import static ru.tecius.telemed.dto.request.Operator.EQUAL;
+import static ru.tecius.telemed.dto.request.Operator.IS_NULL;
+import static ru.tecius.telemed.nativ.service.TestSearchInfo.multiple;
+import static ru.tecius.telemed.nativ.service.TestSearchInfo.simple;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import ru.tecius.telemed.configuration.nativ.JoinCardinality;
+import ru.tecius.telemed.configuration.nativ.JoinData;
+import ru.tecius.telemed.configuration.nativ.JoinInfo;
+import ru.tecius.telemed.configuration.nativ.JoinReferenceData;
+import ru.tecius.telemed.configuration.nativ.JoinTypeEnum;
+import ru.tecius.telemed.dto.request.Operator;
+import ru.tecius.telemed.dto.request.PaginationDto;
+import ru.tecius.telemed.dto.request.SearchDataDto;
+import ru.tecius.telemed.dto.request.SortDto;
+
+/**
+ * Джойны в тексте запросов: фильтр по связи один ко многим через EXISTS и исключение джойнов
+ * к одной записи из запроса подсчёта. Запросы не выполняются, проверяется их текст.
+ */
+class JdbcNativeSqlServiceJoinTest {
+
+  private RecordingJdbcTemplate jdbcTemplate;
+  private JdbcNativeSqlService<Object> service;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = new RecordingJdbcTemplate();
+    var searchInfo = new TestSearchInfo<>(Object.class, "test", "person", "p",
+        Set.of(simple("id", "id", Long.class), simple("title", "title", String.class)),
+        Set.of(
+            multiple("phoneNumber", "number", String.class,
+                join("phone", "ph", "id", "person_id", LEFT_JOIN, TO_MANY, null)),
+            multiple("cityName", "name", String.class,
+                join("city", "c", "city_id", "id", LEFT_JOIN, TO_ONE, null)),
+            multiple("departmentName", "name", String.class,
+                join("department", "d", "department_id", "id", INNER_JOIN, TO_ONE, false)),
+            multiple("teamName", "name", String.class,
+                join("team", "t", "team_id", "id", INNER_JOIN, TO_ONE, null)),
+            multiple("managerName", "name", String.class,
+                join("manager", "m", "manager_id", "id", LEFT_JOIN, null, null))));
+    service = new JdbcNativeSqlService<>(jdbcTemplate, (rs, rowNum) -> new Object(),
+        searchInfo, 20L);
+  }
+
+  @Test
+  void toManyFilterUsesExistsInsteadOfJoin() {
+    search(List.of(filter("phoneNumber", EQUAL, "100")), new LinkedList<>());
+
+    assertThat(jdbcTemplate.contentSql())
+        .contains("EXISTS (SELECT 1 FROM test.phone AS ph\nWHERE ph.person_id = p.id\n"
+            + "AND ph.number = ?)")
+        .doesNotContain("JOIN test.phone");
+    assertThat(jdbcTemplate.countSql())
+        .contains("EXISTS (SELECT 1 FROM test.phone AS ph")
+        .doesNotContain("JOIN test.phone");
+  }
+
+  @Test
+  void toManyFilterKeepsJoinUsedForSort() {
+    search(List.of(filter("phoneNumber", EQUAL, "100")), sort("phoneNumber"));
+
+    assertThat(jdbcTemplate.contentSql())
+        .contains("LEFT JOIN test.phone AS ph ON p.id = ph.person_id")
+        .doesNotContain("EXISTS");
+  }
+
+  @Test
+  void toManyIsNullFilterKeepsJoin() {
+    search(List.of(filter("phoneNumber", IS_NULL)), new LinkedList<>());
+
+    assertThat(jdbcTemplate.contentSql())
+        .contains("LEFT JOIN test.phone AS ph ON p.id = ph.person_id")
+        .doesNotContain("EXISTS");
+  }
+
+  @Test
+  void countDropsOptionalToOneJoinUsedOnlyForSort() {
+    search(List.of(), sort("cityName"));
+
+    assertThat(jdbcTemplate.contentSql())
+        .contains("LEFT JOIN test.city AS c ON p.city_id = c.id");
+    assertThat(jdbcTemplate.countSql()).doesNotContain("JOIN test.city");
+  }
+
+  @Test
+  void countDropsMandatoryInnerToOneJoin() {
+    search(List.of(), sort("departmentName"));
+
+    assertThat(jdbcTemplate.contentSql()).contains("INNER JOIN test.department AS d");
+    assertThat(jdbcTemplate.countSql()).doesNotContain("JOIN test.department");
+  }
+
+  @Test
+  void countKeepsInnerJoinWithoutNullableFalse() {
+    search(List.of(), sort("teamName"));
+
+    assertThat(jdbcTemplate.countSql()).contains("INNER JOIN test.team AS t");
+  }
+
+  @Test
+  void countKeepsJoinWithoutCardinality() {
+    search(List.of(), sort("managerName"));
+
+    assertThat(jdbcTemplate.countSql()).contains("LEFT JOIN test.manager AS m");
+  }
+
+  @Test
+  void countKeepsJoinUsedByFilter() {
+    search(List.of(filter("cityName", EQUAL, "Moscow")), sort("cityName"));
+
+    assertThat(jdbcTemplate.countSql())
+        .contains("LEFT JOIN test.city AS c")
+        .contains("c.name = ?");
+  }
+
+  private void search(List<SearchDataDto> searchData, LinkedList<SortDto> sort) {
+    service.search(searchData, sort, new PaginationDto(0, 20), true);
+  }
+
+  private static JoinInfo join(String table, String alias, String referenceColumn,
+      String column, JoinTypeEnum type, JoinCardinality cardinality, Boolean nullable) {
+    return new JoinInfo(1, new JoinReferenceData("person", "p", referenceColumn),
+        new JoinData(table, alias, column), type, cardinality, nullable);
+  }
+
+  private static SearchDataDto filter(String attribute, Operator operator, String... values) {
+    return new SearchDataDto(attribute, new LinkedList<>(List.of(values)), operator);
+  }
+
+  private static LinkedList<SortDto> sort(String attribute) {
+    return new LinkedList<>(List.of(new SortDto(attribute, ASC)));
+  }
+
+  /**
+   * Запоминает текст запросов страницы и подсчёта вместо их выполнения.
+   */
+  private static class RecordingJdbcTemplate extends JdbcTemplate {
+
+    private final List<String> contentStatements = new ArrayList<>();
+    private final List<String> countStatements = new ArrayList<>();
+
+    @Override
+    public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+      contentStatements.add(sql);
+      return List.of();
+    }
+
+    @Override
+    public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+      countStatements.add(sql);
+      return requiredType.cast(0L);
+    }
+
+    String contentSql() {
+      assertThat(contentStatements).hasSize(1);
+      return contentStatements.getFirst();
+    }
+
+    String countSql() {
+      assertThat(countStatements).hasSize(1);
+      return countStatements.getFirst();
+    }
+
+  }
+
+}
@@ -0,0 +1,166 @@
+package ru.tecius.telemed.nativ.service;
+
+import static java.util.Objects.nonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.tecius.telemed.dto.request.Direction.ASC;
+import static ru.tecius.telemed.dto.request.Direction.DESC;
+import static ru.tecius.telemed.dto.request.PaginationMode.KEYSET;
+import static ru.tecius.telemed.nativ.service.TestSearchInfo.simple;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.tecius.telemed.common.keyset.KeysetCursorCodec;
+import ru.tecius.telemed.dto.request.Direction;
+import ru.tecius.telemed.dto.request.PaginationDto;
+import ru.tecius.telemed.dto.request.SortDto;
+import ru.tecius.telemed.dto.response.SearchResponseDto;
+
+/**
+ * Keyset-пагинация по ключу сортировки с NULL. H2 в режиме PostgreSQL с NULL в конце при ASC и
+ * в начале при DESC, как в PostgreSQL по умолчанию.
+ */
+class JdbcNativeSqlServiceKeysetTest {
+
+  private static final String URL = "jdbc:h2:mem:keyset;MODE=PostgreSQL;"
+      + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+  private static final int MAX_PAGES = 10;
+
+  private static JdbcNativeSqlService<Person> service;
+
+  record Person(Long id, String title, Integer score) {
+
+  }
+
+  @BeforeAll
+  static void setUp() {
+    var jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(URL));
+    jdbcTemplate.execute("CREATE SCHEMA test");
+    jdbcTemplate.execute("""
+        CREATE TABLE test.person (
+          id BIGINT PRIMARY KEY,
+          title VARCHAR(16) NOT NULL,
+          score INTEGER
+        )""");
+    jdbcTemplate.batchUpdate("INSERT INTO test.person (id, title, score) VALUES (?, ?, ?)",
+        List.of(
+            new Object[]{1L, "a", 10},
+            new Object[]{2L, "b", null},
+            new Object[]{3L, "c", 20},
+            new Object[]{4L, "d", null},
+            new Object[]{5L, "e", 10},
+            new Object[]{6L, "f", null},
+            new Object[]{7L, "g", 30}));
+
+    var searchInfo = new TestSearchInfo<>(Person.class, "test", "person", "p",
+        Set.of(simple("id", "id", Long.class), simple("title", "title", String.class),
+            simple("score", "score", Integer.class)),
+        Set.of());
+    service = new JdbcNativeSqlService<>(jdbcTemplate,
+        (rs, rowNum) -> new Person(rs.getLong("id"), rs.getString("title"),
+            rs.getObject("score", Integer.class)),
+        searchInfo, 20L);
+  }
+
+  @Test
+  void ascendingSortPutsNullsLast() {
+    assertThat(readAllPages(sort("score", ASC), 2))
+        .containsExactly(1L, 5L, 3L, 7L, 2L, 4L, 6L);
+  }
+
+  @Test
+  void descendingSortPutsNullsFirst() {
+    assertThat(readAllPages(sort("score", DESC), 2))
+        .containsExactly(6L, 4L, 2L, 7L, 3L, 5L, 1L);
+  }
+
+  @Test
+  void pageBoundaryInsideNullRunContinuesWithinRun() {
+    var first = search(sort("score", ASC), 5, null);
+    assertThat(first.content()).extracting(Person::id).containsExactly(1L, 5L, 3L, 7L, 2L);
+    assertThat(KeysetCursorCodec.decode(first.nextCursor(), 2))
+        .containsExactly(null, "2");
+
+    var second = search(sort("score", ASC), 5, first.nextCursor());
+    assertThat(second.content()).extracting(Person::id).containsExactly(4L, 6L);
+    assertThat(second.nextCursor()).isNull();
+  }
+
+  @Test
+  void pageBoundaryInsideNullRunWithDescendingSort() {
+    var first = search(sort("score", DESC), 2, null);
+    assertThat(first.content()).extracting(Person::id).containsExactly(6L, 4L);
+    assertThat(KeysetCursorCodec.decode(first.nextCursor(), 2))
+        .containsExactly(null, "4");
+
+    var second = search(sort("score", DESC), 2, first.nextCursor());
+    assertThat(second.content()).extracting(Person::id).containsExactly(2L, 7L);
+  }
+
+  @Test
+  void lastPageEndingOnNullHasNoCursor() {
+    var response = search(sort("score", ASC), 7, null);
+
+    assertThat(response.content()).extracting(Person::id)
+        .containsExactly(1L, 5L, 3L, 7L, 2L, 4L, 6L);
+    assertThat(response.nextCursor()).isNull();
+  }
+
+  @Test
+  void mixedSortAscendingThenDescending() {
+    var sort = sort("score", ASC);
+    sort.add(new SortDto("title", DESC));
+
+    assertThat(readAllPages(sort, 2)).containsExactly(5L, 1L, 3L, 7L, 6L, 4L, 2L);
+  }
+
+  @Test
+  void mixedSortDescendingThenAscending() {
+    var sort = sort("score", DESC);
+    sort.add(new SortDto("title", ASC));
+
+    assertThat(readAllPages(sort, 3)).containsExactly(2L, 4L, 6L, 7L, 3L, 1L, 5L);
+  }
+
+  @Test
+  void cursorRoundTripsAllSortKeys() {
+    var sort = sort("score", ASC);
+    sort.add(new SortDto("title", DESC));
+
+    var response = search(sort, 1, null);
+
+    assertThat(KeysetCursorCodec.decode(response.nextCursor(), 3))
+        .containsExactly("10", "e", "5");
+  }
+
+  private List<Long> readAllPages(LinkedList<SortDto> sort, int pageSize) {
+    var ids = new ArrayList<Long>();
+    String cursor = null;
+    var pages = 0;
+    do {
+      var response = search(sort, pageSize, cursor);
+      assertThat(response.content()).hasSizeLessThanOrEqualTo(pageSize);
+      response.content().forEach(person -> ids.add(person.id()));
+      cursor = response.nextCursor();
+      assertThat(++pages).isLessThanOrEqualTo(MAX_PAGES);
+    } while (nonNull(cursor));
+
+    return ids;
+  }
+
+  private SearchResponseDto<Person> search(LinkedList<SortDto> sort, int pageSize,
+      String cursor) {
+    return service.search(List.of(), sort, new PaginationDto(null, pageSize, KEYSET, cursor),
+        false);
+  }
+
+  private static LinkedList<SortDto> sort(String attribute, Direction direction) {
+    return new LinkedList<>(List.of(new SortDto(attribute, direction)));
+  }
+
+}
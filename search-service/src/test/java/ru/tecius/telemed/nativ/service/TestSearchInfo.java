@@ -0,0 +1,113 @@
+package ru.tecius.telemed.nativ.service;
+
+import static ru.tecius.telemed.configuration.common.AttributeType.MULTIPLE;
+import static ru.tecius.telemed.configuration.common.AttributeType.SIMPLE;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import ru.tecius.telemed.common.nativ.SearchInfoInterface;
+import ru.tecius.telemed.configuration.nativ.DbData;
+import ru.tecius.telemed.configuration.nativ.JoinInfo;
+import ru.tecius.telemed.configuration.nativ.JsonData;
+import ru.tecius.telemed.configuration.nativ.NativeSearchAttribute;
+import ru.tecius.telemed.exception.ValidationException;
+
+/**
+ * Нативное описание сущности для тестов, повторяющее генерируемое процессором.
+ */
+record TestSearchInfo<E>(Class<E> entityClass,
+                         String schemaName,
+                         String tableName,
+                         String tableAlias,
+                         Set<NativeSearchAttribute> simpleAttributes,
+                         Set<NativeSearchAttribute> multipleAttributes)
+    implements SearchInfoInterface<E> {
+
+  static NativeSearchAttribute simple(String key, String column, Class<?> type) {
+    return new NativeSearchAttribute(SIMPLE, new JsonData(key),
+        new DbData(column, type, null, null, null));
+  }
+
+  static NativeSearchAttribute multiple(String key, String column, Class<?> type,
+      JoinInfo... joins) {
+    return new NativeSearchAttribute(MULTIPLE, new JsonData(key),
+        new DbData(column, type, new LinkedHashSet<>(List.of(joins)), null, null));
+  }
+
+  @Override
+  public Class<E> getEntityClass() {
+    return entityClass;
+  }
+
+  @Override
+  public String getSchemaName() {
+    return schemaName;
+  }
+
+  @Override
+  public String getTablaName() {
+    return tableName;
+  }
+
+  @Override
+  public String getTableAlias() {
+    return tableAlias;
+  }
+
+  @Override
+  public String getFullTableName() {
+    return "%s.%s AS %s".formatted(schemaName, tableName, tableAlias);
+  }
+
+  @Override
+  public Set<NativeSearchAttribute> getSimpleAttributes() {
+    return simpleAttributes;
+  }
+
+  @Override
+  public Optional<NativeSearchAttribute> getSimpleAttributeByJsonKey(String key) {
+    return simpleAttributes.stream()
+        .filter(attr -> Objects.equals(attr.json().key(), key))
+        .findAny();
+  }
+
+  @Override
+  public Set<NativeSearchAttribute> getMultipleAttributes() {
+    return multipleAttributes;
+  }
+
+  @Override
+  public Optional<NativeSearchAttribute> getMultipleAttributeByJsonKey(String key) {
+    return multipleAttributes.stream()
+        .filter(attr -> Objects.equals(attr.json().key(), key))
+        .findAny();
+  }
+
+  @Override
+  public NativeSearchAttribute getAttributeByJsonKey(String key, String errorMessage) {
+    return getSimpleAttributeByJsonKey(key)
+        .orElseGet(() -> getMultipleAttributeByJsonKey(key)
+            .orElseThrow(() -> new ValidationException(errorMessage)));
+  }
+
+  @Override
+  public String createJoinString(JoinInfo joinInfo) {
+    return "%s %s.%s AS %s ON %s.%s = %s.%s".formatted(joinInfo.type().getValue(), schemaName,
+        joinInfo.join().table(), joinInfo.join().alias(),
+        joinInfo.reference().alias(), joinInfo.reference().column(),
+        joinInfo.join().alias(), joinInfo.join().column());
+  }
+
+  @Override
+  public String getFullColumnNameByAttribute(NativeSearchAttribute attribute) {
+    return switch (attribute.type()) {
+      case SIMPLE -> "%s.%s".formatted(tableAlias, attribute.db().column());
+      case MULTIPLE -> "%s.%s".formatted(attribute.db().joinInfo().getLast().join().alias(),
+          attribute.db().column());
+    };
+  }
+
+}
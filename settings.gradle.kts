@@ -3,4 +3,5 @@ include("search-models")
 include("search-processor")
 include("search-service")
 include("search-exp")
+include("search-benchmarks")
 include("search-service")
\ No newline at end of file